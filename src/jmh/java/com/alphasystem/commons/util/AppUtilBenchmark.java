@@ -0,0 +1,142 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.SystemException;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmarks for {@link AppUtil#getStackTrace(Throwable)} and {@link AppUtil#processDirectory(Path, java.util.function.Function)}
+ * with its parallel and lazy variants, of indexed resource lookups and of cached reflection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AppUtilBenchmark {
+
+    private static final String RESOURCE_NAME = "org/openjdk/jmh/annotations/Benchmark.class";
+
+    @Benchmark
+    public String getStackTrace(StackTraceState state) {
+        return AppUtil.getStackTrace(state.exception);
+    }
+
+    @Benchmark
+    public List<String> processDirectory(DirectoryState state) throws SystemException {
+        return AppUtil.processDirectory(state.workDir, path -> path.getFileName().toString());
+    }
+
+    @Benchmark
+    public List<String> processDirectoryParallel(DirectoryState state) throws SystemException {
+        return AppUtil.processDirectoryParallel(state.workDir, path -> path.getFileName().toString(),
+                Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    @Benchmark
+    public long processDirectoryLazily(DirectoryState state) throws SystemException {
+        try (var results = AppUtil.processDirectoryLazily(state.workDir, path -> path.getFileName().toString())) {
+            return results.count();
+        }
+    }
+
+    @Benchmark
+    public URL getResourceFromIndex() {
+        return AppUtil.getClasspathIndex().getResource(RESOURCE_NAME);
+    }
+
+    @Benchmark
+    public URL getResourceFromClassLoader() {
+        return Thread.currentThread().getContextClassLoader().getResource(RESOURCE_NAME);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ClasspathIndex scanClasspath() {
+        return ClasspathIndex.scan(Thread.currentThread().getContextClassLoader());
+    }
+
+    @Benchmark
+    public Object invokeMethod(ReflectionState state) {
+        return AppUtil.invokeMethod(state.target, "getFileName");
+    }
+
+    @Benchmark
+    public Object invokeGetter(ReflectionState state) {
+        return state.getter.apply(state.target);
+    }
+
+    @Benchmark
+    public Object invokeDirect(ReflectionState state) {
+        return state.target.getFileName();
+    }
+
+    @Benchmark
+    public Object initObject() throws SystemException {
+        return AppUtil.initObject(StringBuilder.class, new Class<?>[]{int.class}, new Object[]{16});
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReflectionState {
+
+        private StackTraceElement target;
+        private Function<Object, Object> getter;
+
+        @Setup
+        public void setup() {
+            target = new StackTraceElement("Benchmark", "run", "Benchmark.java", 1);
+            getter = AppUtil.getGetter(StackTraceElement.class, "getFileName").orElseThrow();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StackTraceState {
+
+        @Param({"10", "100"})
+        private int stackDepth;
+
+        private Throwable exception;
+
+        @Setup
+        public void setup() {
+            exception = new IllegalStateException("outer", createException(stackDepth));
+        }
+
+        private static Throwable createException(int depth) {
+            if (depth <= 0) {
+                return new RuntimeException("inner");
+            }
+            return createException(depth - 1);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DirectoryState {
+
+        @Param({"100", "10000"})
+        private int fileCount;
+
+        private Path workDir;
+
+        @Setup
+        public void setup() throws IOException {
+            workDir = Files.createTempDirectory("app-util-bench-");
+            for (int i = 0; i < fileCount; i++) {
+                final var dir = workDir.resolve(String.format("dir-%03d", i % 100));
+                Files.createDirectories(dir);
+                Files.createFile(dir.resolve(String.format("file-%05d.txt", i)));
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            FileUtils.deleteDirectory(workDir.toFile());
+        }
+    }
+}
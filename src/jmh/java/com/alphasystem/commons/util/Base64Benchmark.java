@@ -0,0 +1,77 @@
+package com.alphasystem.commons.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link Base64} encode / decode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class Base64Benchmark {
+
+    @Param({"64", "4096", "1048576"})
+    private int size;
+
+    private byte[] data;
+    private String encoded;
+    private byte[] encodeBuffer;
+    private byte[] decodeBuffer;
+    private byte[] encodedBytes;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        new Random(size).nextBytes(data);
+        encoded = Base64.encode(data);
+        encodeBuffer = new byte[Base64.encodedLength(size, true)];
+        decodeBuffer = new byte[size];
+        encodedBytes = encoded.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public String encode() {
+        return Base64.encode(data);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return Base64.decode(encoded);
+    }
+
+    @Benchmark
+    public String encodeNoLineWrap() {
+        return Base64.encode(data, false);
+    }
+
+    @Benchmark
+    public int encodeIntoArray() {
+        return Base64.encode(data, 0, data.length, encodeBuffer, 0);
+    }
+
+    @Benchmark
+    public int decodeIntoArray() {
+        return Base64.decode(encoded, decodeBuffer);
+    }
+
+    @Benchmark
+    public void encodeStream() throws IOException {
+        try (var out = Base64.wrap(OutputStream.nullOutputStream())) {
+            out.write(data);
+        }
+    }
+
+    @Benchmark
+    public long decodeStream() throws IOException {
+        try (var in = Base64.wrap(new ByteArrayInputStream(encodedBytes))) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
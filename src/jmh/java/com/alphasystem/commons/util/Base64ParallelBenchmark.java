@@ -0,0 +1,54 @@
+package com.alphasystem.commons.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link Base64#encodeParallel(byte[], ForkJoinPool)} and
+ * {@link Base64#decodeParallel(CharSequence, ForkJoinPool)} with pool size, <code>parallelism = 0</code> is the
+ * sequential baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class Base64ParallelBenchmark {
+
+    @Param({"16777216", "134217728"})
+    private int size;
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int parallelism;
+
+    private byte[] data;
+    private String encoded;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        new Random(size).nextBytes(data);
+        encoded = Base64.encode(data);
+        pool = (parallelism > 0) ? new ForkJoinPool(parallelism) : null;
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public String encode() {
+        return (pool == null) ? Base64.encode(data) : Base64.encodeParallel(data, pool);
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        return (pool == null) ? Base64.decode(encoded) : Base64.decodeParallel(encoded, pool);
+    }
+}
@@ -0,0 +1,92 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.SystemException;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Ratio and throughput of the archive codecs. Per second rates of the {@link Bytes} counters give input throughput
+ * (<code>inputBytes</code>) and the compression ratio (<code>outputBytes / inputBytes</code>).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CompressionBenchmark {
+
+    public enum Codec {
+        ZIP_STORED, ZIP_DEFLATE_1, ZIP_DEFLATE_6, ZIP_DEFLATE_9, TAR, TAR_GZIP, TAR_LZ4, TAR_ZSTD
+    }
+
+    @Param({"ZIP_STORED", "ZIP_DEFLATE_1", "ZIP_DEFLATE_6", "ZIP_DEFLATE_9", "TAR", "TAR_GZIP", "TAR_LZ4",
+            "TAR_ZSTD"})
+    private Codec codec;
+
+    @Param({"100"})
+    private int fileCount;
+
+    @Param({"262144"})
+    private int fileSize;
+
+    private Path workDir;
+    private File sourceDir;
+    private File target;
+    private long inputBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+
+        public long inputBytes;
+        public long outputBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            inputBytes = 0;
+            outputBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        if (codec == Codec.TAR_ZSTD && !TarArchive.Codec.ZSTD.isAvailable()) {
+            throw new IllegalStateException("zstd-jni is not on the class path");
+        }
+        workDir = Files.createTempDirectory("compression-bench-");
+        sourceDir = workDir.resolve("source").toFile();
+        target = workDir.resolve("archive").toFile();
+        ZipUtilBenchmark.createFiles(sourceDir, fileCount, fileSize);
+        inputBytes = FileUtils.sizeOfDirectory(sourceDir);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(workDir.toFile());
+    }
+
+    @Benchmark
+    public long archive(Bytes bytes) throws SystemException {
+        final File[] files = {sourceDir};
+        switch (codec) {
+            case ZIP_STORED -> ZipUtil.archiveFile(files, target, ZipCompression.stored());
+            case ZIP_DEFLATE_1 -> ZipUtil.archiveFile(files, target, ZipCompression.deflate(Deflater.BEST_SPEED));
+            case ZIP_DEFLATE_6 -> ZipUtil.archiveFile(files, target, ZipCompression.deflate(6));
+            case ZIP_DEFLATE_9 -> ZipUtil.archiveFile(files, target,
+                    ZipCompression.deflate(Deflater.BEST_COMPRESSION));
+            case TAR -> TarArchive.write(files, target, TarArchive.Codec.NONE);
+            case TAR_GZIP -> TarArchive.write(files, target, TarArchive.Codec.GZIP);
+            case TAR_LZ4 -> TarArchive.write(files, target, TarArchive.Codec.LZ4);
+            case TAR_ZSTD -> TarArchive.write(files, target, TarArchive.Codec.ZSTD);
+        }
+        final long length = target.length();
+        bytes.inputBytes += inputBytes;
+        bytes.outputBytes += length;
+        return length;
+    }
+}
@@ -0,0 +1,56 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.util.nio.NIOFileUtils;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link NIOFileUtils#copyDir(Path, Path)} with {@link NIOFileUtils#copyDirParallel(Path, Path, int)} on
+ * trees of many small files, where copies are bound by per file latency.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CopyDirBenchmark {
+
+    @Param({"1000", "10000"})
+    private int fileCount;
+
+    @Param({"4096"})
+    private int fileSize;
+
+    @Param({"1", "4", "16"})
+    private int threads;
+
+    private Path workDir;
+    private Path sourceDir;
+    private Path targetDir;
+
+    @Setup
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory("copy-dir-bench-");
+        sourceDir = workDir.resolve("source");
+        targetDir = workDir.resolve("target");
+        ZipUtilBenchmark.createFiles(sourceDir.toFile(), fileCount, fileSize);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(workDir.toFile());
+    }
+
+    @Benchmark
+    public void copyDir() throws IOException {
+        NIOFileUtils.copyDir(sourceDir, targetDir);
+    }
+
+    @Benchmark
+    public NIOFileUtils.CopyDirResult copyDirParallel() throws IOException {
+        return NIOFileUtils.copyDirParallel(sourceDir, targetDir, threads);
+    }
+}
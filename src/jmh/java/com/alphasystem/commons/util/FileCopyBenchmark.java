@@ -0,0 +1,71 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.util.nio.NIOFileUtils;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FileUtil#copy(Path, Path)}, {@link FileUtil#copy(InputStream, OutputStream)} and
+ * {@link NIOFileUtils#fastCopy(InputStream, OutputStream)} for file to file copies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileCopyBenchmark {
+
+    @Param({"4096", "1048576", "67108864"})
+    private int size;
+
+    private Path workDir;
+    private File source;
+    private File target;
+
+    @Setup
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory("file-copy-bench-");
+        source = workDir.resolve("source.bin").toFile();
+        target = workDir.resolve("target.bin").toFile();
+        final var data = new byte[size];
+        new Random(size).nextBytes(data);
+        Files.write(source.toPath(), data);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(workDir.toFile());
+    }
+
+    @Benchmark
+    public long copyOutputStream() throws IOException {
+        try (InputStream in = new FileInputStream(source); OutputStream out = new FileOutputStream(target)) {
+            FileUtil.copyOutputStream(out, in);
+        }
+        return target.length();
+    }
+
+    @Benchmark
+    public long copyPath() throws IOException {
+        return FileUtil.copy(source.toPath(), target.toPath()).bytes();
+    }
+
+    @Benchmark
+    public long copyBufferedStream() throws IOException {
+        // buffered wrappers hide the file streams, forcing the adaptive buffer path
+        try (InputStream in = new BufferedInputStream(new FileInputStream(source));
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(target))) {
+            return FileUtil.copy(in, out).bytes();
+        }
+    }
+
+    @Benchmark
+    public long fastCopy() throws IOException {
+        NIOFileUtils.fastCopy(new FileInputStream(source), new FileOutputStream(target));
+        return target.length();
+    }
+}
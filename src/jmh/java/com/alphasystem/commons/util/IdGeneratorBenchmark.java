@@ -0,0 +1,69 @@
+package com.alphasystem.commons.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link IdGenerator} and {@link LongIdGenerator}, run with <code>-PjmhThreads</code> to measure
+ * contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IdGeneratorBenchmark {
+
+    private final IdGenerator generator = IdGenerator.getInstance();
+    private final LongIdGenerator longGenerator = LongIdGenerator.getInstance();
+
+    @Benchmark
+    public int next() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public String nextId() {
+        return IdGenerator.nextId();
+    }
+
+    @Benchmark
+    public char[] nextIdIntoArray(Buffer buffer) {
+        IdGenerator.nextId(buffer.chars, 0);
+        return buffer.chars;
+    }
+
+    @Benchmark
+    public StringBuilder nextIdIntoBuilder(Buffer buffer) {
+        buffer.builder.setLength(0);
+        return IdGenerator.nextId(buffer.builder);
+    }
+
+    @Benchmark
+    public ByteBuffer nextIdIntoByteBuffer(Buffer buffer) {
+        buffer.bytes.clear();
+        return IdGenerator.nextId(buffer.bytes);
+    }
+
+    @Benchmark
+    public long nextLong() {
+        return longGenerator.next();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(128)
+    public long[] nextIds(Buffer buffer) {
+        longGenerator.nextIds(buffer.ids.length, buffer.ids);
+        return buffer.ids;
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+
+        private final long[] ids = new long[128];
+        private final char[] chars = new char[IdGenerator.ID_LENGTH];
+        private final StringBuilder builder = new StringBuilder(IdGenerator.ID_LENGTH);
+        private final ByteBuffer bytes = ByteBuffer.allocate(IdGenerator.ID_LENGTH);
+    }
+}
@@ -0,0 +1,97 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.util.nio.JarFileSystems;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Cold start cost of reading every file of a resource directory inside a jar, extracted to disk by
+ * {@link JarResourceCache} or read in place through {@link JarFileSystems}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class JarResourceBenchmark {
+
+    @Param({"100", "1000"})
+    private int fileCount;
+
+    @Param({"4096"})
+    private int fileSize;
+
+    private Path workDir;
+    private Path jar;
+    private Path cacheDir;
+
+    @Setup
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory("jar-resource-bench-");
+        jar = workDir.resolve("resources.jar");
+        final var random = new Random(fileCount);
+        final var data = new byte[fileSize];
+        try (var jos = new JarOutputStream(new FileOutputStream(jar.toFile()))) {
+            for (int i = 0; i < fileCount; i++) {
+                random.nextBytes(data);
+                jos.putNextEntry(new ZipEntry(String.format("files/dir-%02d/file-%05d.bin", i % 10, i)));
+                jos.write(data);
+                jos.closeEntry();
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() throws IOException {
+        JarFileSystems.evict(jar);
+        cacheDir = Files.createTempDirectory(workDir, "cache-");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        JarFileSystems.evict(jar);
+        FileUtils.deleteDirectory(workDir.toFile());
+    }
+
+    @Benchmark
+    public long extractToDisk() throws IOException {
+        return readAll(new JarResourceCache(cacheDir).extract(jar, "files"));
+    }
+
+    @Benchmark
+    public long readInPlace() throws IOException {
+        try (JarFileSystems.Handle handle = JarFileSystems.acquire(jar)) {
+            return readAll(handle.getPath("files"));
+        }
+    }
+
+    private static long readAll(Path dir) throws IOException {
+        final List<Path> files;
+        try (var stream = Files.walk(dir)) {
+            files = stream.filter(Files::isRegularFile).toList();
+        }
+        final var buffer = ByteBuffer.allocate(64 * 1024);
+        long bytes = 0;
+        for (Path file : files) {
+            try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+                int n;
+                while ((n = channel.read(buffer.clear())) != -1) {
+                    bytes += n;
+                }
+            }
+        }
+        return bytes;
+    }
+}
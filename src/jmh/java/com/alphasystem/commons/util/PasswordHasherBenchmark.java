@@ -0,0 +1,82 @@
+package com.alphasystem.commons.util;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link PasswordHasher}, <code>*Concurrent</code> variants run on 16 threads to measure contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordHasherBenchmark {
+
+    @Param({"8", "32", "256"})
+    private int length;
+
+    private String plainText;
+    private String cipherText;
+    private byte[] plainBytes;
+    private CipherEngine aesGcm;
+    private String aesGcmCipherText;
+
+    @Setup
+    public void setup() {
+        plainText = RandomStringUtils.randomAlphanumeric(length);
+        cipherText = PasswordHasher.encrypt(plainText);
+        plainBytes = plainText.getBytes();
+        aesGcm = CipherEngine.aesGcm(new byte[16]);
+        aesGcmCipherText = PasswordHasher.encrypt(plainText, aesGcm);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return PasswordHasher.encrypt(plainText);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return PasswordHasher.decrypt(cipherText, length);
+    }
+
+    @Benchmark
+    public int encryptIntoArray(Buffer buffer) {
+        return PasswordHasher.encrypt(plainBytes, 0, plainBytes.length, buffer.output);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String encryptConcurrent() {
+        return PasswordHasher.encrypt(plainText);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String decryptConcurrent() {
+        return PasswordHasher.decrypt(cipherText, length);
+    }
+
+    @Benchmark
+    public String encryptAesGcm() {
+        return PasswordHasher.encrypt(plainText, aesGcm);
+    }
+
+    @Benchmark
+    public String decryptAesGcm() {
+        return PasswordHasher.decrypt(aesGcmCipherText, aesGcm);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String encryptAesGcmConcurrent() {
+        return PasswordHasher.encrypt(plainText, aesGcm);
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+
+        private final byte[] output = new byte[1024];
+    }
+}
@@ -0,0 +1,39 @@
+package com.alphasystem.commons.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single {@link PasswordHashing#verify(char[], String)} for each algorithm at its recommended setting, used
+ * to tune cost parameters to the target latency of the deployment hardware.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class PasswordHashingBenchmark {
+
+    @Param({"pbkdf2", "scrypt", "argon2id"})
+    private String algorithm;
+
+    private final char[] password = "correct horse battery staple".toCharArray();
+    private PasswordHashing hashing;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        hashing = switch (algorithm) {
+            case "pbkdf2" -> PasswordHashing.pbkdf2(600_000);
+            case "scrypt" -> PasswordHashing.scrypt(17, 8, 1);
+            default -> PasswordHashing.defaults();
+        };
+        hash = hashing.hash(password);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hashing.verify(password, hash);
+    }
+}
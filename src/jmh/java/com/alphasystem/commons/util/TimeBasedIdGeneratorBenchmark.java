@@ -0,0 +1,46 @@
+package com.alphasystem.commons.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link TimeBasedIdGenerator}, run with <code>-PjmhThreads</code> to measure contention on the
+ * sequence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeBasedIdGeneratorBenchmark {
+
+    private final TimeBasedIdGenerator generator = TimeBasedIdGenerator.builder().nodeId(1).build();
+    private final TimeBasedIdGenerator wideSequence = TimeBasedIdGenerator.builder().nodeId(1).layout(8, 16).build();
+
+    @Benchmark
+    public long next() {
+        return generator.next();
+    }
+
+    @Benchmark
+    public long nextWideSequence() {
+        return wideSequence.next();
+    }
+
+    @Benchmark
+    public UUID nextUuid() {
+        return generator.nextUuid();
+    }
+
+    @Benchmark
+    public char[] nextUlid(Buffer buffer) {
+        generator.nextUlid(buffer.chars, 0);
+        return buffer.chars;
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+
+        private final char[] chars = new char[TimeBasedIdGenerator.ULID_LENGTH];
+    }
+}
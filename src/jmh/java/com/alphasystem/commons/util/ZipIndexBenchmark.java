@@ -0,0 +1,74 @@
+package com.alphasystem.commons.util;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+
+/**
+ * Single entry lookup from a large archive: {@link ZipIndex} against opening a {@link ZipFile} per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ZipIndexBenchmark {
+
+    private static final int ENTRIES = 20_000;
+
+    private Path workDir;
+    private Path archive;
+
+    @Setup
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory("zip-index-bench-");
+        archive = workDir.resolve("archive.zip");
+        final byte[] content = "some entry content\n".repeat(20).getBytes();
+        try (ZipWriter zip = ZipWriter.to(Files.newOutputStream(archive))) {
+            for (int i = 0; i < ENTRIES; i++) {
+                if (i % 2 == 0) {
+                    zip.addStored("entries/entry-" + i, ZipWriter.Source.of(content));
+                } else {
+                    zip.add("entries/entry-" + i, ZipWriter.Source.of(content));
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ZipIndex.invalidate(archive);
+        FileUtils.deleteDirectory(workDir.toFile());
+    }
+
+    @Benchmark
+    public byte[] zipFilePerLookup() throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive.toFile());
+             InputStream in = zipFile.getInputStream(zipFile.getEntry(randomName()))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @Benchmark
+    public byte[] zipIndexLookup() throws IOException {
+        try (InputStream in = ZipIndex.of(archive).getInputStream(randomName())) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer zipIndexStoredSlice() throws IOException {
+        return ZipIndex.of(archive).slice("entries/entry-" + (ThreadLocalRandom.current().nextInt(ENTRIES / 2) * 2));
+    }
+
+    private static String randomName() {
+        return "entries/entry-" + ThreadLocalRandom.current().nextInt(ENTRIES);
+    }
+}
@@ -0,0 +1,113 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.SystemException;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+
+/**
+ * Benchmarks for {@link ZipUtil} archive / extract round trip, sequential and parallel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ZipUtilBenchmark {
+
+    @Param({"10", "100"})
+    private int fileCount;
+
+    @Param({"4096", "262144"})
+    private int fileSize;
+
+    private Path workDir;
+    private File sourceDir;
+    private File archive;
+    private File extractDir;
+    private File updatedArchive;
+
+    @Setup
+    public void setup() throws IOException, SystemException {
+        workDir = Files.createTempDirectory("zip-bench-");
+        sourceDir = workDir.resolve("source").toFile();
+        archive = workDir.resolve("archive.zip").toFile();
+        extractDir = workDir.resolve("extracted").toFile();
+        createFiles(sourceDir, fileCount, fileSize);
+        ZipUtil.archiveFile(sourceDir, archive);
+        updatedArchive = workDir.resolve("updated.zip").toFile();
+        ZipUtil.updateArchive(new File[]{sourceDir}, updatedArchive);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(workDir.toFile());
+    }
+
+    @Benchmark
+    public long archiveFile() throws SystemException {
+        final var target = workDir.resolve("bench.zip").toFile();
+        ZipUtil.archiveFile(sourceDir, target);
+        return target.length();
+    }
+
+    @Benchmark
+    public long archiveFileParallel() throws SystemException {
+        final var target = workDir.resolve("bench-parallel.zip").toFile();
+        ZipUtil.archiveFileParallel(sourceDir, target);
+        return target.length();
+    }
+
+    @Benchmark
+    public ZipUpdateResult updateArchiveUnchanged() throws SystemException {
+        return ZipUtil.updateArchive(new File[]{sourceDir}, updatedArchive);
+    }
+
+    @Benchmark
+    public long zipWriterToStream() throws IOException {
+        final var out = new CountingOutputStream(OutputStream.nullOutputStream());
+        try (ZipWriter zip = ZipWriter.to(out); var files = Files.walk(sourceDir.toPath())) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                zip.add(sourceDir.toPath().relativize(file).toString(), ZipWriter.Source.of(file));
+            }
+        }
+        return out.getByteCount();
+    }
+
+    @Benchmark
+    public Map<String, ZipEntry> extractZipFile() {
+        return ZipUtil.extractZipFile(extractDir, archive.getAbsolutePath());
+    }
+
+    @Benchmark
+    public ZipExtractResult extractZipFileParallel() throws SystemException {
+        return ZipUtil.extractZipFileParallel(extractDir, archive.getAbsolutePath());
+    }
+
+    /**
+     * Creates <code>count</code> files of given size, half of them in a sub directory. Content is
+     * a mix of random and repeated bytes so that deflate has some work to do.
+     */
+    static void createFiles(File dir, int count, int size) throws IOException {
+        final var random = new Random(count * 31L + size);
+        final var subDir = new File(dir, "sub-dir");
+        Files.createDirectories(subDir.toPath());
+        final var data = new byte[size];
+        for (int i = 0; i < count; i++) {
+            random.nextBytes(data);
+            for (int j = 0; j < size; j += 8) {
+                data[j] = 'a';
+            }
+            final var parent = (i % 2 == 0) ? dir : subDir;
+            Files.write(new File(parent, String.format("file-%05d.bin", i)).toPath(), data);
+        }
+    }
+}
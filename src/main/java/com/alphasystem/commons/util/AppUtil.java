@@ -1,15 +1,17 @@
 package com.alphasystem.commons.util;
 
 import com.alphasystem.commons.SystemException;
-import com.alphasystem.commons.util.nio.NIOFileUtils;
+import com.alphasystem.commons.util.nio.JarFileSystems;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.JarURLConnection;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -21,7 +23,16 @@ import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.lang.System.getProperty;
 
@@ -66,6 +77,13 @@ public class AppUtil {
      * User home dir
      */
     public static final File USER_HOME_DIR = new File(USER_HOME);
+
+    /**
+     * System property naming a directory in which resource directories extracted from jar files are kept across
+     * restarts, see {@link #processResourceDirectory(String, Function)}
+     */
+    public static final String RESOURCE_CACHE_DIR_PROPERTY = "com.alphasystem.resourceCacheDir";
+
     private static ClassLoader classLoader = null;
 
     static {
@@ -102,7 +120,8 @@ public class AppUtil {
     }
 
     /**
-     * Initialize object of given class.
+     * Initialize object of given class. Constructors are looked up once per class and parameter types and invoked
+     * through a cached method handle, failed lookups are cached as well.
      *
      * @param clazz          class
      * @param parameterTypes parameter types of class
@@ -111,11 +130,21 @@ public class AppUtil {
      * @throws SystemException wraps other exceptions
      */
     public static Object initObject(Class<?> clazz, Class<?>[] parameterTypes, Object[] args) throws SystemException {
+        final MethodHandle constructor;
         try {
-            return clazz.getConstructor(parameterTypes).newInstance(args);
-        } catch (Exception ex) {
+            constructor = ReflectionCache.constructor(clazz, parameterTypes);
+        } catch (ReflectiveOperationException ex) {
             throw new SystemException(String.format("Could not initialize class of type \"%s\".", clazz.getName()), ex);
         }
+        try {
+            return constructor.invokeExact(args == null ? new Object[0] : args);
+        } catch (VirtualMachineError ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            // as Constructor.newInstance did, failures of the constructor come wrapped
+            throw new SystemException(String.format("Could not initialize class of type \"%s\".", clazz.getName()),
+                    new InvocationTargetException(ex));
+        }
     }
 
     /**
@@ -124,28 +153,45 @@ public class AppUtil {
      * @param obj        Given object
      * @param methodName name of method name
      * @return Returned object if method exists or null.
+     * @see #getGetter(Class, String)
      */
     public static Object invokeMethod(Object obj, String methodName) {
-        Object value = null;
-        final Method method = getMethod(obj, methodName);
-        if (method != null) {
+        final var getter = ReflectionCache.getter(obj.getClass(), methodName);
+        if (getter.isPresent()) {
             try {
-                value = method.invoke(obj);
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                // ignore
+                return getter.get().apply(obj);
+            } catch (VirtualMachineError e) {
+                throw e;
+            } catch (Throwable e) {
+                // ignore, as with any failure of the method
             }
         }
-        return value;
+        return null;
     }
 
-    private static Method getMethod(Object obj, String methodName) {
-        Method method = null;
-        try {
-            method = obj.getClass().getMethod(methodName);
-        } catch (NoSuchMethodException e) {
-            // ignore
-        }
-        return method;
+    /**
+     * Accessor of a public no argument (usually get) method, for callers invoking the same method on many objects.
+     * Accessors are created once per class and method name and cached, including missing methods. Where the classes
+     * involved are visible to this library the accessor is a generated class calling the method directly, otherwise
+     * it goes through a method handle. Primitive results are boxed, void methods return <code>null</code>. Checked
+     * exceptions of the method are wrapped in an {@link UndeclaredThrowableException}.
+     *
+     * @param clazz      class declaring or inheriting the method
+     * @param methodName name of method
+     * @return accessor invoking given method on its argument, empty if there is no such public method
+     */
+    public static Optional<Function<Object, Object>> getGetter(Class<?> clazz, String methodName) {
+        return ReflectionCache.getter(clazz, methodName);
+    }
+
+    /**
+     * Index of the class path, built on first use, see {@link ClasspathIndex#load(ClassLoader)}. The index is a
+     * snapshot for listing and glob lookups, the resource lookups of this class go to the class loader.
+     *
+     * @return class path index
+     */
+    public static ClasspathIndex getClasspathIndex() {
+        return ClasspathIndexHolder.INDEX;
     }
 
     /**
@@ -221,7 +267,9 @@ public class AppUtil {
 
 
     /**
-     * Process recursively given resource according to given "consumer" function.
+     * Process recursively given resource according to given "consumer" function. Directories inside jar files are
+     * extracted once per jar and JVM, into a temporary directory deleted on exit, or into the directory named by
+     * {@link #RESOURCE_CACHE_DIR_PROPERTY} where they are reused by later runs.
      *
      * @param resourceName name of system resource, must be a directory
      * @param consumer     A function that takes a path and returns some value R
@@ -230,6 +278,24 @@ public class AppUtil {
      * @throws SystemException if anything happen during processing
      */
     public static <R> List<R> processResourceDirectory(String resourceName, Function<Path, R> consumer) throws SystemException {
+        return processResourceDirectory(resourceName, consumer, true);
+    }
+
+    /**
+     * Process recursively given resource according to given "consumer" function.
+     *
+     * @param resourceName name of system resource, must be a directory
+     * @param consumer     A function that takes a path and returns some value R
+     * @param extract      whether directories inside jar files are extracted to disk, see
+     *                     {@link #processResourceDirectory(String, Function)}, or read in place. Paths inside jar
+     *                     files belong to a zip file system kept open until shutdown, see {@link JarFileSystems},
+     *                     they can be read through {@link Files} but not through {@link Path#toFile()}
+     * @param <R>          Return type of consumer function
+     * @return A collection of R
+     * @throws SystemException if anything happen during processing
+     */
+    public static <R> List<R> processResourceDirectory(String resourceName, Function<Path, R> consumer,
+                                                       boolean extract) throws SystemException {
         LOGGER.debug("Processing resource directory: {}", resourceName);
         final Enumeration<URL> resources;
         try {
@@ -247,22 +313,37 @@ public class AppUtil {
 
             LOGGER.info("Resource URL: {}", url);
             Path path;
+            JarFileSystems.Handle handle = null;
             try {
                 path = Paths.get(url.toURI());
             } catch (URISyntaxException e) {
                 throw new SystemException(e.getMessage(), e);
             } catch (FileSystemNotFoundException ex) {
-                // we are running from a jar
-                // copy content into temp directory
+                // we are running from a jar, use the extracted copy or the jar itself
                 try {
-                    path = Files.createTempDirectory("alphasystem-");
-                    path.toFile().deleteOnExit();
-                    NIOFileUtils.copyDir(path, resourceName, AppUtil.class);
-                } catch (IOException | URISyntaxException e) {
+                    final var connection = (JarURLConnection) url.openConnection();
+                    final var jar = Paths.get(connection.getJarFileURL().toURI());
+                    if (extract) {
+                        path = JarResourceCache.getInstance().extract(jar, connection.getEntryName());
+                    } else {
+                        handle = JarFileSystems.acquire(jar);
+                        path = handle.getPath(connection.getEntryName());
+                    }
+                } catch (IOException | URISyntaxException | ClassCastException | IllegalArgumentException e) {
                     throw new SystemException(e.getMessage(), e);
                 }
             }
-            results.addAll(processDirectory(path, consumer));
+            try {
+                results.addAll(processDirectory(path, consumer));
+            } finally {
+                if (handle != null) {
+                    try {
+                        handle.close();
+                    } catch (IOException e) {
+                        LOGGER.warn("Failed to release {}", url, e);
+                    }
+                }
+            }
         }
         return results;
     }
@@ -289,6 +370,89 @@ public class AppUtil {
         return results;
     }
 
+    /**
+     * Process recursively given directory, <code>consumer</code> is applied to files concurrently on
+     * <code>parallelism</code> threads created for this call.
+     *
+     * @param dir         directory path
+     * @param consumer    A function that takes a path and returns some value R, must be thread safe
+     * @param parallelism number of threads
+     * @param ordered     whether results are in the order of {@link #processDirectory(Path, Function)}, otherwise in
+     *                    order of completion
+     * @param <R>         Return type of consumer function
+     * @return A collection of R
+     * @throws SystemException if anything happen during processing
+     */
+    public static <R> List<R> processDirectoryParallel(Path dir, Function<Path, R> consumer, int parallelism,
+                                                       boolean ordered) throws SystemException {
+        final var threadNumber = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final var thread = new Thread(runnable, "directory-processor-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return processDirectoryParallel(dir, consumer, executor, parallelism, ordered);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Process recursively given directory, <code>consumer</code> is applied to files concurrently on given executor.
+     * The tree is walked lazily and at most <code>4 * parallelism</code> files are in flight, so apart from the
+     * results memory does not grow with the number of files. The first failure stops the walk.
+     *
+     * @param dir         directory path
+     * @param consumer    A function that takes a path and returns some value R, must be thread safe
+     * @param executor    executor running <code>consumer</code>
+     * @param parallelism number of files processed concurrently, usually the number of threads of
+     *                    <code>executor</code>
+     * @param ordered     whether results are in the order of {@link #processDirectory(Path, Function)}, otherwise in
+     *                    order of completion
+     * @param <R>         Return type of consumer function
+     * @return A collection of R
+     * @throws SystemException if anything happen during processing
+     */
+    public static <R> List<R> processDirectoryParallel(Path dir, Function<Path, R> consumer, Executor executor,
+                                                       int parallelism, boolean ordered) throws SystemException {
+        if (!Files.isDirectory(dir)) {
+            throw new SystemException(String.format("Path \"%s\" is not a directory", dir.getFileName()));
+        }
+        try {
+            return new ParallelDirectoryProcessor<>(consumer, executor, parallelism).process(dir, ordered);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while processing.", ex);
+        } catch (Exception ex) {
+            throw new SystemException("Unable to process.", ex);
+        }
+    }
+
+    /**
+     * Process recursively given directory lazily, <code>consumer</code> is applied to each file when the stream
+     * reaches it, in the order of {@link #processDirectory(Path, Function)}. Only the directories on the path to the
+     * current file are held in memory.
+     * <p>
+     * Each directory is listed and closed when the walk enters it, no file handles stay open between elements, so
+     * abandoning the stream leaks nothing. Closing it, e.g. with try-with-resources, is still recommended. Failures
+     * to list a directory are thrown as {@link java.io.UncheckedIOException} from the terminal operation.
+     *
+     * @param dir      directory path
+     * @param consumer A function that takes a path and returns some value R
+     * @param <R>      Return type of consumer function
+     * @return sequential stream of R
+     * @throws SystemException if <code>dir</code> is not a directory
+     */
+    public static <R> Stream<R> processDirectoryLazily(Path dir, Function<Path, R> consumer) throws SystemException {
+        if (!Files.isDirectory(dir)) {
+            throw new SystemException(String.format("Path \"%s\" is not a directory", dir.getFileName()));
+        }
+        final Spliterator<Path> files = Spliterators.spliteratorUnknownSize(new DirectoryWalker(dir),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(files, false).map(consumer);
+    }
+
     /**
      * Url of the given resource.
      *
@@ -370,4 +534,9 @@ public class AppUtil {
     public static boolean isInstanceOf(Class<?> supperClass, Object object) {
         return Objects.nonNull(object) && supperClass.isAssignableFrom(object.getClass());
     }
+
+    private static final class ClasspathIndexHolder {
+
+        private static final ClasspathIndex INDEX = ClasspathIndex.load(classLoader);
+    }
 }
@@ -58,6 +58,23 @@ ll rights
 
 package com.alphasystem.commons.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
 /**
  * This class provides encode/decode for RFC 2045 Base64 as defined by RFC 2045,
  * N. Freed and N. Borenstein. RFC 2045: Multipurpose Internet Mail Extensions
@@ -65,8 +82,13 @@ package com.alphasystem.commons.util;
  * <a href="http://www.ietf.org/rfc/rfc2045.txt">...</a> This class is used by XML Schema binary
  * format validation
  *
- * This implementation does not encode/decode streaming data. You need the data
- * that you will encode/decode already on a byte arrray.
+ * Encoded output is wrapped into lines of 76 characters (19 quartets), each line including the last one is
+ * terminated by a line feed. Line wrapping can be turned off by the <code>lineWrap</code> overloads. Decoding
+ * ignores white space anywhere in the input.
+ *
+ * Besides the <code>String</code> based methods, there are overloads which read from and write into caller
+ * supplied arrays and buffers without allocating, and <code>wrap</code> methods which encode / decode streams and
+ * channels incrementally.
  *
  * @author Jeffrey Rodriguez
  * @author Sandy Gao
@@ -74,142 +96,137 @@ package com.alphasystem.commons.util;
  */
 public final class Base64 {
 
-	static private final int BASELENGTH = 255;
-	static final private byte[] base64Alphabet = new byte[BASELENGTH];
-	static private final int EIGHTBIT = 8;
-	static private final boolean fDebug = false;
-	static private final int FOURBYTE = 4;
-	static private final int LOOKUPLENGTH = 64;
-	static final private char[] lookUpBase64Alphabet = new char[LOOKUPLENGTH];
-	static private final char PAD = '=';
-	static private final int SIGN = -128;
-	static private final int SIXTEENBIT = 16;
-	static private final int TWENTYFOURBITGROUP = 24;
+	static private final int QUARTETS_PER_LINE = 19;
+	static final int BYTES_PER_LINE = QUARTETS_PER_LINE * 3;
+	static private final byte LF = 0xa;
+	static final char PAD = '=';
+	static private final int PARALLEL_THRESHOLD = 1 << 20;
+	static private final int PARALLEL_LINES = 4096;
+	static private final int PARALLEL_CHARS = PARALLEL_LINES * (QUARTETS_PER_LINE * 4 + 1);
+	static private final byte[] ENCODE_TABLE = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+			.getBytes(US_ASCII);
+	static private final int[] DECODE_TABLE = new int[256];
 
 	static {
-
-		for (int i = 0; i < BASELENGTH; i++) {
-			base64Alphabet[i] = -1;
-		}
-		for (int i = 'Z'; i >= 'A'; i--) {
-			base64Alphabet[i] = (byte) (i - 'A');
+		for (int i = 0; i < DECODE_TABLE.length; i++) {
+			DECODE_TABLE[i] = -1;
 		}
-		for (int i = 'z'; i >= 'a'; i--) {
-			base64Alphabet[i] = (byte) (i - 'a' + 26);
+		for (int i = 0; i < ENCODE_TABLE.length; i++) {
+			DECODE_TABLE[ENCODE_TABLE[i]] = i;
 		}
-
-		for (int i = '9'; i >= '0'; i--) {
-			base64Alphabet[i] = (byte) (i - '0' + 52);
-		}
-
-		base64Alphabet['+'] = 62;
-		base64Alphabet['/'] = 63;
-
-		for (int i = 0; i <= 25; i++)
-			lookUpBase64Alphabet[i] = (char) ('A' + i);
-
-		for (int i = 26, j = 0; i <= 51; i++, j++)
-			lookUpBase64Alphabet[i] = (char) ('a' + j);
-
-		for (int i = 52, j = 0; i <= 61; i++, j++)
-			lookUpBase64Alphabet[i] = (char) ('0' + j);
-		lookUpBase64Alphabet[62] = (char) '+';
-		lookUpBase64Alphabet[63] = (char) '/';
-
 	}
 
 	/**
 	 * Decodes Base64 data into octects
 	 * 
 	 * @param encoded encoded string
-	 * @return Array containing decoded data.
+	 * @return Array containing decoded data, or null if given string is not valid Base64.
 	 */
 	public static byte[] decode(String encoded) {
-
 		if (encoded == null)
 			return null;
 
-		char[] base64Data = encoded.toCharArray();
-		// remove white spaces
-		int len = removeWhiteSpace(base64Data);
-
-		if (len % FOURBYTE != 0) {
-			return null;// should be divisible by four
-		}
-
-		int numberQuadruple = (len / FOURBYTE);
-
-		if (numberQuadruple == 0)
-			return new byte[0];
-
-		byte decodedData[] = null;
-		byte b1 = 0, b2 = 0, b3 = 0, b4 = 0;
-		char d1 = 0, d2 = 0, d3 = 0, d4 = 0;
-
-		int i = 0;
-		int encodedIndex = 0;
-		int dataIndex = 0;
-		decodedData = new byte[(numberQuadruple) * 3];
-
-		for (; i < numberQuadruple - 1; i++) {
-
-			if (!isData((d1 = base64Data[dataIndex++]))
-					|| !isData((d2 = base64Data[dataIndex++]))
-					|| !isData((d3 = base64Data[dataIndex++]))
-					|| !isData((d4 = base64Data[dataIndex++])))
-				return null;// if found "no data" just return null
-
-			b1 = base64Alphabet[d1];
-			b2 = base64Alphabet[d2];
-			b3 = base64Alphabet[d3];
-			b4 = base64Alphabet[d4];
-
-			decodedData[encodedIndex++] = (byte) (b1 << 2 | b2 >> 4);
-			decodedData[encodedIndex++] = (byte) (((b2 & 0xf) << 4) | ((b3 >> 2) & 0xf));
-			decodedData[encodedIndex++] = (byte) (b3 << 6 | b4);
-		}
-
-		if (!isData((d1 = base64Data[dataIndex++]))
-				|| !isData((d2 = base64Data[dataIndex++]))) {
-			return null;// if found "no data" just return null
-		}
-
-		b1 = base64Alphabet[d1];
-		b2 = base64Alphabet[d2];
-
-		d3 = base64Data[dataIndex++];
-		d4 = base64Data[dataIndex++];
-		if (!isData((d3)) || !isData((d4))) {// Check if they are PAD characters
-			if (isPad(d3) && isPad(d4)) { // Two PAD e.g. 3c[Pad][Pad]
-				if ((b2 & 0xf) != 0)// last 4 bits should be zero
-					return null;
-				byte[] tmp = new byte[i * 3 + 1];
-				System.arraycopy(decodedData, 0, tmp, 0, i * 3);
-				tmp[encodedIndex] = (byte) (b1 << 2 | b2 >> 4);
-				return tmp;
-			} else if (!isPad(d3) && isPad(d4)) { // One PAD e.g. 3cQ[Pad]
-				b3 = base64Alphabet[d3];
-				if ((b3 & 0x3) != 0)// last 2 bits should be zero
-					return null;
-				byte[] tmp = new byte[i * 3 + 2];
-				System.arraycopy(decodedData, 0, tmp, 0, i * 3);
-				tmp[encodedIndex++] = (byte) (b1 << 2 | b2 >> 4);
-				tmp[encodedIndex] = (byte) (((b2 & 0xf) << 4) | ((b3 >> 2) & 0xf));
-				return tmp;
-			} else {
-				return null;// an error like "3c[Pad]r", "3cdX", "3cXd", "3cXX"
-							// where X is non data
-			}
-		} else { // No PAD e.g 3cQl
-			b3 = base64Alphabet[d3];
-			b4 = base64Alphabet[d4];
-			decodedData[encodedIndex++] = (byte) (b1 << 2 | b2 >> 4);
-			decodedData[encodedIndex++] = (byte) (((b2 & 0xf) << 4) | ((b3 >> 2) & 0xf));
-			decodedData[encodedIndex++] = (byte) (b3 << 6 | b4);
+		int length = estimateDecodedLength(encoded);
+		if (length < 0) {
+			length = decodedLength(encoded);
+		}
+		if (length < 0) {
+			return null; // should be divisible by four
+		}
+		final byte[] decodedData = new byte[length];
+		final int written = decode0(encoded, 0, encoded.length(), decodedData, 0);
+		if (written < 0) {
+			return null;
+		}
+		return (written == length) ? decodedData : Arrays.copyOf(decodedData, written);
+	}
 
+	/**
+	 * Decodes Base64 data into given array, starting at index zero.
+	 *
+	 * @param encoded encoded characters
+	 * @param out     destination array, must have room for {@link #decodedLength(CharSequence)} bytes
+	 * @return number of bytes written, or -1 if given data is not valid Base64
+	 * @throws IndexOutOfBoundsException if <code>out</code> is too small
+	 */
+	public static int decode(CharSequence encoded, byte[] out) {
+		return decode0(encoded, 0, encoded.length(), out, 0);
+	}
+
+	/**
+	 * Decodes Base64 data from the remaining bytes of <code>src</code> into <code>dst</code>. On success position of
+	 * <code>src</code> is moved to its limit and position of <code>dst</code> is advanced by number of bytes written,
+	 * positions are left unchanged if given data is not valid Base64.
+	 *
+	 * @param src US-ASCII encoded Base64 data
+	 * @param dst destination buffer
+	 * @return number of bytes written, or -1 if given data is not valid Base64
+	 * @throws IndexOutOfBoundsException if <code>dst</code> is too small
+	 */
+	public static int decode(ByteBuffer src, ByteBuffer dst) {
+		final int written = decode0(src, src.position(), src.limit(), dst, dst.position());
+		if (written >= 0) {
+			src.position(src.limit());
+			dst.position(dst.position() + written);
 		}
+		return written;
+	}
 
-		return decodedData;
+	/**
+	 * Computes number of bytes given data decodes to. The data is not validated beyond counting significant
+	 * characters, {@link #decode(CharSequence, byte[])} can still reject it.
+	 *
+	 * @param encoded encoded characters
+	 * @return number of decoded bytes, or -1 if number of non white space characters is not divisible by four
+	 */
+	public static int decodedLength(CharSequence encoded) {
+		return decodedLength(encoded, 0, encoded.length());
+	}
+
+	static int decodedLength(CharSequence encoded, int from, int to) {
+		int count = 0;
+		int pads = 0;
+		for (int i = from; i < to; i++) {
+			final char c = encoded.charAt(i);
+			if (isWhiteSpace(c)) {
+				continue;
+			}
+			count++;
+			pads = (c == PAD) ? pads + 1 : 0;
+		}
+		if ((count & 3) != 0) {
+			return -1;
+		}
+		return (count >>> 2) * 3 - Math.min(pads, 2);
+	}
+
+	/**
+	 * Computes decoded length without scanning the whole input, assuming white space only appears where
+	 * {@link #encode(byte[])} puts line feeds and at the end. Estimate is never less than the actual length, it is
+	 * more only if there is white space elsewhere.
+	 *
+	 * @return estimated decoded length, or -1 if estimate is not divisible by four
+	 */
+	private static int estimateDecodedLength(String encoded) {
+		int end = encoded.length();
+		while (end > 0 && isWhiteSpace(encoded.charAt(end - 1))) {
+			end--;
+		}
+		int count = end;
+		for (int i = QUARTETS_PER_LINE * 4; i < end; i += QUARTETS_PER_LINE * 4 + 1) {
+			if (isWhiteSpace(encoded.charAt(i))) {
+				count--;
+			}
+		}
+		if ((count & 3) != 0) {
+			return -1;
+		}
+		int pads = 0;
+		while (pads < 2 && end > 0 && encoded.charAt(end - 1) == PAD) {
+			pads++;
+			end--;
+		}
+		return (count >>> 2) * 3 - pads;
 	}
 
 	/**
@@ -220,180 +237,571 @@ public final class Base64 {
 	 * @return Encoded Base64 array
 	 */
 	public static String encode(byte[] binaryData) {
+		return encode(binaryData, true);
+	}
 
+	/**
+	 * Encodes hex octects into Base64
+	 *
+	 * @param binaryData Array containing binaryData
+	 * @param lineWrap   whether to break output into lines of 76 characters
+	 * @return Encoded Base64 array
+	 */
+	public static String encode(byte[] binaryData, boolean lineWrap) {
 		if (binaryData == null)
 			return null;
 
-		int lengthDataBits = binaryData.length * EIGHTBIT;
-		if (lengthDataBits == 0) {
+		if (binaryData.length == 0) {
 			return "";
 		}
+		final byte[] encodedData = new byte[encodedLength(binaryData.length, lineWrap)];
+		encode0(binaryData, 0, binaryData.length, encodedData, 0, lineWrap);
+		return new String(encodedData, ISO_8859_1);
+	}
 
-		int fewerThan24bits = lengthDataBits % TWENTYFOURBITGROUP;
-		int numberTriplets = lengthDataBits / TWENTYFOURBITGROUP;
-		int numberQuartet = fewerThan24bits != 0 ? numberTriplets + 1
-				: numberTriplets;
-		int numberLines = (numberQuartet - 1) / 19 + 1;
-		char encodedData[] = null;
+	/**
+	 * Encodes given range into Base64 US-ASCII bytes, output is same as {@link #encode(byte[])}.
+	 *
+	 * @param src    source array
+	 * @param off    start offset in <code>src</code>
+	 * @param len    number of bytes to encode
+	 * @param dst    destination array
+	 * @param dstOff start offset in <code>dst</code>
+	 * @return number of bytes written
+	 * @throws IndexOutOfBoundsException if either range is out of bounds
+	 */
+	public static int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+		return encode(src, off, len, dst, dstOff, true);
+	}
 
-		encodedData = new char[numberQuartet * 4 + numberLines];
+	/**
+	 * Encodes given range into Base64 US-ASCII bytes.
+	 *
+	 * @param src      source array
+	 * @param off      start offset in <code>src</code>
+	 * @param len      number of bytes to encode
+	 * @param dst      destination array
+	 * @param dstOff   start offset in <code>dst</code>
+	 * @param lineWrap whether to break output into lines of 76 characters
+	 * @return number of bytes written
+	 * @throws IndexOutOfBoundsException if either range is out of bounds
+	 */
+	public static int encode(byte[] src, int off, int len, byte[] dst, int dstOff, boolean lineWrap) {
+		Objects.checkFromIndexSize(off, len, src.length);
+		final int length = encodedLength(len, lineWrap);
+		Objects.checkFromIndexSize(dstOff, length, dst.length);
+		encode0(src, off, off + len, dst, dstOff, lineWrap);
+		return length;
+	}
 
-		byte k = 0, l = 0, b1 = 0, b2 = 0, b3 = 0;
+	/**
+	 * Encodes remaining bytes of <code>src</code> into <code>dst</code> as Base64 US-ASCII bytes. Position of
+	 * <code>src</code> is moved to its limit and position of <code>dst</code> is advanced by number of bytes written.
+	 *
+	 * @param src      source buffer
+	 * @param dst      destination buffer
+	 * @param lineWrap whether to break output into lines of 76 characters
+	 * @return number of bytes written
+	 * @throws BufferOverflowException if <code>dst</code> does not have room for {@link #encodedLength(int, boolean)}
+	 *                                 bytes
+	 */
+	public static int encode(ByteBuffer src, ByteBuffer dst, boolean lineWrap) {
+		final int length = encodedLength(src.remaining(), lineWrap);
+		if (dst.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+		if (src.hasArray() && dst.hasArray()) {
+			final int srcOffset = src.arrayOffset();
+			encode0(src.array(), srcOffset + src.position(), srcOffset + src.limit(), dst.array(),
+					dst.arrayOffset() + dst.position(), lineWrap);
+		} else {
+			encode0(src, src.position(), src.limit(), dst, dst.position(), lineWrap);
+		}
+		src.position(src.limit());
+		dst.position(dst.position() + length);
+		return length;
+	}
 
-		int encodedIndex = 0;
-		int dataIndex = 0;
-		int i = 0;
-		if (fDebug) {
-			System.out.println("number of triplets = " + numberTriplets);
+	/**
+	 * Computes length of the Base64 output for given number of bytes.
+	 *
+	 * @param length   number of bytes to encode
+	 * @param lineWrap whether output is broken into lines of 76 characters
+	 * @return number of encoded characters, including line feeds
+	 * @throws IllegalArgumentException if output would not fit into an array
+	 */
+	public static int encodedLength(int length, boolean lineWrap) {
+		final long quartets = (length + 2L) / 3;
+		long encodedLength = quartets * 4;
+		if (lineWrap && quartets > 0) {
+			encodedLength += (quartets - 1) / QUARTETS_PER_LINE + 1;
+		}
+		if (encodedLength > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Input is too large to encode: " + length);
 		}
+		return (int) encodedLength;
+	}
 
-		for (int line = 0; line < numberLines - 1; line++) {
-			for (int quartet = 0; quartet < 19; quartet++) {
-				b1 = binaryData[dataIndex++];
-				b2 = binaryData[dataIndex++];
-				b3 = binaryData[dataIndex++];
+	/**
+	 * Encodes given data using {@link ForkJoinPool#commonPool()}, output is same as {@link #encode(byte[])}.
+	 *
+	 * @param binaryData Array containing binaryData
+	 * @return Encoded Base64 array
+	 * @see #encodeParallel(byte[], ForkJoinPool)
+	 */
+	public static String encodeParallel(byte[] binaryData) {
+		return encodeParallel(binaryData, ForkJoinPool.commonPool());
+	}
 
-				if (fDebug) {
-					System.out.println("b1= " + b1 + ", b2= " + b2 + ", b3= "
-							+ b3);
-				}
+	/**
+	 * Encodes given data on given pool, output is same as {@link #encode(byte[])}. Input is split on line
+	 * boundaries and each chunk is encoded straight into its place in one preallocated output. Input smaller than
+	 * 1 MB is encoded on the calling thread.
+	 *
+	 * @param binaryData Array containing binaryData
+	 * @param pool       pool to run encoding tasks on
+	 * @return Encoded Base64 array
+	 */
+	public static String encodeParallel(byte[] binaryData, ForkJoinPool pool) {
+		if (binaryData == null || binaryData.length < PARALLEL_THRESHOLD) {
+			return encode(binaryData);
+		}
+		final int length = binaryData.length;
+		final byte[] encodedData = new byte[encodedLength(length, true)];
+		final int lines = (length - 1) / BYTES_PER_LINE + 1;
+		final int segments = segmentCount(lines, PARALLEL_LINES, pool);
+		final int linesPerSegment = (lines - 1) / segments + 1;
+		pool.invoke(new SegmentAction(0, segments, segment -> {
+			final int firstLine = segment * linesPerSegment;
+			final int start = firstLine * BYTES_PER_LINE;
+			if (start < length) {
+				final int end = (int) Math.min((long) start + (long) linesPerSegment * BYTES_PER_LINE, length);
+				encode0(binaryData, start, end, encodedData, firstLine * (QUARTETS_PER_LINE * 4 + 1), true);
+			}
+		}));
+		return new String(encodedData, ISO_8859_1);
+	}
 
-				l = (byte) (b2 & 0x0f);
-				k = (byte) (b1 & 0x03);
+	/**
+	 * Decodes given data using {@link ForkJoinPool#commonPool()}.
+	 *
+	 * @param encoded encoded characters
+	 * @return Array containing decoded data, or null if given data is not valid Base64.
+	 * @see #decodeParallel(CharSequence, ForkJoinPool)
+	 */
+	public static byte[] decodeParallel(CharSequence encoded) {
+		return decodeParallel(encoded, ForkJoinPool.commonPool());
+	}
 
-				byte val1 = ((b1 & SIGN) == 0) ? (byte) (b1 >> 2)
-						: (byte) ((b1) >> 2 ^ 0xc0);
+	/**
+	 * Decodes given data on given pool. Significant characters of each segment are counted in parallel first,
+	 * segment boundaries are then moved to quartet boundaries and each segment is decoded straight into its place
+	 * in one preallocated output. Input smaller than 1 MB is decoded on the calling thread.
+	 *
+	 * @param encoded encoded characters
+	 * @param pool    pool to run decoding tasks on
+	 * @return Array containing decoded data, or null if given data is not valid Base64.
+	 */
+	public static byte[] decodeParallel(CharSequence encoded, ForkJoinPool pool) {
+		if (encoded == null)
+			return null;
 
-				byte val2 = ((b2 & SIGN) == 0) ? (byte) (b2 >> 4)
-						: (byte) ((b2) >> 4 ^ 0xf0);
-				byte val3 = ((b3 & SIGN) == 0) ? (byte) (b3 >> 6)
-						: (byte) ((b3) >> 6 ^ 0xfc);
+		final int length = encoded.length();
+		if (length < PARALLEL_THRESHOLD) {
+			return decode(encoded.toString());
+		}
 
-				if (fDebug) {
-					System.out.println("val2 = " + val2);
-					System.out.println("k4 = " + (k << 4));
-					System.out.println("vak = " + (val2 | (k << 4)));
+		final int segments = segmentCount(length, PARALLEL_CHARS, pool);
+		final int charsPerSegment = (length - 1) / segments + 1;
+		final int[] starts = new int[segments + 1];
+		final long[] significant = new long[segments + 1];
+		for (int i = 0; i < segments; i++) {
+			starts[i] = Math.min(i * charsPerSegment, length);
+		}
+		starts[segments] = length;
+		pool.invoke(new SegmentAction(0, segments, segment -> significant[segment + 1] =
+				countSignificant(encoded, starts[segment], starts[segment + 1])));
+		for (int i = 1; i <= segments; i++) {
+			significant[i] += significant[i - 1];
+		}
+		final long total = significant[segments];
+		if ((total & 3) != 0) {
+			return null; // should be divisible by four
+		}
+		final int decodedLength = (int) (total / 4 * 3) - trailingPads(encoded);
+		final byte[] decodedData = new byte[decodedLength];
+
+		// move segment boundaries forward to the next quartet
+		for (int i = 1; i < segments; i++) {
+			int skip = (int) (-significant[i] & 3);
+			int position = starts[i];
+			while (skip > 0 && position < length) {
+				if (!isWhiteSpace(encoded.charAt(position++))) {
+					skip--;
 				}
-
-				encodedData[encodedIndex++] = lookUpBase64Alphabet[val1];
-				encodedData[encodedIndex++] = lookUpBase64Alphabet[val2
-						| (k << 4)];
-				encodedData[encodedIndex++] = lookUpBase64Alphabet[(l << 2)
-						| val3];
-				encodedData[encodedIndex++] = lookUpBase64Alphabet[b3 & 0x3f];
-
-				i++;
 			}
-			encodedData[encodedIndex++] = 0xa;
+			starts[i] = position;
+			significant[i] = (significant[i] + 3) & ~3L;
 		}
 
-		for (; i < numberTriplets; i++) {
-			b1 = binaryData[dataIndex++];
-			b2 = binaryData[dataIndex++];
-			b3 = binaryData[dataIndex++];
-
-			if (fDebug) {
-				System.out.println("b1= " + b1 + ", b2= " + b2 + ", b3= " + b3);
+		final boolean[] valid = {true};
+		pool.invoke(new SegmentAction(0, segments, segment -> {
+			final int offset = (int) (significant[segment] / 4 * 3);
+			final boolean last = significant[segment] < total && significant[segment + 1] == total;
+			final int expected = last ? decodedLength - offset
+					: (int) ((significant[segment + 1] - significant[segment]) / 4 * 3);
+			final int written = decode0(encoded, starts[segment], starts[segment + 1], decodedData, offset);
+			if (written != expected) {
+				// padding in the middle of data is reported by a short segment
+				valid[0] = false;
 			}
+		}));
+		return valid[0] ? decodedData : null;
+	}
 
-			l = (byte) (b2 & 0x0f);
-			k = (byte) (b1 & 0x03);
+	/**
+	 * Wraps given stream so that bytes written to it are Base64 encoded in chunks, output is same as
+	 * {@link #encode(byte[])}. Memory use is constant regardless of amount of data written, trailing data is encoded
+	 * when returned stream is closed.
+	 *
+	 * @param out stream to write encoded data to
+	 * @return encoding stream
+	 */
+	public static OutputStream wrap(OutputStream out) {
+		return wrap(out, true);
+	}
 
-			byte val1 = ((b1 & SIGN) == 0) ? (byte) (b1 >> 2)
-					: (byte) ((b1) >> 2 ^ 0xc0);
+	/**
+	 * Wraps given stream so that bytes written to it are Base64 encoded in chunks.
+	 *
+	 * @param out      stream to write encoded data to
+	 * @param lineWrap whether to break output into lines of 76 characters
+	 * @return encoding stream
+	 * @see #wrap(OutputStream)
+	 */
+	public static OutputStream wrap(OutputStream out, boolean lineWrap) {
+		return new Base64OutputStream(Objects.requireNonNull(out), lineWrap);
+	}
 
-			byte val2 = ((b2 & SIGN) == 0) ? (byte) (b2 >> 4)
-					: (byte) ((b2) >> 4 ^ 0xf0);
-			byte val3 = ((b3 & SIGN) == 0) ? (byte) (b3 >> 6)
-					: (byte) ((b3) >> 6 ^ 0xfc);
+	/**
+	 * Wraps given channel so that bytes written to it are Base64 encoded in chunks, output is same as
+	 * {@link #encode(byte[])}. Trailing data is encoded when returned channel is closed.
+	 *
+	 * @param channel channel to write encoded data to
+	 * @return encoding channel
+	 */
+	public static WritableByteChannel wrap(WritableByteChannel channel) {
+		return Channels.newChannel(wrap(Channels.newOutputStream(channel)));
+	}
 
-			if (fDebug) {
-				System.out.println("val2 = " + val2);
-				System.out.println("k4 = " + (k << 4));
-				System.out.println("vak = " + (val2 | (k << 4)));
-			}
+	/**
+	 * Wraps given stream so that Base64 data read from it is decoded in chunks. White space is skipped, malformed
+	 * data is reported as an {@link IOException} by the read methods.
+	 *
+	 * @param in stream to read encoded data from
+	 * @return decoding stream
+	 */
+	public static InputStream wrap(InputStream in) {
+		return new Base64InputStream(Objects.requireNonNull(in));
+	}
 
-			encodedData[encodedIndex++] = lookUpBase64Alphabet[val1];
-			encodedData[encodedIndex++] = lookUpBase64Alphabet[val2 | (k << 4)];
-			encodedData[encodedIndex++] = lookUpBase64Alphabet[(l << 2) | val3];
-			encodedData[encodedIndex++] = lookUpBase64Alphabet[b3 & 0x3f];
+	/**
+	 * Wraps given channel so that Base64 data read from it is decoded in chunks.
+	 *
+	 * @param channel channel to read encoded data from
+	 * @return decoding channel
+	 * @see #wrap(InputStream)
+	 */
+	public static ReadableByteChannel wrap(ReadableByteChannel channel) {
+		return Channels.newChannel(wrap(Channels.newInputStream(channel)));
+	}
+
+	/**
+	 *
+	 * @param c given char
+	 * @return true is given char is base64
+	 */
+	public static boolean isBase64(char c) {
+		return (isWhiteSpace(c) || isPad(c) || isData(c));
+	}
+
+	/**
+	 * Encodes <code>src[sp, end)</code> into <code>dst</code> starting at <code>dp</code>. Lines are counted from
+	 * <code>sp</code>, a caller splitting input on multiples of 57 bytes gets the same line breaks as a single call.
+	 *
+	 * @return index in <code>dst</code> after last written byte
+	 */
+	static int encode0(byte[] src, int sp, int end, byte[] dst, int dp, boolean lineWrap) {
+		final byte[] table = ENCODE_TABLE;
+		final int fullEnd = sp + (end - sp) / 3 * 3;
+		boolean lineOpen = false;
+		while (sp < fullEnd) {
+			final int lineEnd = (lineWrap && fullEnd - sp > BYTES_PER_LINE) ? sp + BYTES_PER_LINE : fullEnd;
+			final int lineStart = sp;
+			for (; sp < lineEnd; sp += 3) {
+				final int bits = (src[sp] & 0xff) << 16 | (src[sp + 1] & 0xff) << 8 | (src[sp + 2] & 0xff);
+				dst[dp] = table[bits >>> 18];
+				dst[dp + 1] = table[(bits >>> 12) & 0x3f];
+				dst[dp + 2] = table[(bits >>> 6) & 0x3f];
+				dst[dp + 3] = table[bits & 0x3f];
+				dp += 4;
+			}
+			lineOpen = !lineWrap || lineEnd - lineStart < BYTES_PER_LINE;
+			if (!lineOpen) {
+				dst[dp++] = LF;
+			}
 		}
 
 		// form integral number of 6-bit groups
-		if (fewerThan24bits == EIGHTBIT) {
-			b1 = binaryData[dataIndex];
-			k = (byte) (b1 & 0x03);
-			if (fDebug) {
-				System.out.println("b1=" + b1);
-				System.out.println("b1<<2 = " + (b1 >> 2));
+		final int remaining = end - fullEnd;
+		if (remaining > 0) {
+			final int b1 = src[sp] & 0xff;
+			final int b2 = (remaining == 2) ? src[sp + 1] & 0xff : 0;
+			dst[dp++] = table[b1 >>> 2];
+			dst[dp++] = table[(b1 << 4) & 0x3f | b2 >>> 4];
+			dst[dp++] = (remaining == 2) ? table[(b2 << 2) & 0x3f] : (byte) PAD;
+			dst[dp++] = (byte) PAD;
+			lineOpen = true;
+		}
+		if (lineWrap && lineOpen) {
+			dst[dp++] = LF;
+		}
+		return dp;
+	}
+
+	private static void encode0(ByteBuffer src, int sp, int end, ByteBuffer dst, int dp, boolean lineWrap) {
+		final byte[] table = ENCODE_TABLE;
+		final int fullEnd = sp + (end - sp) / 3 * 3;
+		int quartets = 0;
+		for (; sp < fullEnd; sp += 3) {
+			final int bits = (src.get(sp) & 0xff) << 16 | (src.get(sp + 1) & 0xff) << 8 | (src.get(sp + 2) & 0xff);
+			dst.put(dp, table[bits >>> 18]);
+			dst.put(dp + 1, table[(bits >>> 12) & 0x3f]);
+			dst.put(dp + 2, table[(bits >>> 6) & 0x3f]);
+			dst.put(dp + 3, table[bits & 0x3f]);
+			dp += 4;
+			if (lineWrap && ++quartets == QUARTETS_PER_LINE) {
+				dst.put(dp++, LF);
+				quartets = 0;
+			}
+		}
+
+		final int remaining = end - fullEnd;
+		if (remaining > 0) {
+			final int b1 = src.get(sp) & 0xff;
+			final int b2 = (remaining == 2) ? src.get(sp + 1) & 0xff : 0;
+			dst.put(dp++, table[b1 >>> 2]);
+			dst.put(dp++, table[(b1 << 4) & 0x3f | b2 >>> 4]);
+			dst.put(dp++, (remaining == 2) ? table[(b2 << 2) & 0x3f] : (byte) PAD);
+			dst.put(dp++, (byte) PAD);
+			quartets++;
+		}
+		if (lineWrap && quartets > 0) {
+			dst.put(dp, LF);
+		}
+	}
+
+	/**
+	 * Decodes <code>src[sp, end)</code> into <code>dst</code> starting at <code>dp</code>. White space is skipped,
+	 * a padded quartet must be the last one.
+	 *
+	 * @return number of bytes written, or -1 if data is not valid Base64
+	 */
+	static int decode0(CharSequence src, int sp, int end, byte[] dst, int dp) {
+		final int[] table = DECODE_TABLE;
+		final int start = dp;
+		while (sp < end) {
+			// fast path, four data characters in a row
+			if (end - sp >= 4) {
+				final char c1 = src.charAt(sp), c2 = src.charAt(sp + 1), c3 = src.charAt(sp + 2), c4 = src.charAt(sp + 3);
+				if ((c1 | c2 | c3 | c4) < 0x100) {
+					final int bits = table[c1] << 18 | table[c2] << 12 | table[c3] << 6 | table[c4];
+					if (bits >= 0) {
+						dst[dp] = (byte) (bits >> 16);
+						dst[dp + 1] = (byte) (bits >> 8);
+						dst[dp + 2] = (byte) bits;
+						dp += 3;
+						sp += 4;
+						continue;
+					}
+				}
 			}
-			byte val1 = ((b1 & SIGN) == 0) ? (byte) (b1 >> 2)
-					: (byte) ((b1) >> 2 ^ 0xc0);
-			encodedData[encodedIndex++] = lookUpBase64Alphabet[val1];
-			encodedData[encodedIndex++] = lookUpBase64Alphabet[k << 4];
-			encodedData[encodedIndex++] = PAD;
-			encodedData[encodedIndex++] = PAD;
-		} else if (fewerThan24bits == SIXTEENBIT) {
-			b1 = binaryData[dataIndex];
-			b2 = binaryData[dataIndex + 1];
-			l = (byte) (b2 & 0x0f);
-			k = (byte) (b1 & 0x03);
 
-			byte val1 = ((b1 & SIGN) == 0) ? (byte) (b1 >> 2)
-					: (byte) ((b1) >> 2 ^ 0xc0);
-			byte val2 = ((b2 & SIGN) == 0) ? (byte) (b2 >> 4)
-					: (byte) ((b2) >> 4 ^ 0xf0);
+			// slow path, collect next quartet skipping white space
+			int bits = 0;
+			int count = 0;
+			int pads = 0;
+			while (count < 4 && sp < end) {
+				final char c = src.charAt(sp++);
+				if (isWhiteSpace(c)) {
+					continue;
+				}
+				final int value = (c < 0x100) ? table[c] : -1;
+				if (value >= 0 && pads == 0) {
+					bits = bits << 6 | value;
+				} else if (c == PAD && count >= 2) {
+					bits <<= 6;
+					pads++;
+				} else {
+					return -1; // if found "no data" just return -1
+				}
+				count++;
+			}
+			if (count == 0) {
+				break; // trailing white space
+			}
+			if (count < 4) {
+				return -1; // should be divisible by four
+			}
+			dst[dp++] = (byte) (bits >> 16);
+			if (pads == 0) {
+				dst[dp++] = (byte) (bits >> 8);
+				dst[dp++] = (byte) bits;
+				continue;
+			}
+			if ((bits & (pads == 2 ? 0xffff : 0xff)) != 0) {
+				return -1; // unused bits of last data character should be zero
+			}
+			if (pads == 1) {
+				dst[dp++] = (byte) (bits >> 8);
+			}
+			// padded quartet must be the last one
+			while (sp < end) {
+				if (!isWhiteSpace(src.charAt(sp++))) {
+					return -1;
+				}
+			}
+		}
+		return dp - start;
+	}
+
+	static int decode0(ByteBuffer src, int sp, int end, ByteBuffer dst, int dp) {
+		final int[] table = DECODE_TABLE;
+		final int start = dp;
+		while (sp < end) {
+			if (end - sp >= 4) {
+				final int bits = table[src.get(sp) & 0xff] << 18 | table[src.get(sp + 1) & 0xff] << 12
+						| table[src.get(sp + 2) & 0xff] << 6 | table[src.get(sp + 3) & 0xff];
+				if (bits >= 0) {
+					dst.put(dp, (byte) (bits >> 16));
+					dst.put(dp + 1, (byte) (bits >> 8));
+					dst.put(dp + 2, (byte) bits);
+					dp += 3;
+					sp += 4;
+					continue;
+				}
+			}
 
-			encodedData[encodedIndex++] = lookUpBase64Alphabet[val1];
-			encodedData[encodedIndex++] = lookUpBase64Alphabet[val2 | (k << 4)];
-			encodedData[encodedIndex++] = lookUpBase64Alphabet[l << 2];
-			encodedData[encodedIndex++] = PAD;
+			int bits = 0;
+			int count = 0;
+			int pads = 0;
+			while (count < 4 && sp < end) {
+				final char c = (char) (src.get(sp++) & 0xff);
+				if (isWhiteSpace(c)) {
+					continue;
+				}
+				final int value = table[c];
+				if (value >= 0 && pads == 0) {
+					bits = bits << 6 | value;
+				} else if (c == PAD && count >= 2) {
+					bits <<= 6;
+					pads++;
+				} else {
+					return -1;
+				}
+				count++;
+			}
+			if (count == 0) {
+				break;
+			}
+			if (count < 4) {
+				return -1;
+			}
+			dst.put(dp++, (byte) (bits >> 16));
+			if (pads == 0) {
+				dst.put(dp++, (byte) (bits >> 8));
+				dst.put(dp++, (byte) bits);
+				continue;
+			}
+			if ((bits & (pads == 2 ? 0xffff : 0xff)) != 0) {
+				return -1;
+			}
+			if (pads == 1) {
+				dst.put(dp++, (byte) (bits >> 8));
+			}
+			while (sp < end) {
+				if (!isWhiteSpace((char) (src.get(sp++) & 0xff))) {
+					return -1;
+				}
+			}
 		}
+		return dp - start;
+	}
 
-		encodedData[encodedIndex] = 0xa;
+	private static int segmentCount(int units, int unitsPerSegment, ForkJoinPool pool) {
+		return Math.max(1, Math.min(units / unitsPerSegment, pool.getParallelism() * 4));
+	}
 
-		return new String(encodedData);
+	private static int countSignificant(CharSequence src, int from, int to) {
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			if (!isWhiteSpace(src.charAt(i))) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static int trailingPads(CharSequence src) {
+		int pads = 0;
+		for (int i = src.length() - 1; i >= 0 && pads < 2; i--) {
+			final char c = src.charAt(i);
+			if (c == PAD) {
+				pads++;
+			} else if (!isWhiteSpace(c)) {
+				break;
+			}
+		}
+		return pads;
 	}
 
 	/**
-	 *
-	 * @param c given char
-	 * @return true is given char is base64
+	 * Runs an action for each segment in <code>[lo, hi)</code>, splitting the range in halves.
 	 */
-	public static boolean isBase64(char c) {
-		return (isWhiteSpace(c) || isPad(c) || isData(c));
+	private static final class SegmentAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 2417368563404180932L;
+
+		private final int lo;
+		private final int hi;
+		private final IntConsumer action;
+
+		SegmentAction(int lo, int hi, IntConsumer action) {
+			this.lo = lo;
+			this.hi = hi;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo == 1) {
+				action.accept(lo);
+			} else {
+				final int mid = (lo + hi) >>> 1;
+				invokeAll(new SegmentAction(lo, mid, action), new SegmentAction(mid, hi, action));
+			}
+		}
 	}
 
 	private static boolean isData(char octect) {
-		return (base64Alphabet[octect] != -1);
+		return octect < 0x100 && DECODE_TABLE[octect] != -1;
 	}
 
 	private static boolean isPad(char octect) {
 		return (octect == PAD);
 	}
 
-	private static boolean isWhiteSpace(char octect) {
+	static boolean isWhiteSpace(char octect) {
 		return (octect == 0x20 || octect == 0xd || octect == 0xa || octect == 0x9);
 	}
-
-	/**
-	 * remove WhiteSpace from MIME containing encoded Base64 data.
-	 * 
-	 * @param data
-	 *            the byte array of base64 data (with WS)
-	 * @return the new length
-	 */
-	private static int removeWhiteSpace(char[] data) {
-		if (data == null)
-			return 0;
-
-		// count characters that's not whitespace
-		int newSize = 0;
-		int len = data.length;
-		for (int i = 0; i < len; i++) {
-			if (!isWhiteSpace(data[i]))
-				data[newSize++] = data[i];
-		}
-		return newSize;
-	}
 }
@@ -0,0 +1,123 @@
+package com.alphasystem.commons.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Input stream which decodes Base64 data read from underlying stream, see {@link Base64#wrap(InputStream)}.
+ *
+ * Encoded data is read in fixed size chunks, white space is dropped and whole quartets are decoded, a partial
+ * quartet is carried over to the next chunk.
+ */
+final class Base64InputStream extends InputStream {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final InputStream in;
+    private final byte[] encoded = new byte[CHUNK_SIZE + 3];
+    private final byte[] decoded = new byte[(CHUNK_SIZE + 3) / 4 * 3];
+    private final ByteBuffer encodedBuffer = ByteBuffer.wrap(encoded);
+    private final ByteBuffer decodedBuffer = ByteBuffer.wrap(decoded);
+    private final byte[] single = new byte[1];
+    private int pending;
+    private int position;
+    private int limit;
+    private boolean padded;
+    private boolean eof;
+    private boolean closed;
+
+    Base64InputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int n = read(single, 0, 1);
+        return (n == -1) ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        while (position == limit) {
+            if (eof) {
+                return -1;
+            }
+            fill();
+        }
+        final int n = Math.min(len, limit - position);
+        System.arraycopy(decoded, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            in.close();
+        }
+    }
+
+    /**
+     * Reads next chunk of encoded data and decodes all complete quartets.
+     */
+    private void fill() throws IOException {
+        position = 0;
+        limit = 0;
+        final int n = in.read(encoded, pending, CHUNK_SIZE);
+        if (n == -1) {
+            eof = true;
+            if (pending > 0) {
+                throw new IOException("Truncated Base64 data");
+            }
+            return;
+        }
+
+        // remove white space
+        int count = pending;
+        final int end = pending + n;
+        for (int i = pending; i < end; i++) {
+            final byte b = encoded[i];
+            if (!Base64.isWhiteSpace((char) b)) {
+                encoded[count++] = b;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        if (padded) {
+            throw new IOException("Base64 data found after padding");
+        }
+
+        final int whole = count & ~3;
+        if (whole > 0) {
+            final int written = Base64.decode0(encodedBuffer, 0, whole, decodedBuffer, 0);
+            if (written < 0) {
+                throw new IOException("Invalid Base64 data");
+            }
+            limit = written;
+            padded = encoded[whole - 1] == Base64.PAD;
+        }
+        pending = count - whole;
+        System.arraycopy(encoded, whole, encoded, 0, pending);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
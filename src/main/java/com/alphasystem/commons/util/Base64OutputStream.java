@@ -0,0 +1,92 @@
+package com.alphasystem.commons.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Output stream which Base64 encodes everything written to it, see {@link Base64#wrap(OutputStream)}.
+ *
+ * Input is buffered in chunks of whole lines (57 bytes each), so line breaks end up at the same place as with
+ * {@link Base64#encode(byte[])}. {@link #flush()} does not encode a partially filled chunk, it is written on
+ * {@link #close()}.
+ */
+final class Base64OutputStream extends FilterOutputStream {
+
+    private static final int CHUNK_SIZE = Base64.BYTES_PER_LINE * 64;
+
+    private final boolean lineWrap;
+    private final byte[] input = new byte[CHUNK_SIZE];
+    private final byte[] output;
+    private int count;
+    private boolean closed;
+
+    Base64OutputStream(OutputStream out, boolean lineWrap) {
+        super(out);
+        this.lineWrap = lineWrap;
+        this.output = new byte[Base64.encodedLength(CHUNK_SIZE, lineWrap)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        input[count++] = (byte) b;
+        if (count == CHUNK_SIZE) {
+            encode(input, 0, CHUNK_SIZE);
+            count = 0;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        Objects.checkFromIndexSize(off, len, b.length);
+        while (len > 0) {
+            if (count == 0 && len >= CHUNK_SIZE) {
+                // encode straight from caller's array
+                encode(b, off, CHUNK_SIZE);
+                off += CHUNK_SIZE;
+                len -= CHUNK_SIZE;
+                continue;
+            }
+            final int n = Math.min(len, CHUNK_SIZE - count);
+            System.arraycopy(b, off, input, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == CHUNK_SIZE) {
+                encode(input, 0, CHUNK_SIZE);
+                count = 0;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (count > 0) {
+                encode(input, 0, count);
+                count = 0;
+            }
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void encode(byte[] src, int off, int len) throws IOException {
+        final int end = Base64.encode0(src, off, off + len, output, 0, lineWrap);
+        out.write(output, 0, end);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.alphasystem.commons.util;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+
+/**
+ * Symmetric cipher used by {@link PasswordHasher}. Implementations must be thread safe.
+ *
+ * @see JceCipherEngine
+ */
+public interface CipherEngine {
+
+    /**
+     * AES-GCM engine backed by the JDK provider, a random 12 byte IV is generated for every message and stored in
+     * front of the cipher text.
+     *
+     * @param key AES key, 16, 24 or 32 bytes
+     * @return AES-GCM engine
+     */
+    static CipherEngine aesGcm(SecretKey key) {
+        return JceCipherEngine.builder().key(key).build();
+    }
+
+    /**
+     * AES-GCM engine backed by the JDK provider.
+     *
+     * @param key raw AES key, 16, 24 or 32 bytes
+     * @return AES-GCM engine
+     * @see #aesGcm(SecretKey)
+     */
+    static CipherEngine aesGcm(byte[] key) {
+        return aesGcm(new SecretKeySpec(key, "AES"));
+    }
+
+    /**
+     * Engine used by the static {@link PasswordHasher} methods, DES/CTR with a fixed key and IV. Only meant to
+     * decrypt values stored by earlier versions.
+     *
+     * @return legacy DES engine
+     */
+    static CipherEngine legacy() {
+        return PasswordHasher.LEGACY_ENGINE;
+    }
+
+    /**
+     * Encrypt given data.
+     *
+     * @param plainText data to encrypt
+     * @return cipher text, including IV if the engine generates one per message
+     */
+    default byte[] encrypt(byte[] plainText) {
+        final byte[] output = new byte[encryptedLength(plainText.length)];
+        final int length = encrypt(plainText, 0, plainText.length, output);
+        return (length == output.length) ? output : Arrays.copyOf(output, length);
+    }
+
+    /**
+     * Decrypt given data.
+     *
+     * @param cipherText data produced by {@link #encrypt(byte[])}
+     * @return plain text
+     */
+    default byte[] decrypt(byte[] cipherText) {
+        final byte[] output = new byte[decryptedLength(cipherText.length)];
+        final int length = decrypt(cipherText, 0, cipherText.length, output);
+        return (length == output.length) ? output : Arrays.copyOf(output, length);
+    }
+
+    /**
+     * Encrypt given range into given array, starting at index zero.
+     *
+     * @param input  plain text
+     * @param offset start offset in <code>input</code>
+     * @param length number of bytes to encrypt
+     * @param output destination array with room for {@link #encryptedLength(int)} bytes
+     * @return number of bytes written
+     */
+    int encrypt(byte[] input, int offset, int length, byte[] output);
+
+    /**
+     * Decrypt given range into given array, starting at index zero.
+     *
+     * @param input  cipher text
+     * @param offset start offset in <code>input</code>
+     * @param length number of bytes to decrypt
+     * @param output destination array with room for {@link #decryptedLength(int)} bytes
+     * @return number of bytes written
+     */
+    int decrypt(byte[] input, int offset, int length, byte[] output);
+
+    /**
+     * @param plainTextLength length of plain text
+     * @return maximum length of the cipher text
+     */
+    int encryptedLength(int plainTextLength);
+
+    /**
+     * @param cipherTextLength length of cipher text
+     * @return maximum length of the plain text
+     */
+    int decryptedLength(int cipherTextLength);
+}
@@ -0,0 +1,458 @@
+package com.alphasystem.commons.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Immutable index of the resources on a class path, mapping each resource name to its URLs in class path order.
+ * Class path entries are scanned once, in parallel, lookups are then served from memory.
+ *
+ * <pre>
+ * ClasspathIndex index = AppUtil.getClasspathIndex();
+ * URL url = index.getResource("META-INF/files/file1.txt");
+ * SortedSet&lt;String&gt; files = index.list("META-INF/files/");
+ * SortedSet&lt;String&gt; sql = index.glob("db/**&#47;*.sql");
+ * </pre>
+ *
+ * An index can be written at build time with {@link #main(String[])} or {@link #writeTo(OutputStream)} and loaded
+ * at startup through {@link #INDEX_FILE_PROPERTY}. Jars whose modification time or size changed since are scanned
+ * again, directories are always scanned again since their content can change without a trace on the directory.
+ * <p>
+ * Only directories and jar files of the class path are indexed, <code>Class-Path</code> manifest attributes and
+ * resources of the platform modules are not. Entries come from <code>java.class.path</code>, then from the
+ * <code>file:</code> URLs of {@link URLClassLoader}s, parents first, which need not be the lookup order of the class
+ * loader itself. The index is a snapshot, resources added or removed after the scan are not seen.
+ */
+public final class ClasspathIndex {
+
+    /**
+     * System property naming an index file, written by {@link #writeTo(OutputStream)}, to load instead of scanning.
+     */
+    public static final String INDEX_FILE_PROPERTY = "com.alphasystem.classpathIndex";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClasspathIndex.class);
+    private static final int MAGIC = 0x43504958;
+    private static final int VERSION = 1;
+    private static final String GLOB_CHARACTERS = "*?";
+
+    private final List<Root> roots;
+    private final NavigableMap<String, int[]> resources;
+
+    private ClasspathIndex(List<Root> roots, NavigableMap<String, int[]> resources) {
+        this.roots = roots;
+        this.resources = resources;
+    }
+
+    /**
+     * Load the index named by {@link #INDEX_FILE_PROPERTY} if set and readable, otherwise scan the class path of
+     * given class loader.
+     *
+     * @param classLoader class loader
+     * @return index
+     */
+    public static ClasspathIndex load(ClassLoader classLoader) {
+        final String indexFile = System.getProperty(INDEX_FILE_PROPERTY);
+        if (indexFile != null && !indexFile.isBlank()) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(indexFile)))) {
+                return readFrom(in);
+            } catch (IOException | InvalidPathException ex) {
+                LOGGER.warn("Unable to read class path index {}, scanning class path", indexFile, ex);
+            }
+        }
+        return scan(classLoader);
+    }
+
+    /**
+     * Scan the class path of given class loader, <code>java.class.path</code> followed by the URLs of
+     * {@link URLClassLoader}s from the top of the hierarchy down to given loader.
+     *
+     * @param classLoader class loader
+     * @return index
+     */
+    public static ClasspathIndex scan(ClassLoader classLoader) {
+        return scan(classPathOf(classLoader));
+    }
+
+    /**
+     * @param classPath jar files and directories, in lookup order
+     * @return index of given class path
+     */
+    public static ClasspathIndex scan(List<Path> classPath) {
+        final List<Root> roots = new ArrayList<>();
+        for (Path path : new LinkedHashSet<>(classPath)) {
+            final Root root = Root.of(path);
+            if (root != null) {
+                roots.add(root);
+            }
+        }
+        return build(roots, new ArrayList<>(Collections.nCopies(roots.size(), null)));
+    }
+
+    /**
+     * Read an index written by {@link #writeTo(OutputStream)}, stale class path entries are scanned again.
+     *
+     * @param in input, not closed
+     * @return index
+     * @throws IOException if reading fails or the input is not an index
+     */
+    public static ClasspathIndex readFrom(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not a class path index");
+        }
+        final int count = data.readInt();
+        final List<Root> roots = new ArrayList<>(count);
+        final List<List<String>> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Root stored = new Root(Paths.get(data.readUTF()), data.readBoolean(), data.readLong(),
+                    data.readLong());
+            final int size = data.readInt();
+            final List<String> rootNames = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                rootNames.add(data.readUTF());
+            }
+            final Root current = Root.of(stored.path());
+            if (current == null) {
+                LOGGER.debug("Class path entry {} no longer exists", stored.path());
+                continue;
+            }
+            roots.add(current);
+            // null makes build scan the entry again
+            names.add(current.jar() && current.equals(stored) ? rootNames : null);
+        }
+        return build(roots, names);
+    }
+
+    /**
+     * Write this index, see {@link #readFrom(InputStream)}.
+     *
+     * @param out output, not closed
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        final List<List<String>> names = new ArrayList<>();
+        for (int i = 0; i < roots.size(); i++) {
+            names.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, int[]> entry : resources.entrySet()) {
+            for (int root : entry.getValue()) {
+                names.get(root).add(entry.getKey());
+            }
+        }
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(roots.size());
+        for (int i = 0; i < roots.size(); i++) {
+            final Root root = roots.get(i);
+            data.writeUTF(root.path().toString());
+            data.writeBoolean(root.jar());
+            data.writeLong(root.lastModified());
+            data.writeLong(root.size());
+            data.writeInt(names.get(i).size());
+            for (String name : names.get(i)) {
+                data.writeUTF(name);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * @return number of distinct resource names
+     */
+    public int size() {
+        return resources.size();
+    }
+
+    /**
+     * @return indexed jar files and directories, in lookup order
+     */
+    public List<Path> getClassPath() {
+        return roots.stream().map(Root::path).toList();
+    }
+
+    /**
+     * @param name resource name, e.g. <code>META-INF/files/file1.txt</code>
+     * @return <code>true</code> if at least one class path entry contains given resource
+     */
+    public boolean contains(String name) {
+        return resources.containsKey(name);
+    }
+
+    /**
+     * @param name resource name
+     * @return URL of the first class path entry containing given resource, <code>null</code> if none does
+     */
+    public URL getResource(String name) {
+        final int[] indices = resources.get(name);
+        return indices == null ? null : toUrl(roots.get(indices[0]), name);
+    }
+
+    /**
+     * @param name resource name
+     * @return URLs of given resource in class path order, empty if not found
+     */
+    public List<URL> getResources(String name) {
+        final int[] indices = resources.get(name);
+        if (indices == null) {
+            return List.of();
+        }
+        final List<URL> urls = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            urls.add(toUrl(roots.get(index), name));
+        }
+        return urls;
+    }
+
+    /**
+     * @param prefix name prefix, e.g. <code>META-INF/services/</code>
+     * @return sorted names of all resources starting with given prefix
+     */
+    public SortedSet<String> list(String prefix) {
+        return Collections.unmodifiableSortedSet(subMap(prefix).navigableKeySet());
+    }
+
+    /**
+     * Names matching given glob, <code>*</code> and <code>?</code> match within a directory, <code>**</code> across
+     * directories.
+     *
+     * @param glob pattern, e.g. <code>META-INF/**&#47;*.txt</code>
+     * @return sorted names of matching resources
+     */
+    public SortedSet<String> glob(String glob) {
+        int literal = 0;
+        while (literal < glob.length() && GLOB_CHARACTERS.indexOf(glob.charAt(literal)) < 0) {
+            literal++;
+        }
+        final Pattern pattern = toPattern(glob);
+        final SortedSet<String> names = new TreeSet<>();
+        for (String name : subMap(glob.substring(0, literal)).keySet()) {
+            if (pattern.matcher(name).matches()) {
+                names.add(name);
+            }
+        }
+        return Collections.unmodifiableSortedSet(names);
+    }
+
+    /**
+     * Write the index of <code>java.class.path</code>, or of the class path given as second argument, to the file
+     * given as first argument. Meant to run as part of the build.
+     *
+     * @param args index file and optional class path
+     * @throws IOException if writing fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ClasspathIndex <index-file> [class-path]");
+            System.exit(1);
+        }
+        final String classPath = args.length > 1 ? args[1] : System.getProperty("java.class.path", "");
+        final ClasspathIndex index = scan(split(classPath));
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[0])))) {
+            index.writeTo(out);
+        }
+        System.out.printf("Indexed %d resources of %d class path entries%n", index.size(), index.roots.size());
+    }
+
+    private NavigableMap<String, int[]> subMap(String prefix) {
+        return prefix.isEmpty() ? resources : resources.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static Pattern toPattern(String glob) {
+        final StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            final char c = glob.charAt(i);
+            if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                i++;
+                if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                    // "**/" also matches no directory at all
+                    i++;
+                    regex.append("(?:.*/)?");
+                } else {
+                    regex.append(".*");
+                }
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Scans entries without known names in parallel and merges all names in class path order.
+     */
+    private static ClasspathIndex build(List<Root> roots, List<List<String>> names) {
+        final int pending = (int) names.stream().filter(Objects::isNull).count();
+        if (pending > 0) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            final ExecutorService executor = Executors.newFixedThreadPool(
+                    Math.min(pending, Runtime.getRuntime().availableProcessors()), runnable -> {
+                        final Thread thread = new Thread(runnable,
+                                "classpath-scanner-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            try {
+                final List<Future<List<String>>> futures = new ArrayList<>();
+                for (int i = 0; i < roots.size(); i++) {
+                    final Root root = roots.get(i);
+                    futures.add(names.get(i) == null ? executor.submit(() -> root.scan()) : null);
+                }
+                for (int i = 0; i < roots.size(); i++) {
+                    if (futures.get(i) != null) {
+                        names.set(i, await(futures.get(i), roots.get(i)));
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        final NavigableMap<String, int[]> resources = new TreeMap<>();
+        for (int i = 0; i < roots.size(); i++) {
+            final int index = i;
+            for (String name : names.get(i)) {
+                resources.merge(name, new int[]{index}, (existing, added) -> {
+                    if (existing[existing.length - 1] == index) {
+                        return existing;
+                    }
+                    final int[] merged = Arrays.copyOf(existing, existing.length + 1);
+                    merged[existing.length] = index;
+                    return merged;
+                });
+            }
+        }
+        return new ClasspathIndex(List.copyOf(roots), Collections.unmodifiableNavigableMap(resources));
+    }
+
+    private static List<String> await(Future<List<String>> future, Root root) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            LOGGER.warn("Unable to scan class path entry {}", root.path(), ex.getCause());
+            return List.of();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning class path", ex);
+        }
+    }
+
+    private static List<Path> classPathOf(ClassLoader classLoader) {
+        final List<Path> classPath = new ArrayList<>(split(System.getProperty("java.class.path", "")));
+        final Deque<ClassLoader> loaders = new ArrayDeque<>();
+        for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+            loaders.push(loader);
+        }
+        for (ClassLoader loader : loaders) {
+            if (loader instanceof URLClassLoader urlClassLoader) {
+                for (URL url : urlClassLoader.getURLs()) {
+                    if ("file".equals(url.getProtocol())) {
+                        try {
+                            classPath.add(Paths.get(url.toURI()));
+                        } catch (URISyntaxException | IllegalArgumentException ex) {
+                            LOGGER.debug("Skipping class path URL {}", url);
+                        }
+                    }
+                }
+            }
+        }
+        return classPath;
+    }
+
+    private static List<Path> split(String classPath) {
+        final List<Path> paths = new ArrayList<>();
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (!entry.isBlank()) {
+                try {
+                    paths.add(Paths.get(entry));
+                } catch (InvalidPathException ex) {
+                    LOGGER.debug("Skipping class path entry {}", entry);
+                }
+            }
+        }
+        return paths;
+    }
+
+    private static URL toUrl(Root root, String name) {
+        try {
+            final String encoded = new URI(null, null, name, null).getRawPath();
+            final String base = root.path().toUri().toString();
+            return root.jar() ? new URL("jar:" + base + "!/" + encoded)
+                    : new URL(base + (base.endsWith("/") ? "" : "/") + encoded);
+        } catch (URISyntaxException | MalformedURLException ex) {
+            throw new IllegalStateException("Invalid resource name: " + name, ex);
+        }
+    }
+
+    /**
+     * Class path entry, modification time and size tell whether a stored index of a jar is still valid.
+     */
+    private record Root(Path path, boolean jar, long lastModified, long size) {
+
+        private static Root of(Path path) {
+            final Path absolute = path.toAbsolutePath().normalize();
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(absolute, BasicFileAttributes.class);
+                return new Root(absolute, attributes.isRegularFile(), attributes.lastModifiedTime().toMillis(),
+                        attributes.isRegularFile() ? attributes.size() : 0);
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+
+        private List<String> scan() throws IOException {
+            final List<String> names = new ArrayList<>();
+            if (jar) {
+                try (ZipFile zipFile = new ZipFile(path.toFile())) {
+                    final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                    while (entries.hasMoreElements()) {
+                        final ZipEntry entry = entries.nextElement();
+                        if (!entry.isDirectory()) {
+                            names.add(entry.getName());
+                        }
+                    }
+                }
+            } else {
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.filter(Files::isRegularFile).forEach(file -> {
+                        final StringBuilder name = new StringBuilder();
+                        for (Path element : path.relativize(file)) {
+                            if (name.length() > 0) {
+                                name.append('/');
+                            }
+                            name.append(element);
+                        }
+                        names.add(name.toString());
+                    });
+                }
+            }
+            return names;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.alphasystem.commons.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazy walk over the regular files of a directory tree, in the order of
+ * <code>Files.walk(dir).sorted().filter(Files::isRegularFile)</code> without listing the whole tree up front.
+ *
+ * Memory is bounded by the sizes of the directories on the current path, each directory is listed, sorted and closed
+ * when the walk enters it. Siblings are compared with {@link Path#compareTo}, a directory by the path of a child
+ * inside it, which places its sub tree where a full sort of paths puts it, with the ordering rules of the file system
+ * provider, e.g. bytes on Unix or case insensitive on Windows. As with {@link Files#walk}, symbolic links to
+ * directories are not followed, links to files are returned.
+ */
+final class DirectoryWalker implements Iterator<Path> {
+
+    // any name works, a full sort of paths decides at the separator before reaching it
+    private static final String CHILD = "-";
+    private static final Comparator<Node> ORDER = Comparator.comparing(Node::key);
+
+    private final Deque<Iterator<Node>> stack = new ArrayDeque<>();
+    private Path next;
+
+    DirectoryWalker(Path dir) {
+        stack.push(list(dir));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && !stack.isEmpty()) {
+            final Iterator<Node> children = stack.peek();
+            if (!children.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            final Node node = children.next();
+            if (node.directory()) {
+                stack.push(list(node.path()));
+            } else if (Files.isRegularFile(node.path())) {
+                next = node.path();
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Path next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Path path = next;
+        next = null;
+        return path;
+    }
+
+    private static Iterator<Node> list(Path dir) {
+        final List<Node> nodes = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                final boolean directory = Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS);
+                nodes.add(new Node(path, directory, directory ? path.resolve(CHILD) : path));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        nodes.sort(ORDER);
+        return nodes.iterator();
+    }
+
+    private record Node(Path path, boolean directory, Path key) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.alphasystem.commons.util;
+
+import java.time.Duration;
+
+/**
+ * Options for {@link FileUtil#download(java.net.URL, java.nio.file.Path, DownloadOptions)}.
+ */
+public final class DownloadOptions {
+
+    /**
+     * Receives download progress.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Called after every chunk written to the destination, from the downloading thread(s). Parallel downloads
+         * call this concurrently, implementations must be thread safe.
+         *
+         * @param downloaded bytes present in destination so far, including resumed bytes
+         * @param total      total size of the file, <code>-1</code> if unknown
+         */
+        void onProgress(long downloaded, long total);
+    }
+
+    private static final DownloadOptions DEFAULTS = builder().build();
+
+    /**
+     * @return options with all defaults, a single request without resume
+     */
+    public static DownloadOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @return new builder with default settings
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final boolean resume;
+    private final int segments;
+    private final long minSegmentSize;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final ProgressListener listener;
+
+    private DownloadOptions(Builder builder) {
+        this.resume = builder.resume;
+        this.segments = builder.segments;
+        this.minSegmentSize = builder.minSegmentSize;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.listener = builder.listener;
+    }
+
+    /**
+     * @return true if a partial destination file is continued
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * @return maximum number of parallel segments
+     */
+    public int getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return minimum size of a parallel segment in bytes
+     */
+    public long getMinSegmentSize() {
+        return minSegmentSize;
+    }
+
+    /**
+     * @return connect timeout in milliseconds
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * @return read timeout in milliseconds
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * @return progress listener, <code>null</code> if not set
+     */
+    public ProgressListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Builder of {@link DownloadOptions}.
+     */
+    public static final class Builder {
+
+        private boolean resume;
+        private int segments = 1;
+        private long minSegmentSize = 4L * 1024 * 1024;
+        private int connectTimeout = 30_000;
+        private int readTimeout = 60_000;
+        private ProgressListener listener;
+
+        private Builder() {
+        }
+
+        /**
+         * Continue a partial download found at the destination using an HTTP Range request. If the server does not
+         * support ranges, or the remote file changed, the file is downloaded from the start. A partial file is
+         * continued in a single request, also if {@link #segments(int) segments} are set.
+         *
+         * @param resume true to resume
+         * @return this builder
+         */
+        public Builder resume(boolean resume) {
+            this.resume = resume;
+            return this;
+        }
+
+        /**
+         * Download in up to given number of parallel range requests, written with positional writes into a
+         * preallocated <code>.part</code> file next to the destination, which replaces the destination once
+         * complete and is deleted on failure. Only used if the server reports content length and range support,
+         * and every segment is at least {@link #minSegmentSize(long)} bytes.
+         *
+         * @param segments maximum number of parallel segments, default is 1
+         * @return this builder
+         */
+        public Builder segments(int segments) {
+            if (segments < 1) {
+                throw new IllegalArgumentException("Invalid number of segments: " + segments);
+            }
+            this.segments = segments;
+            return this;
+        }
+
+        /**
+         * @param minSegmentSize minimum size of a parallel segment, default is 4 MB
+         * @return this builder
+         */
+        public Builder minSegmentSize(long minSegmentSize) {
+            if (minSegmentSize < 1) {
+                throw new IllegalArgumentException("Invalid segment size: " + minSegmentSize);
+            }
+            this.minSegmentSize = minSegmentSize;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout connect timeout, default is 30 seconds
+         * @param readTimeout    read timeout, default is 60 seconds
+         * @return this builder
+         */
+        public Builder timeouts(Duration connectTimeout, Duration readTimeout) {
+            this.connectTimeout = (int) connectTimeout.toMillis();
+            this.readTimeout = (int) readTimeout.toMillis();
+            return this;
+        }
+
+        /**
+         * @param listener progress listener
+         * @return this builder
+         */
+        public Builder listener(ProgressListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * @return new options
+         */
+        public DownloadOptions build() {
+            return new DownloadOptions(this);
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.SystemException;
+import com.alphasystem.commons.util.FileUtil.CopyResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Downloads batches of files concurrently on top of {@link FileUtil#download(URL, Path, DownloadOptions)}.
+ *
+ * <p>Every download runs on its own virtual thread when running on Java 21 or later, otherwise on a pool of
+ * {@link Builder#maxConcurrency(int)} platform threads. Concurrency is limited globally and per host
+ * (<code>host:port</code>, with the default port of the protocol if none is given). Downloads waiting for their
+ * host are queued without holding a thread, so they do not hold up downloads from other hosts. Failed downloads are retried with exponential backoff, client errors other than
+ * <code>408</code> and <code>429</code> are not retried.</p>
+ *
+ * <pre>
+ * try (Downloader downloader = Downloader.builder().perHostLimit(8).build()) {
+ *     CompletableFuture.allOf(downloader.downloadAll(requests).toArray(CompletableFuture[]::new)).join();
+ *     LOGGER.info("{}", downloader.getStats());
+ * }
+ * </pre>
+ */
+public final class Downloader implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Downloader.class);
+
+    /**
+     * Single download.
+     *
+     * @param url  source
+     * @param dest destination file
+     */
+    public record Request(URL url, Path dest) {
+
+        public Request {
+            Objects.requireNonNull(url, "url");
+            Objects.requireNonNull(dest, "dest");
+        }
+    }
+
+    /**
+     * Aggregate statistics of all downloads finished so far.
+     *
+     * @param completed number of successful downloads
+     * @param failed    number of downloads failed after all retries
+     * @param retries   number of retried attempts
+     * @param bytes     bytes downloaded by successful downloads
+     * @param elapsed   wall clock time from first start to last finish
+     * @param meanLatency mean time of a successful download, including retries and time waiting for a permit
+     * @param p50Latency  approximate median latency, upper bound of a power of two bucket
+     * @param p99Latency  approximate 99th percentile latency, upper bound of a power of two bucket
+     * @param maxLatency  maximum latency
+     */
+    public record Stats(long completed, long failed, long retries, long bytes, Duration elapsed, Duration meanLatency,
+                        Duration p50Latency, Duration p99Latency, Duration maxLatency) {
+
+        /**
+         * @return downloaded bytes per second of wall clock time
+         */
+        public double throughput() {
+            final long nanos = elapsed.toNanos();
+            return nanos == 0 ? 0 : bytes * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * @return new builder with default settings
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore globalPermits;
+    private final int perHostLimit;
+    private final int maxRetries;
+    private final long backoffNanos;
+    private final DownloadOptions options;
+    private final Map<String, HostQueue> hostQueues = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    // guarded by lock
+    private int pending;
+    private boolean closed;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    // bucket i counts latencies below 2^i microseconds
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(64);
+    private final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastFinish = new AtomicLong(Long.MIN_VALUE);
+
+    private Downloader(Builder builder) {
+        ExecutorService virtual = builder.platformThreads ? null : newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        if (virtual == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            virtual = Executors.newFixedThreadPool(builder.maxConcurrency, runnable -> {
+                final Thread thread = new Thread(runnable, "downloader-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.executor = virtual;
+        this.globalPermits = new Semaphore(builder.maxConcurrency);
+        this.perHostLimit = builder.perHostLimit;
+        this.maxRetries = builder.maxRetries;
+        this.backoffNanos = builder.backoff.toNanos();
+        this.options = builder.options;
+    }
+
+    /**
+     * @return true if downloads run on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Schedule given download.
+     *
+     * @param url  source
+     * @param dest destination file
+     * @return future completed with the result of the download, or exceptionally with {@link SystemException}
+     */
+    public CompletableFuture<CopyResult> download(URL url, Path dest) {
+        return download(new Request(url, dest));
+    }
+
+    /**
+     * Schedule given download.
+     *
+     * @param request download to run
+     * @return future completed with the result of the download, or exceptionally with {@link SystemException}
+     */
+    public CompletableFuture<CopyResult> download(Request request) {
+        final long scheduled = System.nanoTime();
+        final CompletableFuture<CopyResult> future = new CompletableFuture<>();
+        final HostQueue queue = hostQueues.computeIfAbsent(hostKey(request.url()), key -> new HostQueue());
+        synchronized (lock) {
+            if (closed) {
+                throw new RejectedExecutionException("Downloader is closed");
+            }
+            pending++;
+        }
+        queue.submit(() -> dispatch(queue, request, scheduled, future));
+        return future;
+    }
+
+    /**
+     * Schedule given downloads.
+     *
+     * @param requests downloads to run
+     * @return one future per request, in the order of the requests
+     */
+    public List<CompletableFuture<CopyResult>> downloadAll(List<Request> requests) {
+        final List<CompletableFuture<CopyResult>> futures = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            futures.add(download(request));
+        }
+        return futures;
+    }
+
+    /**
+     * @return statistics of downloads finished so far
+     */
+    public Stats getStats() {
+        final long completed = this.completed.sum();
+        final long start = firstStart.get();
+        final long finish = lastFinish.get();
+        return new Stats(completed, failed.sum(), retries.sum(), bytes.sum(),
+                Duration.ofNanos(finish > start ? finish - start : 0),
+                Duration.ofNanos(completed == 0 ? 0 : latencyNanos.sum() / completed),
+                percentile(completed, 0.5), percentile(completed, 0.99), Duration.ofNanos(maxLatencyNanos.get()));
+    }
+
+    /**
+     * Stops accepting new downloads, scheduled downloads still run.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            if (pending == 0) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return <code>host:port</code> of given URL, lower case, with the default port of the protocol if none is given
+     */
+    static String hostKey(URL url) {
+        final int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return url.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    private void dispatch(HostQueue queue, Request request, long scheduled, CompletableFuture<CopyResult> future) {
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(run(request, scheduled));
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                } finally {
+                    finish(queue);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+            finish(queue);
+        }
+    }
+
+    private void finish(HostQueue queue) {
+        queue.release();
+        synchronized (lock) {
+            if (--pending == 0 && closed) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private CopyResult run(Request request, long start) {
+        firstStart.accumulateAndGet(start, Math::min);
+        try {
+            final CopyResult result = runWithRetries(request);
+            record(start, result.bytes());
+            return result;
+        } catch (SystemException ex) {
+            recordFailure();
+            throw new CompletionException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            recordFailure();
+            throw new CompletionException(new SystemException("Download of " + request.url() + " interrupted", ex));
+        } catch (RuntimeException ex) {
+            recordFailure();
+            throw ex;
+        }
+    }
+
+    private CopyResult runWithRetries(Request request) throws SystemException, InterruptedException {
+        int attempt = 0;
+        while (true) {
+            globalPermits.acquire();
+            try {
+                return FileUtil.download(request.url(), request.dest(), options);
+            } catch (SystemException ex) {
+                if (attempt >= maxRetries || !isRetryable(ex)) {
+                    throw ex;
+                }
+                LOGGER.debug("Retrying download of {}: {}", request.url(), ex.getMessage());
+            } finally {
+                globalPermits.release();
+            }
+            retries.increment();
+            Thread.sleep(Duration.ofNanos(backoffNanos << attempt).toMillis());
+            attempt++;
+        }
+    }
+
+    private static boolean isRetryable(SystemException ex) {
+        if (ex.getCause() instanceof HttpDownload.HttpStatusException statusException) {
+            final int status = statusException.getStatus();
+            return status >= 500 || status == 408 || status == 429;
+        }
+        return true;
+    }
+
+    private void record(long start, long downloaded) {
+        final long end = System.nanoTime();
+        final long latency = end - start;
+        completed.increment();
+        bytes.add(downloaded);
+        latencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        latencyHistogram.incrementAndGet(64 - Long.numberOfLeadingZeros(latency / 1000));
+        lastFinish.accumulateAndGet(end, Math::max);
+    }
+
+    private void recordFailure() {
+        failed.increment();
+        lastFinish.accumulateAndGet(System.nanoTime(), Math::max);
+    }
+
+    private Duration percentile(long count, double percentile) {
+        final long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < latencyHistogram.length(); i++) {
+            seen += latencyHistogram.get(i);
+            if (rank > 0 && seen >= rank) {
+                return Duration.ofNanos(Math.min((1L << i) * 1000, maxLatencyNanos.get()));
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Java 21+, looked up reflectively since this library targets Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Downloads of one host, at most {@link #perHostLimit} are handed to the executor at a time.
+     */
+    private final class HostQueue {
+
+        private final Deque<Runnable> waiting = new ArrayDeque<>();
+        private int active;
+
+        private void submit(Runnable dispatch) {
+            synchronized (this) {
+                if (active >= perHostLimit) {
+                    waiting.add(dispatch);
+                    return;
+                }
+                active++;
+            }
+            dispatch.run();
+        }
+
+        private void release() {
+            final Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+            }
+            next.run();
+        }
+    }
+
+    /**
+     * Builder of {@link Downloader}.
+     */
+    public static final class Builder {
+
+        private int maxConcurrency = 64;
+        private int perHostLimit = 8;
+        private int maxRetries = 2;
+        private Duration backoff = Duration.ofMillis(200);
+        private boolean platformThreads;
+        private DownloadOptions options = DownloadOptions.defaults();
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxConcurrency maximum number of concurrent downloads, also size of the fallback thread pool,
+         *                       default is 64
+         * @return this builder
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("Invalid concurrency: " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * @param perHostLimit maximum number of concurrent downloads from a single host, default is 8
+         * @return this builder
+         */
+        public Builder perHostLimit(int perHostLimit) {
+            if (perHostLimit < 1) {
+                throw new IllegalArgumentException("Invalid per host limit: " + perHostLimit);
+            }
+            this.perHostLimit = perHostLimit;
+            return this;
+        }
+
+        /**
+         * @param maxRetries maximum number of retries per download, default is 2
+         * @param backoff    delay before first retry, doubled for every further retry, default is 200 ms
+         * @return this builder
+         */
+        public Builder retries(int maxRetries, Duration backoff) {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("Invalid number of retries: " + maxRetries);
+            }
+            this.maxRetries = maxRetries;
+            this.backoff = Objects.requireNonNull(backoff);
+            return this;
+        }
+
+        /**
+         * Use platform threads even if virtual threads are available.
+         *
+         * @param platformThreads true to use platform threads
+         * @return this builder
+         */
+        public Builder platformThreads(boolean platformThreads) {
+            this.platformThreads = platformThreads;
+            return this;
+        }
+
+        /**
+         * @param options options applied to every download
+         * @return this builder
+         */
+        public Builder options(DownloadOptions options) {
+            this.options = Objects.requireNonNull(options);
+            return this;
+        }
+
+        /**
+         * @return new downloader, must be closed when done
+         */
+        public Downloader build() {
+            return new Downloader(this);
+        }
+    }
+}
@@ -8,28 +8,131 @@ import com.alphasystem.commons.SystemException;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static java.nio.file.StandardOpenOption.*;
 
 /**
  * @author sali
  */
 public class FileUtil {
 
+    static final int MIN_BUFFER_SIZE = 64 * 1024;
+    static final int MAX_BUFFER_SIZE = 1024 * 1024;
+
     /**
      * Copy from given output stream from input stream.
      *
      * @param out Source stream
      * @param in  Destination stream
      * @throws IOException if anything goes wrong
+     * @see #copy(InputStream, OutputStream)
      */
     public static void copyOutputStream(OutputStream out, InputStream in)
             throws IOException {
-        // Create a buffer for reading the files
-        byte[] buf = new byte[1024];
+        copy(in, out);
+    }
+
+    /**
+     * Copy given file, <code>target</code> is created or truncated. The copy is done by the kernel where supported
+     * (<code>copy_file_range</code> / <code>sendfile</code>). As with {@link Files#copy(Path, Path,
+     * java.nio.file.CopyOption...)}, nothing is copied if both paths locate the same file, e.g. through a link.
+     *
+     * @param source source file
+     * @param target target file
+     * @return result of the copy, no bytes if source and target are the same file
+     * @throws IOException if anything goes wrong
+     */
+    public static CopyResult copy(Path source, Path target) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            // truncating the target would destroy the source
+            return new CopyResult(0, Duration.ZERO);
+        }
+        try (FileChannel in = FileChannel.open(source, READ);
+             FileChannel out = FileChannel.open(target, WRITE, CREATE, TRUNCATE_EXISTING)) {
+            return copy(in, out);
+        }
+    }
+
+    /**
+     * Copy remaining content of given file channel, starting at its current position, using
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)}. Position of <code>source</code> is moved to
+     * the end.
+     *
+     * @param source source channel
+     * @param target target channel, in blocking mode
+     * @return result of the copy
+     * @throws IOException              if anything goes wrong
+     * @throws IllegalArgumentException if target is a non-blocking channel
+     */
+    public static CopyResult copy(FileChannel source, WritableByteChannel target) throws IOException {
+        if (target instanceof SelectableChannel selectable && !selectable.isBlocking()) {
+            throw new IllegalArgumentException("Target channel must be in blocking mode");
+        }
+        final long start = System.nanoTime();
+        final long size = source.size();
+        long position = source.position();
+        final long begin = position;
+        ByteBuffer buffer = null;
+        while (position < size) {
+            long transferred = source.transferTo(position, size - position, target);
+            if (transferred <= 0) {
+                if (position >= source.size()) {
+                    // file shrunk while copying
+                    break;
+                }
+                // no progress through transfer, copy a chunk through a buffer, which blocks until written
+                if (buffer == null) {
+                    buffer = ByteBuffer.allocate(MIN_BUFFER_SIZE);
+                }
+                buffer.clear();
+                final int read = source.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                transferred = read;
+            }
+            position += transferred;
+        }
+        source.position(position);
+        return new CopyResult(position - begin, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Copy given input stream into given output stream, neither stream is closed. File streams are copied by
+     * channel transfer, other streams through a buffer growing from 64 KB up to 1 MB while reads keep filling it.
+     *
+     * @param in  source stream
+     * @param out target stream
+     * @return result of the copy
+     * @throws IOException if anything goes wrong
+     */
+    public static CopyResult copy(InputStream in, OutputStream out) throws IOException {
+        if (in instanceof FileInputStream fileIn && out instanceof FileOutputStream fileOut) {
+            return copy(fileIn.getChannel(), fileOut.getChannel());
+        }
+        final long start = System.nanoTime();
+        byte[] buffer = new byte[MIN_BUFFER_SIZE];
+        long count = 0;
         int len;
-        while ((len = in.read(buf)) > 0) {
-            out.write(buf, 0, len);
+        while ((len = in.read(buffer)) != -1) {
+            out.write(buffer, 0, len);
+            count += len;
+            if (len == buffer.length && buffer.length < MAX_BUFFER_SIZE) {
+                buffer = new byte[buffer.length << 1];
+            }
         }
+        return new CopyResult(count, Duration.ofNanos(System.nanoTime() - start));
     }
 
     /**
@@ -66,31 +169,40 @@ public class FileUtil {
      * @throws SystemException Wraps other exceptions
      */
     public static void download(URL url, File dest) throws SystemException {
-        BufferedReader in = null;
-        PrintWriter writer = null;
+        download(url, dest.toPath(), DownloadOptions.defaults());
+    }
+
+    /**
+     * Download file from given URL, content is streamed to the destination as is.
+     *
+     * @param url     Given URL
+     * @param dest    Destination file
+     * @param options resume, parallel segments and progress options
+     * @return number of bytes transferred by this call, resumed bytes are not counted
+     * @throws SystemException Wraps other exceptions
+     */
+    public static CopyResult download(URL url, Path dest, DownloadOptions options) throws SystemException {
         try {
-            URLConnection urlConnection = url.openConnection();
-            writer = new PrintWriter(new BufferedWriter(new FileWriter(dest)));
-            in = new BufferedReader(new InputStreamReader(
-                    urlConnection.getInputStream()));
-            String line = in.readLine();
-            while (line != null) {
-                writer.println(line);
-                line = in.readLine();
-            }
+            return HttpDownload.download(url, dest, options);
         } catch (IOException e) {
             throw new SystemException(e.getMessage(), e);
-        } finally {
-            if (in != null) {
-                try {
-                    in.close();
-                } catch (IOException e) {
-                    //
-                }
-            }
-            if (writer != null) {
-                writer.close();
-            }
+        }
+    }
+
+    /**
+     * Result of a copy operation.
+     *
+     * @param bytes   number of bytes copied
+     * @param elapsed time taken by the copy
+     */
+    public record CopyResult(long bytes, Duration elapsed) {
+
+        /**
+         * @return throughput in bytes per second
+         */
+        public double throughput() {
+            final long nanos = elapsed.toNanos();
+            return nanos == 0 ? bytes : bytes * 1e9 / nanos;
         }
     }
 }
@@ -0,0 +1,298 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.util.FileUtil.CopyResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Binary download implementation behind {@link FileUtil#download(URL, Path, DownloadOptions)}.
+ */
+final class HttpDownload {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private final URL url;
+    private final Path dest;
+    private final DownloadOptions options;
+    private final AtomicLong downloaded = new AtomicLong();
+    private long total = -1;
+
+    private HttpDownload(URL url, Path dest, DownloadOptions options) {
+        this.url = url;
+        this.dest = dest;
+        this.options = options;
+    }
+
+    /**
+     * @return number of bytes transferred by this call, excluding resumed bytes
+     */
+    static CopyResult download(URL url, Path dest, DownloadOptions options) throws IOException {
+        final long start = System.nanoTime();
+        final long bytes = new HttpDownload(url, dest, options).download();
+        return new CopyResult(bytes, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private long download() throws IOException {
+        final RemoteFile remote = (options.isResume() || options.getSegments() > 1) ? probe() : RemoteFile.UNKNOWN;
+        total = remote.length();
+        if (remote.acceptsRanges() && total > 0) {
+            final long segments = Math.min(options.getSegments(), total / options.getMinSegmentSize());
+            // a partial file is continued with a single range request
+            if (segments > 1 && !(options.isResume() && Files.exists(dest) && Files.size(dest) > 0)) {
+                return downloadSegments(remote, (int) segments);
+            }
+        }
+        return downloadSingle(remote);
+    }
+
+    private RemoteFile probe() throws IOException {
+        final URLConnection connection = open();
+        if (connection instanceof HttpURLConnection http) {
+            http.setRequestMethod("HEAD");
+            if (http.getResponseCode() >= 400) {
+                // some servers do not implement HEAD, fall back to a plain download
+                http.disconnect();
+                return RemoteFile.UNKNOWN;
+            }
+            final String validator = http.getHeaderField("ETag") != null ? http.getHeaderField("ETag")
+                    : http.getHeaderField("Last-Modified");
+            return new RemoteFile(http.getContentLengthLong(),
+                    "bytes".equalsIgnoreCase(http.getHeaderField("Accept-Ranges")), validator);
+        }
+        final long length = connection.getContentLengthLong();
+        connection.getInputStream().close();
+        return new RemoteFile(length, false, null);
+    }
+
+    private long downloadSingle(RemoteFile remote) throws IOException {
+        long existing = 0;
+        if (options.isResume() && remote.acceptsRanges() && Files.exists(dest)) {
+            existing = Files.size(dest);
+            if (total >= 0 && existing >= total) {
+                if (existing == total) {
+                    progress(total);
+                    return 0;
+                }
+                existing = 0;
+            }
+        }
+
+        final URLConnection connection = open();
+        if (existing > 0) {
+            connection.setRequestProperty("Range", "bytes=" + existing + "-");
+            if (remote.validator() != null) {
+                connection.setRequestProperty("If-Range", remote.validator());
+            }
+        }
+        if (connection instanceof HttpURLConnection http) {
+            final int code = http.getResponseCode();
+            if (code == HttpURLConnection.HTTP_OK) {
+                // range ignored or remote file changed, start over
+                existing = 0;
+            } else if (code == HTTP_RANGE_NOT_SATISFIABLE && existing > 0) {
+                // length was unknown up front and the range starts at or past the end of the remote file
+                final long length = completeLength(http.getHeaderField("Content-Range"));
+                http.disconnect();
+                if (length >= 0 && length != existing) {
+                    return downloadSingle(RemoteFile.UNKNOWN);
+                }
+                total = existing;
+                downloaded.set(existing);
+                progress(existing);
+                return 0;
+            } else if (code != HttpURLConnection.HTTP_PARTIAL || existing == 0) {
+                http.disconnect();
+                throw new HttpStatusException(code, "Server returned HTTP " + code + " for " + url);
+            }
+        }
+        final long length = connection.getContentLengthLong();
+        total = length < 0 ? -1 : existing + length;
+        downloaded.set(existing);
+        // closing the stream, rather than disconnecting, keeps the connection alive for reuse
+        try (InputStream in = connection.getInputStream();
+             FileChannel out = existing > 0 ? FileChannel.open(dest, WRITE)
+                     : FileChannel.open(dest, WRITE, CREATE, TRUNCATE_EXISTING)) {
+            return transfer(in, out, existing, -1);
+        }
+    }
+
+    private long downloadSegments(RemoteFile remote, int segments) throws IOException {
+        final ExecutorService executor = Executors.newFixedThreadPool(segments, runnable -> {
+            final Thread thread = new Thread(runnable, "download-segment");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // the preallocated file is only moved to the destination once complete, a failed download leaves nothing
+        // behind which could pass for a complete file
+        final Path part = dest.resolveSibling(dest.getFileName() + ".part");
+        boolean completed = false;
+        try {
+            long bytes = 0;
+            try (FileChannel out = FileChannel.open(part, WRITE, CREATE, TRUNCATE_EXISTING)) {
+                // preallocate, segments are written at their own positions
+                out.write(ByteBuffer.allocate(1), total - 1);
+                final long segmentSize = (total + segments - 1) / segments;
+                final List<Future<Long>> futures = new ArrayList<>(segments);
+                for (long from = 0; from < total; from += segmentSize) {
+                    final long start = from;
+                    final long end = Math.min(total, from + segmentSize) - 1;
+                    futures.add(executor.submit(() -> downloadSegment(remote, out, start, end)));
+                }
+                for (Future<Long> future : futures) {
+                    bytes += await(future, futures);
+                }
+            }
+            try {
+                Files.move(part, dest, REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(part, dest, REPLACE_EXISTING);
+            }
+            completed = true;
+            return bytes;
+        } finally {
+            executor.shutdownNow();
+            if (!completed) {
+                try {
+                    Files.deleteIfExists(part);
+                } catch (IOException ex) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    private long downloadSegment(RemoteFile remote, FileChannel out, long start, long end) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) open();
+        connection.setRequestProperty("Range", "bytes=" + start + "-" + end);
+        if (remote.validator() != null) {
+            connection.setRequestProperty("If-Range", remote.validator());
+        }
+        final int code = connection.getResponseCode();
+        if (code != HttpURLConnection.HTTP_PARTIAL) {
+            connection.disconnect();
+            throw new HttpStatusException(code, "Server returned HTTP " + code + " for range request to " + url);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            final long expected = end - start + 1;
+            final long received = transfer(in, out, start, expected);
+            if (received != expected) {
+                throw new IOException("Premature end of segment " + start + "-" + end + " from " + url);
+            }
+            return received;
+        }
+    }
+
+    /**
+     * Copy given stream to given channel with positional writes, stops after <code>limit</code> bytes unless
+     * negative.
+     */
+    private long transfer(InputStream in, FileChannel out, long position, long limit) throws IOException {
+        final byte[] bytes = new byte[BUFFER_SIZE];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long count = 0;
+        int len;
+        while ((limit < 0 || count < limit)
+                && (len = in.read(bytes, 0, limit < 0 ? bytes.length : (int) Math.min(bytes.length, limit - count))) != -1) {
+            buffer.clear().limit(len);
+            while (buffer.hasRemaining()) {
+                position += out.write(buffer, position);
+            }
+            count += len;
+            progress(downloaded.addAndGet(len));
+        }
+        return count;
+    }
+
+    private long await(Future<Long> future, List<Future<Long>> futures) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            futures.forEach(f -> f.cancel(true));
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } catch (InterruptedException ex) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download of " + url + " interrupted");
+        }
+    }
+
+    private void progress(long value) {
+        final DownloadOptions.ProgressListener listener = options.getListener();
+        if (listener != null) {
+            listener.onProgress(value, total);
+        }
+    }
+
+    /**
+     * @param contentRange value of the Content-Range header, e.g. {@code bytes 0-99/1234}
+     * @return complete length, or -1 if not given
+     */
+    private static long completeLength(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(contentRange.lastIndexOf('/') + 1).trim());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private URLConnection open() throws IOException {
+        final URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(options.getConnectTimeout());
+        connection.setReadTimeout(options.getReadTimeout());
+        return connection;
+    }
+
+    /**
+     * Unexpected HTTP status.
+     */
+    static final class HttpStatusException extends IOException {
+
+        private static final long serialVersionUID = -5309143860187227215L;
+
+        private final int status;
+
+        HttpStatusException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        int getStatus() {
+            return status;
+        }
+    }
+
+    private record RemoteFile(long length, boolean acceptsRanges, String validator) {
+
+        private static final RemoteFile UNKNOWN = new RemoteFile(-1, false, null);
+    }
+}
@@ -1,5 +1,8 @@
 package com.alphasystem.commons.util;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -11,21 +14,29 @@ public class IdGenerator {
 
 	private static final IdGenerator instance;
 
+	/** Length of a formatted id. */
+	public static final int ID_LENGTH = 8;
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
 	static {
 		instance = new IdGenerator();
 	}
 
-	/** Format an id created by this class as a hex string. */
+	/** Format an id created by this class as an upper case hex string. */
 	private static String format(int id) {
-		final char[] r = new char[8];
-		for (int p = 7; 0 <= p; p--) {
-			final int h = id & 0xf;
-			r[p] = h < 10 ? (char) ('0' + h) : (char) ('a' + (h - 10));
-			id >>= 4;
-		}
+		final char[] r = new char[ID_LENGTH];
+		format(id, r, 0);
 		return new String(r);
 	}
 
+	private static void format(int id, char[] dst, int off) {
+		for (int p = off + ID_LENGTH - 1; off <= p; p--) {
+			dst[p] = HEX[id & 0xf];
+			id >>>= 4;
+		}
+	}
+
 	/**
 	 * Returns singleton instance.
 	 *
@@ -64,8 +75,70 @@ public class IdGenerator {
 	 * @return Next generated id.
 	 */
 	public static String nextId() {
-		IdGenerator generator = IdGenerator.getInstance();
-		return IdGenerator.format(generator.next()).toUpperCase();
+		return format(instance.next());
+	}
+
+	/**
+	 * Writes next id into given array without allocating.
+	 *
+	 * @param dst array to write to, must have room for {@link #ID_LENGTH} characters
+	 * @param off offset in <code>dst</code>
+	 * @return offset after last written character
+	 */
+	public static int nextId(char[] dst, int off) {
+		if (off < 0 || off > dst.length - ID_LENGTH) {
+			throw new IndexOutOfBoundsException("offset: " + off + ", length: " + dst.length);
+		}
+		format(instance.next(), dst, off);
+		return off + ID_LENGTH;
+	}
+
+	/**
+	 * Appends next id to given builder without allocating (besides builder growth).
+	 *
+	 * @param builder builder to append to
+	 * @return given builder
+	 */
+	public static StringBuilder nextId(StringBuilder builder) {
+		final int id = instance.next();
+		for (int shift = 28; 0 <= shift; shift -= 4) {
+			builder.append(HEX[(id >>> shift) & 0xf]);
+		}
+		return builder;
+	}
+
+	/**
+	 * Writes next id as ASCII bytes at the current position of given buffer.
+	 *
+	 * @param buffer buffer to write to
+	 * @return given buffer
+	 * @throws BufferOverflowException if buffer has less than {@link #ID_LENGTH} bytes remaining
+	 */
+	public static ByteBuffer nextId(ByteBuffer buffer) {
+		if (buffer.remaining() < ID_LENGTH) {
+			throw new BufferOverflowException();
+		}
+		final int id = instance.next();
+		for (int shift = 28; 0 <= shift; shift -= 4) {
+			buffer.put((byte) HEX[(id >>> shift) & 0xf]);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Appends next id to given {@link Appendable}, one character at a time so no garbage is created.
+	 *
+	 * @param appendable target, e.g. a {@link java.io.Writer}
+	 * @param <A> type of target
+	 * @return given target
+	 * @throws IOException if target fails to append
+	 */
+	public static <A extends Appendable> A appendTo(A appendable) throws IOException {
+		final int id = instance.next();
+		for (int shift = 28; 0 <= shift; shift -= 4) {
+			appendable.append(HEX[(id >>> shift) & 0xf]);
+		}
+		return appendable;
 	}
 
 	private static int result(final short v0, final short v1) {
@@ -0,0 +1,205 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.util.nio.NIOFileUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache of resource directories extracted from jar files, behind {@link AppUtil#processResourceDirectory}.
+ *
+ * Each extracted tree lives in a directory named after a hash of jar path, jar modification time and size and
+ * resource name, so a rebuilt jar gets a new directory. Trees are extracted once, concurrent callers for the same
+ * tree wait for the one extraction. Extraction goes into a temporary sibling directory which is renamed when
+ * complete, a directory found under its final name is therefore always complete, also when another JVM shares the
+ * cache directory.
+ *
+ * Without a cache directory trees are extracted into a temporary directory which is deleted when the JVM exits.
+ * With {@link AppUtil#RESOURCE_CACHE_DIR_PROPERTY} set trees are kept and reused across restarts, trees of old jars
+ * are not removed.
+ */
+final class JarResourceCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JarResourceCache.class);
+
+    private static volatile JarResourceCache instance;
+
+    private final Path cacheDir;
+    private final boolean persistent;
+    private final Map<String, CompletableFuture<Path>> trees = new ConcurrentHashMap<>();
+    private final AtomicInteger extractions = new AtomicInteger();
+    private volatile Path tempDir;
+
+    JarResourceCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+        this.persistent = cacheDir != null;
+    }
+
+    static JarResourceCache getInstance() {
+        JarResourceCache cache = instance;
+        if (cache == null) {
+            synchronized (JarResourceCache.class) {
+                cache = instance;
+                if (cache == null) {
+                    final String dir = System.getProperty(AppUtil.RESOURCE_CACHE_DIR_PROPERTY);
+                    cache = new JarResourceCache(dir == null || dir.isBlank() ? null : Path.of(dir));
+                    instance = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @param jar          jar file
+     * @param resourceName name of a directory in given jar
+     * @return directory containing the extracted tree
+     * @throws IOException if the jar can not be read or the tree not be extracted
+     */
+    Path extract(Path jar, String resourceName) throws IOException {
+        final String name = trim(resourceName);
+        final Path jarPath = jar.toAbsolutePath().normalize();
+        final String key = key(jarPath, name);
+        final CompletableFuture<Path> tree = new CompletableFuture<>();
+        final CompletableFuture<Path> existing = trees.putIfAbsent(key, tree);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            tree.complete(extract(jarPath, name, key));
+        } catch (IOException | RuntimeException ex) {
+            // let the next caller try again
+            trees.remove(key, tree);
+            tree.completeExceptionally(ex);
+            throw ex;
+        }
+        return tree.join();
+    }
+
+    /**
+     * @return number of trees extracted by this cache, trees found on disk are not counted
+     */
+    int getExtractions() {
+        return extractions.get();
+    }
+
+    private Path extract(Path jar, String name, String key) throws IOException {
+        final Path root = root();
+        final Path target = root.resolve(key);
+        if (Files.isDirectory(target)) {
+            LOGGER.debug("Using cached resource directory {} of {}", target, jar);
+            return target;
+        }
+        final Path work = Files.createTempDirectory(root, key + ".tmp-");
+        try {
+            try (FileSystem zipFileSystem = FileSystems.newFileSystem(jar)) {
+                final Path from = zipFileSystem.getPath("/" + name);
+                if (!Files.isDirectory(from)) {
+                    throw new IOException(String.format("Resource directory {%s} not found in {%s}", name, jar));
+                }
+                NIOFileUtils.copyDirParallel(from, work);
+            }
+            extractions.incrementAndGet();
+            try {
+                Files.move(work, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                // another process extracted the same tree first
+                if (!Files.isDirectory(target)) {
+                    throw ex;
+                }
+            }
+            LOGGER.debug("Extracted resource directory {} of {} to {}", name, jar, target);
+            return target;
+        } finally {
+            if (Files.exists(work)) {
+                FileUtils.deleteDirectory(work.toFile());
+            }
+        }
+    }
+
+    private Path root() throws IOException {
+        if (persistent) {
+            return Files.createDirectories(cacheDir);
+        }
+        Path dir = tempDir;
+        if (dir == null) {
+            synchronized (this) {
+                dir = tempDir;
+                if (dir == null) {
+                    dir = Files.createTempDirectory("alphasystem-resources-");
+                    final Path toDelete = dir;
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        try {
+                            FileUtils.deleteDirectory(toDelete.toFile());
+                        } catch (IOException ex) {
+                            // best effort
+                        }
+                    }, "resource-cache-cleaner"));
+                    tempDir = dir;
+                }
+            }
+        }
+        return dir;
+    }
+
+    private static String key(Path jar, String name) throws IOException {
+        final String source = jar + "\n" + Files.getLastModifiedTime(jar).toMillis() + "\n" + Files.size(jar) + "\n"
+                + name;
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        // readable prefix, hash makes it unique
+        String prefix = name.isEmpty() ? "root" : name.replaceAll("[^A-Za-z0-9._-]", "_");
+        if (prefix.length() > 64) {
+            prefix = prefix.substring(prefix.length() - 64);
+        }
+        return prefix + "-" + HexFormat.of().formatHex(digest, 0, 16);
+    }
+
+    private static String trim(String resourceName) {
+        int begin = 0;
+        int end = resourceName.length();
+        while (begin < end && resourceName.charAt(begin) == '/') {
+            begin++;
+        }
+        while (end > begin && resourceName.charAt(end - 1) == '/') {
+            end--;
+        }
+        return resourceName.substring(begin, end);
+    }
+
+    private static Path await(CompletableFuture<Path> tree) throws IOException {
+        try {
+            return tree.get();
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for extraction");
+        }
+    }
+}
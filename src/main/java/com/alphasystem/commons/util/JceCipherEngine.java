@@ -0,0 +1,237 @@
+package com.alphasystem.commons.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import java.security.GeneralSecurityException;
+import java.security.Provider;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Objects;
+
+import static javax.crypto.Cipher.DECRYPT_MODE;
+import static javax.crypto.Cipher.ENCRYPT_MODE;
+
+/**
+ * {@link CipherEngine} backed by a JCE {@link Cipher}. Algorithm, provider, key and IV source are configured through
+ * {@link #builder()}, default is AES/GCM/NoPadding from the JDK provider (AES-NI accelerated) with a random 12 byte
+ * IV per message.
+ *
+ * With a random IV, the IV is written in front of the cipher text and read back on decryption. With a fixed IV
+ * nothing is stored and each thread keeps initialized ciphers around, which is only safe for stream modes whose
+ * output does not need to be unique, such as the legacy DES/CTR engine.
+ */
+public final class JceCipherEngine implements CipherEngine {
+
+    private static final String DEFAULT_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int GCM_TAG_BITS = 128;
+    private static final int DEFAULT_IV_LENGTH = 12;
+
+    private final String transformation;
+    private final Provider provider;
+    private final String providerName;
+    private final SecretKey key;
+    private final byte[] fixedIv;
+    private final int ivLength;
+    private final boolean gcm;
+    private final SecureRandom random;
+    private final ThreadLocal<Cipher> encryptCipher;
+    private final ThreadLocal<Cipher> decryptCipher;
+
+    private JceCipherEngine(Builder builder) {
+        this.transformation = builder.transformation;
+        this.provider = builder.provider;
+        this.providerName = builder.providerName;
+        this.key = Objects.requireNonNull(builder.key, "key is required");
+        this.fixedIv = builder.fixedIv;
+        this.ivLength = (fixedIv == null) ? builder.ivLength : 0;
+        this.gcm = transformation.toUpperCase().contains("/GCM/");
+        this.random = (fixedIv == null) ? new SecureRandom() : null;
+        this.encryptCipher = ThreadLocal.withInitial(() -> createCipher(ENCRYPT_MODE));
+        this.decryptCipher = ThreadLocal.withInitial(() -> createCipher(DECRYPT_MODE));
+        // fail fast on unknown algorithm / provider or wrong key
+        encryptCipher.get();
+    }
+
+    /**
+     * @return new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int encrypt(byte[] input, int offset, int length, byte[] output) {
+        final Cipher cipher = encryptCipher.get();
+        try {
+            if (fixedIv != null) {
+                return cipher.doFinal(input, offset, length, output, 0);
+            }
+            final byte[] iv = new byte[ivLength];
+            random.nextBytes(iv);
+            cipher.init(ENCRYPT_MODE, key, parameterSpec(iv, 0), random);
+            System.arraycopy(iv, 0, output, 0, ivLength);
+            return ivLength + cipher.doFinal(input, offset, length, output, ivLength);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            encryptCipher.remove();
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int decrypt(byte[] input, int offset, int length, byte[] output) {
+        final Cipher cipher = decryptCipher.get();
+        try {
+            if (fixedIv != null) {
+                return cipher.doFinal(input, offset, length, output, 0);
+            }
+            if (length < ivLength) {
+                throw new IllegalArgumentException("Cipher text is shorter than IV");
+            }
+            cipher.init(DECRYPT_MODE, key, parameterSpec(input, offset));
+            return cipher.doFinal(input, offset + ivLength, length - ivLength, output, 0);
+        } catch (GeneralSecurityException | RuntimeException e) {
+            decryptCipher.remove();
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int encryptedLength(int plainTextLength) {
+        return ivLength + encryptCipher.get().getOutputSize(plainTextLength);
+    }
+
+    @Override
+    public int decryptedLength(int cipherTextLength) {
+        // output size of an uninitialized GCM decryptor is unknown, cipher text is never shorter than plain text
+        return Math.max(0, cipherTextLength - ivLength);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JceCipherEngine{%s, provider=%s, iv=%s}", transformation,
+                (provider != null) ? provider.getName() : Objects.requireNonNullElse(providerName, "default"),
+                (fixedIv != null) ? "fixed" : "random");
+    }
+
+    private Cipher createCipher(int mode) {
+        try {
+            final Cipher cipher;
+            if (provider != null) {
+                cipher = Cipher.getInstance(transformation, provider);
+            } else if (providerName != null) {
+                cipher = Cipher.getInstance(transformation, providerName);
+            } else {
+                cipher = Cipher.getInstance(transformation);
+            }
+            if (fixedIv != null) {
+                cipher.init(mode, key, parameterSpec(fixedIv, 0));
+            } else if (mode == ENCRYPT_MODE) {
+                // GCM refuses re-use of key and IV, start with a throw away random IV
+                final byte[] iv = new byte[ivLength];
+                random.nextBytes(iv);
+                cipher.init(mode, key, parameterSpec(iv, 0), random);
+            }
+            return cipher;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private AlgorithmParameterSpec parameterSpec(byte[] iv, int offset) {
+        final int length = (fixedIv != null) ? fixedIv.length : ivLength;
+        return gcm ? new GCMParameterSpec(GCM_TAG_BITS, iv, offset, length) : new IvParameterSpec(iv, offset, length);
+    }
+
+    /**
+     * Builder for {@link JceCipherEngine}.
+     */
+    public static final class Builder {
+
+        private String transformation = DEFAULT_TRANSFORMATION;
+        private Provider provider;
+        private String providerName;
+        private SecretKey key;
+        private byte[] fixedIv;
+        private int ivLength = DEFAULT_IV_LENGTH;
+
+        private Builder() {
+        }
+
+        /**
+         * @param transformation cipher transformation, e.g. "AES/GCM/NoPadding"
+         * @return this builder
+         */
+        public Builder transformation(String transformation) {
+            this.transformation = Objects.requireNonNull(transformation);
+            return this;
+        }
+
+        /**
+         * @param provider provider instance, overrides {@link #provider(String)}
+         * @return this builder
+         */
+        public Builder provider(Provider provider) {
+            this.provider = provider;
+            return this;
+        }
+
+        /**
+         * @param providerName name of a registered provider, null for the default provider
+         * @return this builder
+         */
+        public Builder provider(String providerName) {
+            this.providerName = providerName;
+            return this;
+        }
+
+        /**
+         * @param key secret key
+         * @return this builder
+         */
+        public Builder key(SecretKey key) {
+            this.key = key;
+            return this;
+        }
+
+        /**
+         * Use a random IV of given length for every message, stored in front of the cipher text. This is the default
+         * with 12 bytes.
+         *
+         * @param ivLength length of the IV in bytes
+         * @return this builder
+         */
+        public Builder randomIv(int ivLength) {
+            if (ivLength <= 0) {
+                throw new IllegalArgumentException("IV length must be positive: " + ivLength);
+            }
+            this.ivLength = ivLength;
+            this.fixedIv = null;
+            return this;
+        }
+
+        /**
+         * Use given IV for every message, nothing is stored with the cipher text.
+         *
+         * @param iv fixed IV
+         * @return this builder
+         */
+        public Builder fixedIv(byte[] iv) {
+            this.fixedIv = iv.clone();
+            return this;
+        }
+
+        /**
+         * @return new engine
+         * @throws IllegalStateException if a fixed IV is combined with GCM
+         * @throws RuntimeException      if cipher can not be created or initialized with given key
+         */
+        public JceCipherEngine build() {
+            if (fixedIv != null && transformation.toUpperCase().contains("/GCM/")) {
+                throw new IllegalStateException("GCM requires a random IV per message");
+            }
+            return new JceCipherEngine(this);
+        }
+    }
+}
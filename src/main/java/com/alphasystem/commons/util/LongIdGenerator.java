@@ -0,0 +1,128 @@
+package com.alphasystem.commons.util;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 64-bit variant of {@link IdGenerator}.
+ *
+ * Each thread reserves a block of sequence numbers from the shared counter with a single atomic operation and hands
+ * them out locally, so threads only touch the shared cache line once per block. Sequence numbers are masked with a
+ * reversible permutation, ids are therefore unique as long as the 64-bit counter does not wrap. Ids are not ordered,
+ * neither globally nor per thread.
+ */
+public final class LongIdGenerator {
+
+    static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private static final int ROUNDS = 4;
+    private static final int[] ROUND_KEYS = {0x9e3779b9, 0x7f4a7c15, 0xf39cc060, 0x5ced1e11};
+
+    private static final LongIdGenerator instance = new LongIdGenerator(new Random().nextLong(), DEFAULT_BLOCK_SIZE);
+
+    /**
+     * Returns singleton instance.
+     *
+     * @return Singleton instance
+     */
+    public static LongIdGenerator getInstance() {
+        return instance;
+    }
+
+    /**
+     * Four round Feistel network over the two 32-bit halves, using {@link IdGenerator#mix(int)} as round function.
+     */
+    static long mix64(final long in) {
+        int l = (int) (in >>> 32);
+        int r = (int) in;
+        for (int i = 0; i < ROUNDS; i++) {
+            final int t = l ^ IdGenerator.mix(r ^ ROUND_KEYS[i]);
+            l = r;
+            r = t;
+        }
+        return ((long) l << 32) | (r & 0xffffffffL);
+    }
+
+    /* Inverse of mix64. */
+    static long unmix64(final long in) {
+        int l = (int) (in >>> 32);
+        int r = (int) in;
+        for (int i = ROUNDS - 1; i >= 0; i--) {
+            final int t = r ^ IdGenerator.mix(l ^ ROUND_KEYS[i]);
+            r = l;
+            l = t;
+        }
+        return ((long) l << 32) | (r & 0xffffffffL);
+    }
+
+    private final AtomicLong gen;
+    private final int blockSize;
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    /**
+     * @param seed      initial value of the sequence
+     * @param blockSize number of sequence numbers reserved by a thread at a time
+     */
+    LongIdGenerator(long seed, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Invalid block size: " + blockSize);
+        }
+        this.gen = new AtomicLong(seed);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Produce the next identifier.
+     *
+     * @return Next identifier.
+     */
+    public long next() {
+        final Block block = blocks.get();
+        if (block.next == block.limit) {
+            block.reserve(gen.getAndAdd(blockSize), blockSize);
+        }
+        return mix64(block.next++);
+    }
+
+    /**
+     * Produce <code>count</code> identifiers, suitable for bulk inserts.
+     *
+     * @param count number of identifiers to produce
+     * @param out   array to store identifiers starting at index <code>0</code>
+     */
+    public void nextIds(int count, long[] out) {
+        if (count < 0 || count > out.length) {
+            throw new IndexOutOfBoundsException("count: " + count + ", length: " + out.length);
+        }
+        int index = 0;
+        if (count >= blockSize) {
+            // large request: reserve the whole range directly and keep the thread's block for small requests
+            long seq = gen.getAndAdd(count);
+            while (index < count) {
+                out[index++] = mix64(seq++);
+            }
+            return;
+        }
+        final Block block = blocks.get();
+        while (index < count) {
+            if (block.next == block.limit) {
+                block.reserve(gen.getAndAdd(blockSize), blockSize);
+            }
+            final int n = (int) Math.min(count - index, block.limit - block.next);
+            for (int i = 0; i < n; i++) {
+                out[index++] = mix64(block.next++);
+            }
+        }
+    }
+
+    private static final class Block {
+
+        private long next;
+        private long limit;
+
+        private void reserve(long start, int size) {
+            next = start;
+            limit = start + size;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.alphasystem.commons.util;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Parallel directory processing behind
+ * {@link AppUtil#processDirectoryParallel(Path, Function, Executor, int, boolean)}.
+ *
+ * The calling thread walks the tree lazily, see {@link DirectoryWalker}, and hands files to the executor. At most
+ * <code>4 * parallelism</code> files are in flight, so memory apart from the results does not grow with the size of
+ * the tree. The first failure stops the walk, files submitted but not started yet are skipped.
+ */
+final class ParallelDirectoryProcessor<R> {
+
+    private final Function<Path, R> consumer;
+    private final Executor executor;
+    private final int window;
+
+    ParallelDirectoryProcessor(Function<Path, R> consumer, Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+        this.consumer = consumer;
+        this.executor = executor;
+        this.window = parallelism * 4;
+    }
+
+    List<R> process(Path dir, boolean ordered) throws InterruptedException {
+        return ordered ? processOrdered(dir) : processUnordered(dir);
+    }
+
+    /**
+     * Results are collected from the head of the window, in walk order.
+     */
+    private List<R> processOrdered(Path dir) {
+        final List<R> results = new ArrayList<>();
+        final Deque<CompletableFuture<R>> pending = new ArrayDeque<>();
+        try {
+            final DirectoryWalker walker = new DirectoryWalker(dir);
+            while (walker.hasNext()) {
+                if (pending.size() == window) {
+                    results.add(pending.removeFirst().join());
+                }
+                final Path path = walker.next();
+                pending.add(CompletableFuture.supplyAsync(() -> consumer.apply(path), executor));
+            }
+            while (!pending.isEmpty()) {
+                results.add(pending.removeFirst().join());
+            }
+        } catch (RuntimeException ex) {
+            for (CompletableFuture<R> future : pending) {
+                future.cancel(false);
+            }
+            throw unwrap(ex);
+        }
+        return results;
+    }
+
+    /**
+     * Results are collected as tasks complete, a permit per task bounds the window.
+     */
+    private List<R> processUnordered(Path dir) throws InterruptedException {
+        final List<R> results = new ArrayList<>();
+        final Semaphore permits = new Semaphore(window);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            final DirectoryWalker walker = new DirectoryWalker(dir);
+            while (failure.get() == null && walker.hasNext()) {
+                final Path path = walker.next();
+                permits.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            if (failure.get() != null) {
+                                return;
+                            }
+                            final R result = consumer.apply(path);
+                            synchronized (results) {
+                                results.add(result);
+                            }
+                        } catch (RuntimeException | Error ex) {
+                            failure.compareAndSet(null, ex);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RuntimeException ex) {
+                    permits.release();
+                    throw ex;
+                }
+            }
+        } catch (RuntimeException ex) {
+            failure.compareAndSet(null, ex);
+        } finally {
+            // wait for tasks in flight
+            permits.acquire(window);
+        }
+        final Throwable ex = failure.get();
+        if (ex instanceof Error error) {
+            throw error;
+        }
+        if (ex != null) {
+            throw (RuntimeException) ex;
+        }
+        return results;
+    }
+
+    private static RuntimeException unwrap(RuntimeException ex) {
+        return ex instanceof CompletionException && ex.getCause() instanceof RuntimeException cause ? cause : ex;
+    }
+}
@@ -0,0 +1,220 @@
+package com.alphasystem.commons.util;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Parallel zip archiver behind {@link ZipUtil#archiveFileParallel(File[], File, int, ZipCompression)}.
+ *
+ * Entries are deflated concurrently into temporary buffers, spilling to temporary files above
+ * {@link #IN_MEMORY_LIMIT}, and written into the archive as raw entries in the order given. At most
+ * <code>4 * threads</code> entries are compressed ahead of the writer, which bounds memory use.
+ */
+final class ParallelZipArchiver {
+
+    static final int IN_MEMORY_LIMIT = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String ZIP_DIR_SEPARATOR = "/";
+
+    private final int threads;
+    private final ZipCompression compression;
+
+    ParallelZipArchiver(int threads, ZipCompression compression) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        this.threads = threads;
+        this.compression = compression;
+    }
+
+    void archive(List<ZipFileEntry> entries, File archiveFile) throws IOException {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "zip-archiver-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Deque<Future<CompressedEntry>> pending = new ArrayDeque<>();
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(archiveFile)) {
+            final Iterator<ZipFileEntry> iterator = entries.iterator();
+            final int window = threads * 4;
+            while (iterator.hasNext() && pending.size() < window) {
+                pending.add(submit(executor, iterator.next()));
+            }
+            while (!pending.isEmpty()) {
+                try (CompressedEntry compressed = await(pending.removeFirst())) {
+                    if (iterator.hasNext()) {
+                        pending.add(submit(executor, iterator.next()));
+                    }
+                    compressed.writeTo(zos);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            for (Future<CompressedEntry> future : pending) {
+                discard(future);
+            }
+        }
+    }
+
+    private Future<CompressedEntry> submit(ExecutorService executor, ZipFileEntry entry) {
+        return executor.submit(() -> compress(entry));
+    }
+
+    private CompressedEntry compress(ZipFileEntry zipFileEntry) throws IOException {
+        final ZipArchiveEntry entry = new ZipArchiveEntry(zipFileEntry.name());
+        final File file = zipFileEntry.file();
+        entry.setTime(file.lastModified());
+        if (zipFileEntry.name().endsWith(ZIP_DIR_SEPARATOR)) {
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(0);
+            entry.setCompressedSize(0);
+            entry.setCrc(0);
+            return new CompressedEntry(entry, new SpillOutputStream());
+        }
+
+        final boolean stored = compression.methodFor(zipFileEntry.name()) == ZipEntry.STORED;
+        final Deflater deflater = new Deflater(compression.getLevel(), true);
+        final CRC32 crc = new CRC32();
+        final SpillOutputStream out = new SpillOutputStream();
+        try (InputStream in = new FileInputStream(file)) {
+            final OutputStream target = stored ? out : new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, len);
+                target.write(buffer, 0, len);
+                size += len;
+            }
+            if (target instanceof DeflaterOutputStream dos) {
+                dos.finish();
+            }
+            out.close();
+            entry.setMethod(stored ? ZipEntry.STORED : ZipEntry.DEFLATED);
+            entry.setCrc(crc.getValue());
+            entry.setSize(size);
+            entry.setCompressedSize(stored ? size : deflater.getBytesWritten());
+        } catch (IOException | RuntimeException ex) {
+            out.discard();
+            throw ex;
+        } finally {
+            deflater.end();
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            // archive was aborted while compressing, nobody will pick up the result
+            out.discard();
+            throw new InterruptedIOException("Compression of " + zipFileEntry.name() + " cancelled");
+        }
+        return new CompressedEntry(entry, out);
+    }
+
+    private static CompressedEntry await(Future<CompressedEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Archiving interrupted");
+        }
+    }
+
+    private static void discard(Future<CompressedEntry> future) {
+        if (!future.cancel(true) && future.isDone()) {
+            try {
+                future.get().close();
+            } catch (Exception ex) {
+                // failed or already cleaned up
+            }
+        }
+    }
+
+    private record CompressedEntry(ZipArchiveEntry entry, SpillOutputStream data) implements Closeable {
+
+        private void writeTo(ZipArchiveOutputStream zos) throws IOException {
+            try (InputStream in = data.toInputStream()) {
+                zos.addRawArchiveEntry(entry, in);
+            }
+        }
+
+        @Override
+        public void close() {
+            data.discard();
+        }
+    }
+
+    /**
+     * Keeps data in memory up to {@link #IN_MEMORY_LIMIT} bytes, moves it to a temporary file beyond that.
+     */
+    private static final class SpillOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path file;
+        private OutputStream fileOut;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileOut == null && memory.size() + len > IN_MEMORY_LIMIT) {
+                file = Files.createTempFile("zip-entry-", ".deflate");
+                fileOut = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+                memory.writeTo(fileOut);
+                memory.reset();
+            }
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+            } else {
+                memory.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+            }
+        }
+
+        private InputStream toInputStream() throws IOException {
+            return file == null ? new ByteArrayInputStream(memory.toByteArray()) : Files.newInputStream(file);
+        }
+
+        private void discard() {
+            try {
+                close();
+                if (file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException ex) {
+                // best effort
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.alphasystem.commons.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Parallel zip extractor behind {@link ZipUtil#extractZipFileParallel(File, String, int)}.
+ *
+ * Directories are created up front, file entries are then pulled from a shared index by worker threads, each
+ * reading its entry through the shared {@link ZipFile}, which supports concurrent streams.
+ */
+final class ParallelZipExtractor {
+
+    private final int threads;
+
+    ParallelZipExtractor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    ZipExtractResult extract(File outDir, String pathname) throws IOException {
+        final long start = System.nanoTime();
+        final Path root = outDir.toPath().toAbsolutePath().normalize();
+        final Map<String, ZipEntry> extracted = new ConcurrentHashMap<>();
+        final Map<String, Exception> failures = new ConcurrentHashMap<>();
+        final LongAdder bytes = new LongAdder();
+        try (ZipFile zipFile = new ZipFile(pathname)) {
+            Files.createDirectories(root);
+            final List<ZipEntry> files = new ArrayList<>();
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                try {
+                    final Path target = resolve(root, entry);
+                    if (entry.isDirectory()) {
+                        Files.createDirectories(target);
+                        extracted.put(entry.getName(), entry);
+                    } else {
+                        Files.createDirectories(target.getParent());
+                        files.add(entry);
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    failures.put(entry.getName(), ex);
+                }
+            }
+
+            final AtomicInteger next = new AtomicInteger();
+            final Runnable worker = () -> {
+                int index;
+                while ((index = next.getAndIncrement()) < files.size()) {
+                    final ZipEntry entry = files.get(index);
+                    try {
+                        bytes.add(extract(zipFile, entry, resolve(root, entry)));
+                        extracted.put(entry.getName(), entry);
+                    } catch (IOException | RuntimeException ex) {
+                        failures.put(entry.getName(), ex);
+                    }
+                }
+            };
+            final int workers = Math.min(threads, files.size());
+            final List<Thread> started = new ArrayList<>(workers);
+            for (int i = 1; i < workers; i++) {
+                final Thread thread = new Thread(worker, "zip-extractor-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                started.add(thread);
+            }
+            // calling thread takes part instead of idling
+            worker.run();
+            for (Thread thread : started) {
+                join(thread);
+            }
+        }
+        return new ZipExtractResult(extracted, failures, bytes.sum(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static long extract(ZipFile zipFile, ZipEntry entry, Path target) throws IOException {
+        final long written;
+        try (InputStream in = zipFile.getInputStream(entry);
+             FileChannel channel = FileChannel.open(target, WRITE, CREATE, TRUNCATE_EXISTING)) {
+            final long size = entry.getSize();
+            if (size > 0) {
+                // preallocate, lets the file system lay the file out in one go
+                channel.write(ByteBuffer.allocate(1), size - 1);
+                channel.position(0);
+            }
+            final OutputStream out = Channels.newOutputStream(channel);
+            written = FileUtil.copy(in, out).bytes();
+            if (written < channel.size()) {
+                channel.truncate(written);
+            }
+        }
+        if (entry.getTime() != -1) {
+            Files.setLastModifiedTime(target, FileTime.fromMillis(entry.getTime()));
+        }
+        return written;
+    }
+
+    /**
+     * Resolve target of given entry, rejecting entries escaping the output directory ("zip slip").
+     */
+    private static Path resolve(Path root, ZipEntry entry) throws IOException {
+        final Path target = root.resolve(entry.getName()).normalize();
+        if (!target.startsWith(root) || target.equals(root)) {
+            throw new IOException("Entry is outside of the target directory: " + entry.getName());
+        }
+        return target;
+    }
+
+    private static void join(Thread thread) throws IOException {
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Extraction interrupted");
+        }
+    }
+}
@@ -2,16 +2,20 @@ package com.alphasystem.commons.util;
 
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
-import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.security.Security;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static com.alphasystem.commons.util.Base64.decode;
 import static com.alphasystem.commons.util.Base64.encode;
-import static javax.crypto.Cipher.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
+ * Reversible encryption of passwords. The static methods without a {@link CipherEngine} use the legacy DES/CTR
+ * engine, so that values stored by earlier versions can still be decrypted. New values should be encrypted with an
+ * engine such as {@link CipherEngine#aesGcm(javax.crypto.SecretKey)}.
+ *
  * @author sali
  * 
  */
@@ -19,29 +23,25 @@ public class PasswordHasher {
 
 	private static final String ALGORITHM = "DES/CTR/NoPadding";
 
-	private static final Cipher cipher;
-
 	private static final byte[] IV_BYTES = new byte[] { 0x07, 0x06, 0x05, 0x04,
 			0x03, 0x02, 0x01, 0x00 };
 
-	private static final IvParameterSpec ivSpec;
-
-	private static final SecretKeySpec key;
-
 	private static final byte[] KEY_BYTES = new byte[] { 0x01, 0x23, 0x45,
 			0x67, (byte) 0x89, (byte) 0xab, (byte) 0xcd, (byte) 0xef };
 
 	private static final String PROVIDER = "BC";
 
+	private static final int PARALLEL_BATCH_SIZE = 1024;
+
+	/*
+	 * Ciphers are kept per thread by the engine, see JceCipherEngine.
+	 */
+	static final CipherEngine LEGACY_ENGINE;
+
 	static {
 		Security.addProvider(new BouncyCastleProvider());
-		key = new SecretKeySpec(KEY_BYTES, "DES");
-		ivSpec = new IvParameterSpec(IV_BYTES);
-		try {
-			cipher = getInstance(ALGORITHM, PROVIDER);
-		} catch (Exception e) {
-			throw new RuntimeException(e.getMessage(), e);
-		}
+		LEGACY_ENGINE = JceCipherEngine.builder().transformation(ALGORITHM).provider(PROVIDER)
+				.key(new SecretKeySpec(KEY_BYTES, "DES")).fixedIv(IV_BYTES).build();
 	}
 
 	/**
@@ -53,19 +53,41 @@ public class PasswordHasher {
 	 */
 	public static String decrypt(String inputString, int length) {
 		byte[] cipherText = decode(inputString);
-		try {
-			cipher.init(DECRYPT_MODE, key, ivSpec);
-			byte[] plainText = new byte[cipher.getOutputSize(length)];
-			int ptLength = cipher.update(cipherText, 0, length, plainText, 0);
-			ptLength += cipher.doFinal(plainText, ptLength);
-			String s = new String(plainText);
-			if (plainText.length > ptLength) {
-				s = s.substring(0, s.length() - 1);
-			}
-			return s;
-		} catch (Exception e) {
-			throw new RuntimeException(e.getMessage(), e);
+		byte[] plainText = new byte[LEGACY_ENGINE.decryptedLength(length)];
+		int ptLength = decrypt(cipherText, 0, length, plainText);
+		String s = new String(plainText);
+		if (plainText.length > ptLength) {
+			s = s.substring(0, s.length() - 1);
 		}
+		return s;
+	}
+
+	/**
+	 * Decrypt given range of cipher text into given array, starting at index zero.
+	 *
+	 * @param input cipher text
+	 * @param offset start offset in <code>input</code>
+	 * @param length number of bytes to decrypt
+	 * @param output destination array, same length as input is enough for this cipher
+	 * @return number of bytes written
+	 */
+	public static int decrypt(byte[] input, int offset, int length, byte[] output) {
+		return LEGACY_ENGINE.decrypt(input, offset, length, output);
+	}
+
+	/**
+	 * Decrypt string produced by {@link #encrypt(String, CipherEngine)}.
+	 *
+	 * @param inputString input string to decrypt
+	 * @param engine engine to decrypt with
+	 * @return Decrypted password
+	 */
+	public static String decrypt(String inputString, CipherEngine engine) {
+		final byte[] cipherText = decode(inputString);
+		if (cipherText == null) {
+			throw new IllegalArgumentException("Input is not valid Base64");
+		}
+		return new String(engine.decrypt(cipherText), UTF_8);
 	}
 
 	/**
@@ -75,15 +97,56 @@ public class PasswordHasher {
 	 * @return Encrypted string
 	 */
 	public static String encrypt(String inputString) {
-		byte[] input = inputString.getBytes();
-		try {
-			cipher.init(ENCRYPT_MODE, key, ivSpec);
-			byte[] cipherText = new byte[cipher.getOutputSize(input.length)];
-			int ctLength = cipher.update(input, 0, input.length, cipherText, 0);
-			cipher.doFinal(cipherText, ctLength);
-			return encode(cipherText);
-		} catch (Exception e) {
-			throw new RuntimeException(e.getMessage(), e);
-		}
+		return encode(LEGACY_ENGINE.encrypt(inputString.getBytes()));
+	}
+
+	/**
+	 * Encrypt given range into given array, starting at index zero.
+	 *
+	 * @param input plain text
+	 * @param offset start offset in <code>input</code>
+	 * @param length number of bytes to encrypt
+	 * @param output destination array, same length as input is enough for this cipher
+	 * @return number of bytes written
+	 */
+	public static int encrypt(byte[] input, int offset, int length, byte[] output) {
+		return LEGACY_ENGINE.encrypt(input, offset, length, output);
+	}
+
+	/**
+	 * Encrypt given string with given engine. String is encoded as UTF-8, result is Base64 without line breaks.
+	 *
+	 * @param inputString input string to encrypt
+	 * @param engine engine to encrypt with
+	 * @return Encrypted string
+	 */
+	public static String encrypt(String inputString, CipherEngine engine) {
+		return encode(engine.encrypt(inputString.getBytes(UTF_8)), false);
+	}
+
+	/**
+	 * Encrypt given strings the same way as {@link #encrypt(String)}.
+	 *
+	 * @param inputStrings input strings to encrypt
+	 * @return Encrypted strings, in the same order
+	 */
+	public static List<String> encryptAll(List<String> inputStrings) {
+		return batch(inputStrings).map(PasswordHasher::encrypt).toList();
+	}
+
+	/**
+	 * Encrypt given strings the same way as {@link #encrypt(String, CipherEngine)}, meant for bulk re-encryption.
+	 * Large batches are spread over the common fork join pool, each worker thread uses its own cipher.
+	 *
+	 * @param inputStrings input strings to encrypt
+	 * @param engine engine to encrypt with
+	 * @return Encrypted strings, in the same order
+	 */
+	public static List<String> encryptAll(List<String> inputStrings, CipherEngine engine) {
+		return batch(inputStrings).map(inputString -> encrypt(inputString, engine)).toList();
+	}
+
+	private static Stream<String> batch(List<String> inputStrings) {
+		return (inputStrings.size() >= PARALLEL_BATCH_SIZE) ? inputStrings.parallelStream() : inputStrings.stream();
 	}
 }
@@ -0,0 +1,284 @@
+package com.alphasystem.commons.util;
+
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.generators.SCrypt;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * One way password hashing with PBKDF2 (JDK), scrypt or Argon2id (BouncyCastle).
+ *
+ * Hashes are encoded in the self describing PHC string format, e.g.
+ * <code>$argon2id$v=19$m=19456,t=2,p=1$&lt;salt&gt;$&lt;hash&gt;</code>, so {@link #verify(char[], String)} can check
+ * a hash produced with any supported algorithm and cost, and {@link #needsRehash(String)} tells whether a stored
+ * hash was produced with different settings than this instance.
+ *
+ * Instances are immutable and thread safe. Hashing is CPU (and for Argon2 / scrypt memory) heavy by design, see
+ * {@link PasswordVerifier} to run it off request threads.
+ */
+public final class PasswordHashing {
+
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final java.util.Base64.Encoder ENCODER = java.util.Base64.getEncoder().withoutPadding();
+    private static final java.util.Base64.Decoder DECODER = java.util.Base64.getDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Algorithm algorithm;
+    private final Map<String, Integer> parameters;
+    private final String prefix;
+
+    private PasswordHashing(Algorithm algorithm, Map<String, Integer> parameters) {
+        this.algorithm = algorithm;
+        this.parameters = Map.copyOf(parameters);
+        this.prefix = algorithm.prefix(parameters);
+        algorithm.validate(this.parameters);
+    }
+
+    /**
+     * @return Argon2id with OWASP recommended minimum cost (19 MiB memory, 2 iterations, 1 lane)
+     */
+    public static PasswordHashing defaults() {
+        return argon2id(19 * 1024, 2, 1);
+    }
+
+    /**
+     * PBKDF2 with HMAC-SHA256.
+     *
+     * @param iterations number of iterations, OWASP recommends 600,000
+     * @return PBKDF2 hashing
+     */
+    public static PasswordHashing pbkdf2(int iterations) {
+        return new PasswordHashing(Algorithm.PBKDF2_SHA256, Map.of("i", iterations));
+    }
+
+    /**
+     * scrypt.
+     *
+     * @param logN        log2 of CPU / memory cost parameter N, e.g. 17
+     * @param blockSize   block size r, e.g. 8
+     * @param parallelism parallelization parameter p, e.g. 1
+     * @return scrypt hashing
+     */
+    public static PasswordHashing scrypt(int logN, int blockSize, int parallelism) {
+        return new PasswordHashing(Algorithm.SCRYPT, parameters("ln", logN, "r", blockSize, "p", parallelism));
+    }
+
+    /**
+     * Argon2id, version 1.3.
+     *
+     * @param memoryKiB   memory cost in KiB
+     * @param iterations  number of passes
+     * @param parallelism number of lanes
+     * @return Argon2id hashing
+     */
+    public static PasswordHashing argon2id(int memoryKiB, int iterations, int parallelism) {
+        return new PasswordHashing(Algorithm.ARGON2ID, parameters("m", memoryKiB, "t", iterations, "p", parallelism));
+    }
+
+    /**
+     * Hash given password with a random salt.
+     *
+     * @param password password to hash, not modified
+     * @return encoded hash
+     */
+    public String hash(char[] password) {
+        final byte[] salt = new byte[SALT_LENGTH];
+        RANDOM.nextBytes(salt);
+        final byte[] hash = algorithm.derive(password, salt, parameters, HASH_LENGTH);
+        return prefix + "$" + ENCODER.encodeToString(salt) + "$" + ENCODER.encodeToString(hash);
+    }
+
+    /**
+     * Verify given password against given encoded hash, using algorithm and cost stored in the hash.
+     *
+     * @param password    password to verify, not modified
+     * @param encodedHash hash produced by {@link #hash(char[])} of any instance
+     * @return true if password matches
+     * @throws IllegalArgumentException if hash is malformed or uses an unsupported algorithm
+     */
+    public boolean verify(char[] password, String encodedHash) {
+        final ParsedHash parsed = ParsedHash.parse(encodedHash);
+        final byte[] actual = parsed.algorithm.derive(password, parsed.salt, parsed.parameters, parsed.hash.length);
+        return MessageDigest.isEqual(parsed.hash, actual);
+    }
+
+    /**
+     * Checks whether given hash should be replaced with a new one on next successful login, because it was produced
+     * with a different algorithm, cost or lengths than this instance uses.
+     *
+     * @param encodedHash stored hash
+     * @return true if hash should be recomputed, malformed hashes always need a rehash
+     */
+    public boolean needsRehash(String encodedHash) {
+        try {
+            final ParsedHash parsed = ParsedHash.parse(encodedHash);
+            return parsed.algorithm != algorithm || !parsed.parameters.equals(parameters)
+                    || parsed.salt.length != SALT_LENGTH || parsed.hash.length != HASH_LENGTH;
+        } catch (IllegalArgumentException ex) {
+            return true;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return prefix;
+    }
+
+    private static Map<String, Integer> parameters(String k1, int v1, String k2, int v2, String k3, int v3) {
+        final Map<String, Integer> parameters = new HashMap<>();
+        parameters.put(k1, v1);
+        parameters.put(k2, v2);
+        parameters.put(k3, v3);
+        return parameters;
+    }
+
+    private static byte[] toBytes(char[] password) {
+        final ByteBuffer buffer = UTF_8.encode(CharBuffer.wrap(password));
+        final byte[] bytes = Arrays.copyOfRange(buffer.array(), buffer.position(), buffer.limit());
+        Arrays.fill(buffer.array(), (byte) 0);
+        return bytes;
+    }
+
+    /**
+     * Supported algorithms.
+     */
+    public enum Algorithm {
+
+        PBKDF2_SHA256("pbkdf2-sha256", "i") {
+            @Override
+            byte[] derive(char[] password, byte[] salt, Map<String, Integer> parameters, int length) {
+                final PBEKeySpec spec = new PBEKeySpec(password, salt, parameters.get("i"), length * 8);
+                try {
+                    return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                } finally {
+                    spec.clearPassword();
+                }
+            }
+        },
+
+        SCRYPT("scrypt", "ln", "r", "p") {
+            @Override
+            byte[] derive(char[] password, byte[] salt, Map<String, Integer> parameters, int length) {
+                final byte[] bytes = toBytes(password);
+                try {
+                    return SCrypt.generate(bytes, salt, 1 << parameters.get("ln"), parameters.get("r"),
+                            parameters.get("p"), length);
+                } finally {
+                    Arrays.fill(bytes, (byte) 0);
+                }
+            }
+        },
+
+        ARGON2ID("argon2id", "m", "t", "p") {
+            @Override
+            byte[] derive(char[] password, byte[] salt, Map<String, Integer> parameters, int length) {
+                final Argon2Parameters argon2Parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                        .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                        .withMemoryAsKB(parameters.get("m"))
+                        .withIterations(parameters.get("t"))
+                        .withParallelism(parameters.get("p"))
+                        .withSalt(salt)
+                        .build();
+                final Argon2BytesGenerator generator = new Argon2BytesGenerator();
+                generator.init(argon2Parameters);
+                final byte[] hash = new byte[length];
+                generator.generateBytes(password, hash);
+                return hash;
+            }
+
+            @Override
+            String prefix(Map<String, Integer> parameters) {
+                return "$" + id + "$v=19" + super.prefix(parameters).substring(id.length() + 1);
+            }
+        };
+
+        final String id;
+        private final String[] names;
+
+        Algorithm(String id, String... names) {
+            this.id = id;
+            this.names = names;
+        }
+
+        abstract byte[] derive(char[] password, byte[] salt, Map<String, Integer> parameters, int length);
+
+        String prefix(Map<String, Integer> parameters) {
+            final StringBuilder builder = new StringBuilder("$").append(id).append('$');
+            for (int i = 0; i < names.length; i++) {
+                builder.append((i == 0) ? "" : ",").append(names[i]).append('=').append(parameters.get(names[i]));
+            }
+            return builder.toString();
+        }
+
+        void validate(Map<String, Integer> parameters) {
+            if (!parameters.keySet().equals(Set.of(names))) {
+                throw new IllegalArgumentException(String.format("Expected parameters %s for %s, got %s",
+                        Arrays.toString(names), id, parameters.keySet()));
+            }
+            for (Map.Entry<String, Integer> entry : parameters.entrySet()) {
+                if (entry.getValue() <= 0) {
+                    throw new IllegalArgumentException(String.format("Parameter %s of %s must be positive", entry.getKey(), id));
+                }
+            }
+        }
+
+        static Algorithm of(String id) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.id.equals(id)) {
+                    return algorithm;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported algorithm: " + id);
+        }
+    }
+
+    private record ParsedHash(Algorithm algorithm, Map<String, Integer> parameters, byte[] salt, byte[] hash) {
+
+        static ParsedHash parse(String encodedHash) {
+            if (encodedHash == null || !encodedHash.startsWith("$")) {
+                throw new IllegalArgumentException("Not a PHC formatted hash");
+            }
+            final String[] parts = encodedHash.split("\\$");
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Malformed hash");
+            }
+            final Algorithm algorithm = Algorithm.of(parts[1]);
+            int index = 2;
+            if (algorithm == Algorithm.ARGON2ID) {
+                if (parts.length != 6 || !"v=19".equals(parts[index++])) {
+                    throw new IllegalArgumentException("Unsupported Argon2 version or malformed hash");
+                }
+            } else if (parts.length != 5) {
+                throw new IllegalArgumentException("Malformed hash");
+            }
+            final Map<String, Integer> parameters = new HashMap<>();
+            try {
+                for (String parameter : parts[index].split(",")) {
+                    final int separator = parameter.indexOf('=');
+                    parameters.put(parameter.substring(0, separator), Integer.parseInt(parameter.substring(separator + 1)));
+                }
+                algorithm.validate(parameters);
+                return new ParsedHash(algorithm, Map.copyOf(parameters), DECODER.decode(parts[index + 1]),
+                        DECODER.decode(parts[index + 2]));
+            } catch (IndexOutOfBoundsException | NumberFormatException ex) {
+                throw new IllegalArgumentException("Malformed hash parameters: " + parts[index], ex);
+            }
+        }
+    }
+}
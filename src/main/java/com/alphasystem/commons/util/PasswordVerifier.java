@@ -0,0 +1,128 @@
+package com.alphasystem.commons.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@link PasswordHashing} work on a dedicated, bounded pool so that bursts of logins can not starve request
+ * threads.
+ *
+ * The pool has a fixed number of threads and a bounded queue. When the queue is full new work is not queued or run
+ * on the caller, the returned future fails with {@link RejectedExecutionException} so the caller can shed load
+ * (e.g. answer with "429 Too Many Requests").
+ *
+ * Password arrays are read on a pool thread, callers must not clear them before the returned future completes.
+ */
+public final class PasswordVerifier implements AutoCloseable {
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final PasswordHashing hashing;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates verifier with one thread per available processor and a queue of 64 requests per thread.
+     *
+     * @param hashing settings used to hash new passwords and to detect hashes needing rehash
+     */
+    public PasswordVerifier(PasswordHashing hashing) {
+        this(hashing, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors() * 64);
+    }
+
+    /**
+     * @param hashing       settings used to hash new passwords and to detect hashes needing rehash
+     * @param threads       number of worker threads
+     * @param queueCapacity maximum number of requests waiting for a thread
+     */
+    public PasswordVerifier(PasswordHashing hashing, int threads, int queueCapacity) {
+        this.hashing = hashing;
+        final ThreadFactory threadFactory = new DaemonThreadFactory("password-verifier-" + POOL_NUMBER.incrementAndGet());
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Verify given password on the pool.
+     *
+     * @param password    password to verify
+     * @param encodedHash stored hash
+     * @return future completed with verification result, failed with {@link RejectedExecutionException} if pool is
+     * saturated or {@link IllegalArgumentException} if hash is malformed
+     */
+    public CompletableFuture<Boolean> verify(char[] password, String encodedHash) {
+        return submit(() -> hashing.verify(password, encodedHash));
+    }
+
+    /**
+     * Hash given password on the pool.
+     *
+     * @param password password to hash
+     * @return future completed with encoded hash, failed with {@link RejectedExecutionException} if pool is saturated
+     */
+    public CompletableFuture<String> hash(char[] password) {
+        return submit(() -> hashing.hash(password));
+    }
+
+    /**
+     * @param encodedHash stored hash
+     * @return true if given hash should be recomputed after successful verification
+     * @see PasswordHashing#needsRehash(String)
+     */
+    public boolean needsRehash(String encodedHash) {
+        return hashing.needsRehash(encodedHash);
+    }
+
+    /**
+     * @return number of requests waiting for a thread
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops accepting new requests, queued requests are still processed.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.get());
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        private DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, prefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
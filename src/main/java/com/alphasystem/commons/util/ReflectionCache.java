@@ -0,0 +1,155 @@
+package com.alphasystem.commons.util;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cached accessors behind {@link AppUtil#invokeMethod(Object, String)} and {@link AppUtil#initObject}.
+ *
+ * Lookups are cached per class in a {@link ClassValue}, which does not keep classes from being unloaded, and failed
+ * lookups are cached as well. Getters are compiled into {@link Function}s through {@link LambdaMetafactory}, which
+ * the JIT inlines like a direct call, for classes visible to this class' loader. Other getters and all constructors
+ * are invoked through {@link MethodHandle}s.
+ */
+final class ReflectionCache {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private static final ClassValue<Accessors> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Accessors computeValue(Class<?> type) {
+            return new Accessors();
+        }
+    };
+
+    private ReflectionCache() {
+    }
+
+    /**
+     * @param type       class declaring or inheriting the method
+     * @param methodName name of a public no argument method
+     * @return accessor invoking given method, empty if there is no such method or it is not accessible
+     */
+    static Optional<Function<Object, Object>> getter(Class<?> type, String methodName) {
+        return ACCESSORS.get(type).getters.computeIfAbsent(methodName, name -> createGetter(type, name));
+    }
+
+    /**
+     * @param type           class to instantiate
+     * @param parameterTypes parameter types of a public constructor, <code>null</code> for none
+     * @return handle of type <code>(Object[])Object</code> taking the arguments as array
+     * @throws ReflectiveOperationException if there is no such constructor or it is not accessible, cached
+     */
+    static MethodHandle constructor(Class<?> type, Class<?>[] parameterTypes) throws ReflectiveOperationException {
+        final List<Class<?>> key = parameterTypes == null ? List.of() : Arrays.asList(parameterTypes.clone());
+        final Object constructor = ACCESSORS.get(type).constructors.computeIfAbsent(key,
+                types -> createConstructor(type, types));
+        // a new exception per call, cached instances would share stack traces and suppressed exceptions
+        if (constructor instanceof IllegalAccessException ex) {
+            throw new IllegalAccessException(ex.getMessage());
+        }
+        if (constructor instanceof NoSuchMethodException ex) {
+            throw new NoSuchMethodException(ex.getMessage());
+        }
+        return (MethodHandle) constructor;
+    }
+
+    private static Optional<Function<Object, Object>> createGetter(Class<?> type, String methodName) {
+        final Method method;
+        final MethodHandle handle;
+        try {
+            method = type.getMethod(methodName);
+            handle = LOOKUP.unreflect(method);
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException ex) {
+            return Optional.empty();
+        }
+        if (method.getReturnType() != void.class && !throwsChecked(method) && isVisible(method.getDeclaringClass())
+                && isVisible(method.getReturnType())) {
+            try {
+                final CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(Function.class), GETTER_TYPE.erase(), handle,
+                        MethodType.methodType(method.getReturnType(), method.getDeclaringClass()).wrap());
+                @SuppressWarnings("unchecked")
+                final Function<Object, Object> getter = (Function<Object, Object>) site.getTarget().invoke();
+                return Optional.of(getter);
+            } catch (LambdaConversionException ex) {
+                // fall back to the method handle
+            } catch (Throwable ex) {
+                throw new IllegalStateException("Unable to create accessor for " + method, ex);
+            }
+        }
+        // void methods return null, checked exceptions are wrapped
+        final MethodHandle generic = handle.asType(GETTER_TYPE);
+        return Optional.of(target -> {
+            try {
+                return generic.invokeExact(target);
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new UndeclaredThrowableException(ex);
+            }
+        });
+    }
+
+    private static Object createConstructor(Class<?> type, List<Class<?>> parameterTypes) {
+        try {
+            final MethodHandle handle = LOOKUP.unreflectConstructor(
+                    type.getConstructor(parameterTypes.toArray(new Class<?>[0])));
+            return handle.asSpreader(Object[].class, parameterTypes.size()).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            return ex;
+        } catch (SecurityException ex) {
+            return new IllegalAccessException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Generated accessors would rethrow checked exceptions as is, undeclared by {@link Function#apply(Object)}.
+     */
+    private static boolean throwsChecked(Method method) {
+        for (Class<?> exceptionType : method.getExceptionTypes()) {
+            if (!RuntimeException.class.isAssignableFrom(exceptionType) && !Error.class.isAssignableFrom(exceptionType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generated accessors refer to classes by name, which must resolve to the same class from this class' loader.
+     */
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, ReflectionCache.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    private static final class Accessors {
+
+        private final Map<String, Optional<Function<Object, Object>>> getters = new ConcurrentHashMap<>();
+        // MethodHandle or the NoSuchMethodException / IllegalAccessException of a failed lookup
+        private final Map<List<Class<?>>, Object> constructors = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,352 @@
+package com.alphasystem.commons.util;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Time ordered id generator, unique across JVMs as long as every JVM uses a distinct node id.
+ *
+ * <p>{@link #next()} produces Snowflake style 64-bit ids laid out as <code>[timestamp | node id | sequence]</code>,
+ * by default 41 bits of milliseconds since {@link #DEFAULT_EPOCH}, 10 bits of node id and 12 bits of sequence.
+ * {@link #nextUuid()} and {@link #nextUlid()} produce 128-bit UUIDv7 values (48 bits of Unix milliseconds, a 16 bit
+ * sequence, 10 bits of node id and 48 random bits), as UUID or as 26 character ULID string.</p>
+ *
+ * <p>Ids of one generator are strictly increasing. The sequence is advanced with a CAS loop. Once the sequence of the
+ * current millisecond is exhausted, or the clock moves backwards, the generator continues on the following
+ * (borrowed) millisecond. If the generator gets ahead of the clock by more than
+ * {@link Builder#maxClockDrift(Duration)}, callers wait for the clock to catch up. The default layout therefore
+ * sustains about 4 million ids per second and node, use {@link Builder#layout(int, int)} with more sequence bits for
+ * higher rates.</p>
+ */
+public final class TimeBasedIdGenerator {
+
+    /** Default epoch, 2020-01-01T00:00:00Z. */
+    public static final long DEFAULT_EPOCH = 1577836800000L;
+
+    /** System property holding node id of this JVM. */
+    public static final String NODE_ID_PROPERTY = "com.alphasystem.nodeId";
+
+    /** Environment variable holding node id of this JVM, used if system property is not set. */
+    public static final String NODE_ID_ENV = "ALPHASYSTEM_NODE_ID";
+
+    /** Length of a ULID string. */
+    public static final int ULID_LENGTH = 26;
+
+    private static final int UUID_SEQUENCE_BITS = 16;
+    private static final long UUID_NODE_MASK = 0x3ffL;
+    private static final long UUID_RANDOM_MASK = 0xffffffffffffL;
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static volatile TimeBasedIdGenerator instance;
+
+    /**
+     * Returns generator with default settings, node id is taken from {@link #NODE_ID_PROPERTY} or
+     * {@link #NODE_ID_ENV}.
+     *
+     * @return Singleton instance
+     */
+    public static TimeBasedIdGenerator getInstance() {
+        TimeBasedIdGenerator result = instance;
+        if (result == null) {
+            synchronized (TimeBasedIdGenerator.class) {
+                result = instance;
+                if (result == null) {
+                    result = instance = builder().build();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return new builder with default settings
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Format given UUID as ULID (Crockford base 32), UUIDv7 values keep their ordering.
+     *
+     * @param uuid UUID to format
+     * @return 26 character ULID string
+     */
+    public static String formatUlid(UUID uuid) {
+        final char[] chars = new char[ULID_LENGTH];
+        formatUlid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), chars, 0);
+        return new String(chars);
+    }
+
+    private static void formatUlid(long msb, long lsb, char[] dst, int off) {
+        // 26 characters encode 130 bits, the first character only carries the 3 highest bits
+        for (int i = 0; i < ULID_LENGTH; i++) {
+            final int shift = 125 - 5 * i;
+            final long bits;
+            if (shift >= 64) {
+                bits = msb >>> (shift - 64);
+            } else if (shift > 59) {
+                bits = (msb << (64 - shift)) | (lsb >>> shift);
+            } else {
+                bits = lsb >>> shift;
+            }
+            dst[off + i] = CROCKFORD[(int) (bits & 0x1f)];
+        }
+    }
+
+    private final int nodeId;
+    private final int sequenceBits;
+    private final int timestampShift;
+    private final long sequenceMask;
+    private final long maxTimestamp;
+    private final long epoch;
+    private final long maxDrift;
+    private final LongSupplier clock;
+    // (milliseconds since epoch << sequenceBits) | sequence
+    private final AtomicLong state = new AtomicLong();
+    // (milliseconds since Unix epoch << 16) | sequence
+    private final AtomicLong uuidState = new AtomicLong();
+
+    private TimeBasedIdGenerator(Builder builder) {
+        this.nodeId = builder.nodeId;
+        this.sequenceBits = builder.sequenceBits;
+        this.timestampShift = builder.nodeBits + builder.sequenceBits;
+        this.sequenceMask = (1L << builder.sequenceBits) - 1;
+        this.maxTimestamp = (1L << (63 - timestampShift)) - 1;
+        this.epoch = builder.epoch;
+        this.maxDrift = builder.maxDrift;
+        this.clock = builder.clock;
+    }
+
+    /**
+     * @return node id of this generator
+     */
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Produce next 64-bit id.
+     *
+     * @return Next identifier, greater than any identifier previously returned by this generator
+     * @throws IllegalStateException if clock is before epoch or timestamp no longer fits
+     */
+    public long next() {
+        final long value = advance(state, epoch, sequenceBits);
+        final long timestamp = value >>> sequenceBits;
+        if (timestamp > maxTimestamp) {
+            throw new IllegalStateException("Timestamp overflow, epoch " + Instant.ofEpochMilli(epoch) + " is too old");
+        }
+        return (timestamp << timestampShift) | ((long) nodeId << sequenceBits) | (value & sequenceMask);
+    }
+
+    /**
+     * Produce next UUIDv7, only the lower 10 bits of node id are used.
+     *
+     * @return Next UUID, greater than any UUID previously returned by this generator when compared as unsigned
+     * 128-bit value
+     */
+    public UUID nextUuid() {
+        final long value = advance(uuidState, 0L, UUID_SEQUENCE_BITS);
+        return new UUID(uuidMsb(value), uuidLsb(value));
+    }
+
+    /**
+     * Produce next UUIDv7 formatted as ULID.
+     *
+     * @return Next ULID
+     * @see #nextUuid()
+     */
+    public String nextUlid() {
+        final char[] chars = new char[ULID_LENGTH];
+        nextUlid(chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Write next ULID into given array without allocating.
+     *
+     * @param dst array to write to, must have room for {@link #ULID_LENGTH} characters
+     * @param off offset in <code>dst</code>
+     * @return offset after last written character
+     */
+    public int nextUlid(char[] dst, int off) {
+        if (off < 0 || off > dst.length - ULID_LENGTH) {
+            throw new IndexOutOfBoundsException("offset: " + off + ", length: " + dst.length);
+        }
+        final long value = advance(uuidState, 0L, UUID_SEQUENCE_BITS);
+        formatUlid(uuidMsb(value), uuidLsb(value), dst, off);
+        return off + ULID_LENGTH;
+    }
+
+    /**
+     * @param id id produced by {@link #next()}
+     * @return creation time of given id
+     */
+    public Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> timestampShift) + epoch);
+    }
+
+    /**
+     * @param id id produced by {@link #next()}
+     * @return node id of given id
+     */
+    public int nodeIdOf(long id) {
+        return (int) ((id >>> sequenceBits) & ((1L << (timestampShift - sequenceBits)) - 1));
+    }
+
+    /**
+     * @param id id produced by {@link #next()}
+     * @return sequence of given id
+     */
+    public int sequenceOf(long id) {
+        return (int) (id & sequenceMask);
+    }
+
+    private long uuidMsb(long value) {
+        final long sequence = value & 0xffff;
+        // 48 bits milliseconds, version 7, upper 12 bits of sequence
+        return ((value >>> UUID_SEQUENCE_BITS) << 16) | 0x7000L | (sequence >>> 4);
+    }
+
+    private long uuidLsb(long value) {
+        final long sequence = value & 0xffff;
+        // variant 0b10, lower 4 bits of sequence, node id, random
+        return 0x8000000000000000L | ((sequence & 0xf) << 58) | ((nodeId & UUID_NODE_MASK) << 48)
+                | (ThreadLocalRandom.current().nextLong() & UUID_RANDOM_MASK);
+    }
+
+    private long advance(AtomicLong state, long offset, int sequenceBits) {
+        while (true) {
+            final long now = clock.getAsLong() - offset;
+            if (now < 0) {
+                throw new IllegalStateException("Clock is before epoch: " + Instant.ofEpochMilli(now + offset));
+            }
+            final long previous = state.get();
+            final long previousTimestamp = previous >>> sequenceBits;
+            final long next;
+            if (now > previousTimestamp) {
+                next = now << sequenceBits;
+            } else if (previousTimestamp - now < maxDrift) {
+                // same millisecond, exhausted sequence or clock regression: carry into the next millisecond
+                next = previous + 1;
+            } else {
+                LockSupport.parkNanos(100_000L);
+                continue;
+            }
+            if (state.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Builder of {@link TimeBasedIdGenerator}, defaults are 10 node bits, 12 sequence bits and {@link #DEFAULT_EPOCH}.
+     */
+    public static final class Builder {
+
+        private int nodeId = -1;
+        private int nodeBits = 10;
+        private int sequenceBits = 12;
+        private long epoch = DEFAULT_EPOCH;
+        private long maxDrift = 1000L;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        private Builder() {
+        }
+
+        /**
+         * Node id of this generator, if not set it is read from {@link #NODE_ID_PROPERTY} or {@link #NODE_ID_ENV},
+         * falling back to a random value.
+         *
+         * @param nodeId node id, between <code>0</code> and <code>2^nodeBits - 1</code>
+         * @return this builder
+         */
+        public Builder nodeId(int nodeId) {
+            if (nodeId < 0) {
+                throw new IllegalArgumentException("Invalid node id: " + nodeId);
+            }
+            this.nodeId = nodeId;
+            return this;
+        }
+
+        /**
+         * Bit layout of 64-bit ids, remaining bits hold the timestamp. More sequence bits allow more ids per
+         * millisecond before the generator has to borrow from the next millisecond.
+         *
+         * @param nodeBits     number of bits for node id, default is 10
+         * @param sequenceBits number of bits for sequence, default is 12
+         * @return this builder
+         */
+        public Builder layout(int nodeBits, int sequenceBits) {
+            if (nodeBits < 0 || sequenceBits < 1 || 63 - nodeBits - sequenceBits < 32) {
+                throw new IllegalArgumentException("Invalid layout: " + nodeBits + "/" + sequenceBits);
+            }
+            this.nodeBits = nodeBits;
+            this.sequenceBits = sequenceBits;
+            return this;
+        }
+
+        /**
+         * @param epoch start of time for 64-bit ids, ids are sortable for <code>2^timestampBits</code> milliseconds
+         *              from this instant
+         * @return this builder
+         */
+        public Builder epoch(Instant epoch) {
+            this.epoch = epoch.toEpochMilli();
+            return this;
+        }
+
+        /**
+         * @param maxDrift how far the generator may run ahead of the clock before callers have to wait
+         * @return this builder
+         */
+        public Builder maxClockDrift(Duration maxDrift) {
+            this.maxDrift = Math.max(1L, maxDrift.toMillis());
+            return this;
+        }
+
+        /**
+         * @param clock source of current time in milliseconds since Unix epoch
+         * @return this builder
+         */
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * @return new generator
+         * @throws IllegalArgumentException if node id does not fit in node bits
+         */
+        public TimeBasedIdGenerator build() {
+            if (nodeId < 0) {
+                nodeId = defaultNodeId();
+            }
+            if (nodeId >= 1 << nodeBits) {
+                throw new IllegalArgumentException("Node id " + nodeId + " does not fit in " + nodeBits + " bits");
+            }
+            return new TimeBasedIdGenerator(this);
+        }
+
+        private int defaultNodeId() {
+            String value = System.getProperty(NODE_ID_PROPERTY);
+            if (value == null) {
+                value = System.getenv(NODE_ID_ENV);
+            }
+            if (value != null) {
+                try {
+                    return Integer.parseInt(value.trim());
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Invalid node id: " + value, ex);
+                }
+            }
+            return new SecureRandom().nextInt(1 << nodeBits);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.alphasystem.commons.util;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * Incremental archive update behind {@link ZipUtil#updateArchive(File[], File)}.
+ *
+ * Every file is compared with the entry of the same name in the existing archive. Entries whose size matches and
+ * whose modification time matches within the two seconds resolution of zip timestamps are copied raw, without
+ * recompression. If only the modification time differs, the CRC of the file decides. Everything else is compressed
+ * again. The new archive is written next to the old one and moved over it, so readers never see a partial archive.
+ */
+final class ZipArchiveUpdater {
+
+    private static final long TIME_RESOLUTION = 2000L;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ZipCompression compression;
+
+    ZipArchiveUpdater(ZipCompression compression) {
+        this.compression = compression;
+    }
+
+    ZipUpdateResult update(List<ZipFileEntry> entries, File archiveFile) throws IOException {
+        final long start = System.nanoTime();
+        final Path archive = archiveFile.toPath().toAbsolutePath();
+        final Path temp = createTemp(archive);
+        int added = 0;
+        int updated = 0;
+        int unchanged = 0;
+        int removed = 0;
+        try (ZipFile existing = Files.exists(archive) ? ZipFile.builder().setPath(archive).get() : null;
+             ZipArchiveOutputStream zos = new ZipArchiveOutputStream(temp)) {
+            final Set<String> names = new HashSet<>();
+            for (ZipFileEntry zipFileEntry : entries) {
+                names.add(zipFileEntry.name());
+                final ZipArchiveEntry previous = existing == null ? null : existing.getEntry(zipFileEntry.name());
+                if (previous == null) {
+                    write(zos, zipFileEntry);
+                    added++;
+                } else if (isUnchanged(previous, zipFileEntry.file())) {
+                    final ZipArchiveEntry copy = new ZipArchiveEntry(previous);
+                    copy.setTime(zipFileEntry.file().lastModified());
+                    try (InputStream raw = existing.getRawInputStream(previous)) {
+                        zos.addRawArchiveEntry(copy, raw);
+                    }
+                    unchanged++;
+                } else {
+                    write(zos, zipFileEntry);
+                    updated++;
+                }
+            }
+            if (existing != null) {
+                for (ZipArchiveEntry entry : Collections.list(existing.getEntries())) {
+                    if (!names.contains(entry.getName())) {
+                        removed++;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+        // an open zip file would keep the archive from being replaced on Windows
+        ZipFileCache.evict(archive);
+        try {
+            Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new ZipUpdateResult(added, updated, unchanged, removed, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /*
+     * Files.createTempFile would create the file owner only and the archive would lose its permissions when replaced,
+     * the temp file is created with default permissions and takes over those of an existing archive instead.
+     */
+    private static Path createTemp(Path archive) throws IOException {
+        final String prefix = archive.getFileName().toString() + ".";
+        Path temp = null;
+        while (temp == null) {
+            final String name = prefix + Long.toUnsignedString(RANDOM.nextLong()) + ".tmp";
+            try {
+                temp = Files.createFile(archive.resolveSibling(name));
+            } catch (FileAlreadyExistsException ex) {
+                // try another name
+            }
+        }
+        final boolean posix = Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class);
+        if (posix && Files.exists(archive)) {
+            try {
+                Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(archive));
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(temp);
+                throw ex;
+            }
+        }
+        return temp;
+    }
+
+    private boolean isUnchanged(ZipArchiveEntry entry, File file) throws IOException {
+        if (entry.isDirectory() || file.isDirectory()) {
+            return entry.isDirectory() && file.isDirectory();
+        }
+        if (entry.getSize() != file.length()) {
+            return false;
+        }
+        if (Math.abs(entry.getTime() - file.lastModified()) < TIME_RESOLUTION) {
+            return true;
+        }
+        // touched but possibly identical, reading is much cheaper than compressing
+        final CRC32 crc = new CRC32();
+        try (InputStream in = new FileInputStream(file)) {
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, len);
+            }
+        }
+        return crc.getValue() == entry.getCrc();
+    }
+
+    private void write(ZipArchiveOutputStream zos, ZipFileEntry zipFileEntry) throws IOException {
+        final File file = zipFileEntry.file();
+        final ZipArchiveEntry entry = new ZipArchiveEntry(zipFileEntry.name());
+        entry.setTime(file.lastModified());
+        if (file.isDirectory()) {
+            zos.putArchiveEntry(entry);
+            zos.closeArchiveEntry();
+            return;
+        }
+        // output is seekable, sizes and CRC of stored entries are filled in afterwards
+        entry.setMethod(compression.methodFor(zipFileEntry.name()));
+        entry.setSize(file.length());
+        zos.setLevel(compression.getLevel());
+        zos.putArchiveEntry(entry);
+        try (InputStream in = new FileInputStream(file)) {
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                zos.write(buffer, 0, len);
+            }
+        }
+        zos.closeArchiveEntry();
+    }
+}
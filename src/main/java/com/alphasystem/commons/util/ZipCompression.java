@@ -0,0 +1,113 @@
+package com.alphasystem.commons.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Compression settings of zip archives, deflate level and names of files which are stored without compression
+ * because their content is compressed already.
+ *
+ * <pre>
+ * ZipUtil.archiveFile(files, archive, ZipCompression.defaults().withLevel(Deflater.BEST_SPEED));
+ * </pre>
+ */
+public final class ZipCompression {
+
+    /** Extensions of formats which do not benefit from another round of compression. */
+    public static final Set<String> COMPRESSED_EXTENSIONS = Set.of("7z", "avif", "br", "bz2", "docx", "ear", "gif",
+            "gz", "heic", "jar", "jpeg", "jpg", "lz4", "mkv", "mov", "mp3", "mp4", "ogg", "png", "pptx", "rar", "tgz",
+            "war", "webm", "webp", "woff", "woff2", "xlsx", "xz", "zip", "zst");
+
+    private static final ZipCompression DEFAULTS = new ZipCompression(Deflater.DEFAULT_COMPRESSION,
+            COMPRESSED_EXTENSIONS);
+
+    /**
+     * @return default deflate level, files with one of {@link #COMPRESSED_EXTENSIONS} are stored
+     */
+    public static ZipCompression defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @param level deflate level for all entries, <code>0</code> stores every entry
+     * @return settings deflating every file with given level
+     */
+    public static ZipCompression deflate(int level) {
+        return new ZipCompression(level, Set.of());
+    }
+
+    /**
+     * @return settings storing every file without compression
+     */
+    public static ZipCompression stored() {
+        return deflate(Deflater.NO_COMPRESSION);
+    }
+
+    private final int level;
+    private final Set<String> storedExtensions;
+
+    private ZipCompression(int level, Set<String> storedExtensions) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.level = level;
+        this.storedExtensions = Set.copyOf(storedExtensions);
+    }
+
+    /**
+     * @param level deflate level, <code>-1</code> to <code>9</code>
+     * @return copy of these settings with given level
+     */
+    public ZipCompression withLevel(int level) {
+        return new ZipCompression(level, storedExtensions);
+    }
+
+    /**
+     * @param extensions extensions, without dot and case insensitive, of files to store without compression
+     * @return copy of these settings with given extensions
+     */
+    public ZipCompression withStoredExtensions(String... extensions) {
+        return new ZipCompression(level, Arrays.stream(extensions).map(ext -> ext.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet()));
+    }
+
+    /**
+     * @return deflate level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return extensions of files stored without compression
+     */
+    public Set<String> getStoredExtensions() {
+        return new TreeSet<>(storedExtensions);
+    }
+
+    /**
+     * @param name entry name
+     * @return {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+     */
+    public int methodFor(String name) {
+        if (level == Deflater.NO_COMPRESSION) {
+            return ZipEntry.STORED;
+        }
+        final int dot = name.lastIndexOf('.');
+        if (dot >= 0 && dot > name.lastIndexOf('/')
+                && storedExtensions.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT))) {
+            return ZipEntry.STORED;
+        }
+        return ZipEntry.DEFLATED;
+    }
+
+    @Override
+    public String toString() {
+        return "ZipCompression{level=" + level + ", storedExtensions=" + getStoredExtensions() + "}";
+    }
+}
@@ -0,0 +1,24 @@
+package com.alphasystem.commons.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+
+/**
+ * Result of {@link ZipUtil#extractZipFileParallel(java.io.File, String, int)}.
+ *
+ * @param entries  entries extracted successfully, by entry name
+ * @param failures entries which could not be extracted, by entry name
+ * @param bytes    number of bytes written
+ * @param elapsed  time taken by the extraction
+ */
+public record ZipExtractResult(Map<String, ZipEntry> entries, Map<String, Exception> failures, long bytes,
+                               Duration elapsed) {
+
+    /**
+     * @return true if every entry was extracted
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+}
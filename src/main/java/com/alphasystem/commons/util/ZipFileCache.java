@@ -0,0 +1,140 @@
+package com.alphasystem.commons.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+/**
+ * Open {@link ZipFile}s behind {@link ZipUtil#extractFile(String, String, java.io.File)}, so repeated extraction from
+ * the same archive parses its central directory once.
+ *
+ * At most {@value #MAX_CACHED} archives are kept open, the least recently used one is closed beyond that. An archive
+ * whose modification time or size changed is opened again. As with JarFileSystems, the cache holds a reference of its
+ * own and a zip file is closed once the cache and all handles have released it, so eviction never closes a zip file
+ * still being read. Unlike a memory mapped file, an archive rewritten in place fails reads with a
+ * {@link java.util.zip.ZipException} instead of crashing.
+ */
+final class ZipFileCache {
+
+    static final int MAX_CACHED = 8;
+
+    private static final Map<Path, Entry> ZIP_FILES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Entry> eldest) {
+            if (size() > MAX_CACHED) {
+                release(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private ZipFileCache() {
+    }
+
+    /**
+     * @param archive zip file
+     * @return handle to the open zip file, must be closed when done
+     * @throws IOException if the archive can not be opened
+     */
+    static Handle acquire(Path archive) throws IOException {
+        final Path key = archive.toAbsolutePath().normalize();
+        final BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        synchronized (ZIP_FILES) {
+            Entry entry = ZIP_FILES.get(key);
+            if (entry != null && (entry.lastModified != lastModified || entry.size != attributes.size())) {
+                ZIP_FILES.remove(key);
+                release(entry);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(new ZipFile(key.toFile()), lastModified, attributes.size());
+                ZIP_FILES.put(key, entry);
+            }
+            entry.references++;
+            return new Handle(entry);
+        }
+    }
+
+    /**
+     * Drop the reference the cache holds on given archive, e.g. before it is replaced, the zip file is closed once
+     * all handles are closed.
+     *
+     * @param archive zip file
+     */
+    static void evict(Path archive) {
+        synchronized (ZIP_FILES) {
+            final Entry entry = ZIP_FILES.remove(archive.toAbsolutePath().normalize());
+            if (entry != null) {
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * @return number of open archives held by the cache
+     */
+    static int size() {
+        synchronized (ZIP_FILES) {
+            return ZIP_FILES.size();
+        }
+    }
+
+    private static void release(Entry entry) {
+        if (--entry.references == 0) {
+            try {
+                entry.zipFile.close();
+            } catch (IOException ex) {
+                // nothing to do, file was opened read only
+            }
+        }
+    }
+
+    /**
+     * Reference to an open zip file.
+     */
+    static final class Handle implements Closeable {
+
+        private final Entry entry;
+        private boolean closed;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        ZipFile getZipFile() {
+            return entry.zipFile;
+        }
+
+        @Override
+        public void close() {
+            synchronized (ZIP_FILES) {
+                if (!closed) {
+                    closed = true;
+                    release(entry);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final ZipFile zipFile;
+        private final long lastModified;
+        private final long size;
+        // the cache holds one reference while the entry is in the map
+        private int references = 1;
+
+        private Entry(ZipFile zipFile, long lastModified, long size) {
+            this.zipFile = zipFile;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+    }
+}
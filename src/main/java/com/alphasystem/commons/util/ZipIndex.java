@@ -0,0 +1,551 @@
+package com.alphasystem.commons.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Memory mapped index over the central directory of a zip file, for repeated lookup of single entries.
+ *
+ * <p>The central directory is parsed once into an off-heap open addressing table, lookups by name hash into the
+ * table and compare against the name bytes in the mapped central directory, without allocating per entry objects.
+ * Archives up to 2 GB are mapped as a whole, larger archives map the data of an entry on access. ZIP64 archives are
+ * supported.</p>
+ *
+ * <p>{@link #of(Path)} returns a shared instance per file, reopened when size or modification time of the file
+ * change. At most {@value #MAX_CACHED} instances are shared, the least recently used one is dropped beyond that.
+ * Shared instances may be in use by other callers, so {@link #close()} does nothing on them and a dropped instance
+ * stays usable. Instances are thread safe.</p>
+ *
+ * <p>Mapped memory is released by the garbage collector once an index and all buffers handed out by it are
+ * unreachable, until then the disk space of a deleted archive is not freed and, on Windows, the file can not be
+ * deleted or replaced. Archives up to 2 GB need no open file handle once indexed, larger ones keep it open until
+ * {@link #close()} or, for shared instances, until they are unreachable.</p>
+ *
+ * <p>Indexed archives must be replaced atomically (written to a new file which is then moved over the old one), like
+ * any memory mapped file. Rewriting an archive in place makes reads through existing instances fail with
+ * {@link InternalError}. Use {@link java.util.zip.ZipFile} for archives which may be rewritten in place.</p>
+ *
+ * <p>Entry names flagged as UTF-8 (general purpose bit 11) are decoded as UTF-8, other names with the charset given
+ * to {@link #open(Path, Charset)}, UTF-8 by default as with {@link java.util.zip.ZipFile}. Encrypted entries can not
+ * be read.</p>
+ */
+public final class ZipIndex implements Closeable {
+
+    /**
+     * Metadata of an entry.
+     *
+     * @param name           entry name
+     * @param method         {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+     * @param crc            CRC-32 of uncompressed data
+     * @param compressedSize size of compressed data
+     * @param size           size of uncompressed data
+     */
+    public record Entry(String name, int method, long crc, long compressedSize, long size) {
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    /**
+     * Maximum number of instances shared through {@link #of(Path)}.
+     */
+    public static final int MAX_CACHED = 16;
+
+    private static final Map<Path, ZipIndex> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, ZipIndex> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int EOCD_LENGTH = 22;
+    private static final int CEN_HEADER_LENGTH = 46;
+    private static final int LOC_HEADER_LENGTH = 30;
+    private static final int MAX_COMMENT_LENGTH = 0xffff;
+    private static final long UINT32_MAX = 0xffffffffL;
+    private static final int FLAG_ENCRYPTED = 1;
+    private static final int FLAG_UTF8 = 1 << 11;
+
+    // off-heap entry record: central directory offset, name hash, method, crc, compressed size, size, local header
+    private static final int REC_CEN = 0;
+    private static final int REC_HASH = 4;
+    private static final int REC_METHOD = 8;
+    private static final int REC_CRC = 12;
+    private static final int REC_COMPRESSED_SIZE = 16;
+    private static final int REC_SIZE = 24;
+    private static final int REC_LOCAL_HEADER = 32;
+    private static final int RECORD_LENGTH = 40;
+
+    /**
+     * Returns shared index of given file, parsing it on first use or if the file changed since it was last parsed.
+     *
+     * @param path zip file
+     * @return index of given file
+     * @throws IOException if the file can not be read or is not a zip file
+     */
+    public static ZipIndex of(Path path) throws IOException {
+        final Path key = path.toAbsolutePath().normalize();
+        final BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        final long size = attributes.size();
+        synchronized (CACHE) {
+            final ZipIndex existing = CACHE.get(key);
+            if (existing != null && existing.lastModified == lastModified && existing.fileSize == size) {
+                return existing;
+            }
+            final ZipIndex index = open(key);
+            index.shared = true;
+            CACHE.put(key, index);
+            return index;
+        }
+    }
+
+    /**
+     * Drop cached index of given file, if any. Callers still holding it can keep using it.
+     *
+     * @param path zip file
+     */
+    public static void invalidate(Path path) {
+        synchronized (CACHE) {
+            CACHE.remove(path.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * @return number of shared instances
+     */
+    static int cacheSize() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * Parse given file, not shared with other callers.
+     *
+     * @param path zip file
+     * @return index of given file
+     * @throws IOException if the file can not be read or is not a zip file
+     */
+    public static ZipIndex open(Path path) throws IOException {
+        return open(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse given file, not shared with other callers.
+     *
+     * @param path    zip file
+     * @param charset charset of entry names not flagged as UTF-8, e.g. <code>IBM437</code> for legacy archives
+     * @return index of given file
+     * @throws IOException if the file can not be read or is not a zip file
+     */
+    public static ZipIndex open(Path path, Charset charset) throws IOException {
+        final FileChannel channel = FileChannel.open(path, READ);
+        try {
+            return new ZipIndex(path, channel, charset);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    private final Path path;
+    private final Charset charset;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long lastModified;
+    private final MappedByteBuffer file;
+    private final MappedByteBuffer cen;
+    private final ByteBuffer records;
+    private final IntBuffer table;
+    private final int mask;
+    private final int count;
+    private volatile boolean shared;
+
+    private ZipIndex(Path path, FileChannel channel, Charset charset) throws IOException {
+        this.path = path;
+        this.charset = charset;
+        this.channel = channel;
+        this.lastModified = Files.getLastModifiedTime(path).toMillis();
+        this.fileSize = channel.size();
+        this.file = fileSize <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize) : null;
+
+        final long[] directory = readEndOfCentralDirectory();
+        final long total = directory[0];
+        final long cenSize = directory[1];
+        final long cenOffset = directory[2];
+        if (total > Integer.MAX_VALUE / RECORD_LENGTH || cenSize > Integer.MAX_VALUE
+                || cenOffset + cenSize > fileSize) {
+            throw new ZipException("Invalid central directory in " + path);
+        }
+        this.count = (int) total;
+        this.cen = channel.map(FileChannel.MapMode.READ_ONLY, cenOffset, cenSize);
+        this.cen.order(ByteOrder.LITTLE_ENDIAN);
+        this.records = ByteBuffer.allocateDirect(Math.max(1, count * RECORD_LENGTH));
+        final int capacity = Integer.highestOneBit(Math.max(2, count * 2 - 1)) << 1;
+        this.table = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+        this.mask = capacity - 1;
+        parseCentralDirectory();
+        if (file != null) {
+            // everything needed is mapped
+            channel.close();
+        }
+    }
+
+    /**
+     * @return path of the zip file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param name entry name
+     * @return true if archive contains given entry
+     */
+    public boolean contains(String name) {
+        return find(name) >= 0;
+    }
+
+    /**
+     * @param name entry name
+     * @return metadata of given entry, null if not found
+     */
+    public Entry getEntry(String name) {
+        final int index = find(name);
+        if (index < 0) {
+            return null;
+        }
+        final int rec = index * RECORD_LENGTH;
+        return new Entry(name, records.getInt(rec + REC_METHOD), records.getInt(rec + REC_CRC) & UINT32_MAX,
+                records.getLong(rec + REC_COMPRESSED_SIZE), records.getLong(rec + REC_SIZE));
+    }
+
+    /**
+     * Read-only view of the data of a {@link ZipEntry#STORED stored} entry, backed by the mapped file without
+     * copying.
+     *
+     * @param name entry name
+     * @return content of given entry, null if not found
+     * @throws ZipException if entry is compressed or encrypted
+     * @throws IOException  if entry can not be read
+     */
+    public ByteBuffer slice(String name) throws IOException {
+        final int index = find(name);
+        if (index < 0) {
+            return null;
+        }
+        final int rec = index * RECORD_LENGTH;
+        if (records.getInt(rec + REC_METHOD) != ZipEntry.STORED) {
+            throw new ZipException("Entry " + name + " is compressed and can not be sliced");
+        }
+        return data(rec, name);
+    }
+
+    /**
+     * @param name entry name
+     * @return uncompressed content of given entry, null if not found
+     * @throws ZipException if compression method is not supported or entry is encrypted
+     * @throws IOException  if entry can not be read
+     */
+    public InputStream getInputStream(String name) throws IOException {
+        final int index = find(name);
+        if (index < 0) {
+            return null;
+        }
+        final int rec = index * RECORD_LENGTH;
+        final ByteBuffer data = data(rec, name);
+        final int method = records.getInt(rec + REC_METHOD);
+        if (method == ZipEntry.STORED) {
+            return new BufferInputStream(data);
+        }
+        if (method == ZipEntry.DEFLATED) {
+            final Inflater inflater = new Inflater(true);
+            return new InflaterInputStream(new BufferInputStream(data), inflater, 8192) {
+
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    if (!closed) {
+                        closed = true;
+                        inflater.end();
+                        super.close();
+                    }
+                }
+            };
+        }
+        throw new ZipException("Unsupported compression method " + method + " of entry " + name);
+    }
+
+    /**
+     * Close underlying file if still open, buffers already handed out stay valid. Does nothing on instances returned
+     * by {@link #of(Path)}, which other callers may be using.
+     */
+    @Override
+    public void close() {
+        if (shared) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            // nothing to do, file was opened read only
+        }
+    }
+
+    private int find(String name) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return find(name.getBytes(StandardCharsets.UTF_8), 0, 0);
+        }
+        final int index = find(name.getBytes(StandardCharsets.UTF_8), FLAG_UTF8, FLAG_UTF8);
+        if (index >= 0) {
+            return index;
+        }
+        try {
+            final ByteBuffer encoded = charset.newEncoder().encode(CharBuffer.wrap(name));
+            final byte[] bytes = new byte[encoded.remaining()];
+            encoded.get(bytes);
+            return find(bytes, FLAG_UTF8, 0);
+        } catch (CharacterCodingException ex) {
+            // not representable in the charset of the archive
+            return -1;
+        }
+    }
+
+    /**
+     * @param bytes    encoded name
+     * @param flagMask flags to compare
+     * @param flags    expected value of the masked flags
+     */
+    private int find(byte[] bytes, int flagMask, int flags) {
+        final int hash = hash(bytes);
+        int slot = spread(hash) & mask;
+        while (true) {
+            final int value = table.get(slot);
+            if (value == 0) {
+                return -1;
+            }
+            final int index = value - 1;
+            final int rec = index * RECORD_LENGTH;
+            final int cenPosition = records.getInt(rec + REC_CEN);
+            if (records.getInt(rec + REC_HASH) == hash && (flags(cenPosition) & flagMask) == flags
+                    && nameEquals(cenPosition, bytes)) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int flags(int cenPosition) {
+        return cen.getShort(cenPosition + 8) & 0xffff;
+    }
+
+    private boolean nameEquals(int cenPosition, byte[] bytes) {
+        if ((cen.getShort(cenPosition + 28) & 0xffff) != bytes.length) {
+            return false;
+        }
+        final int start = cenPosition + CEN_HEADER_LENGTH;
+        for (int i = 0; i < bytes.length; i++) {
+            if (cen.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer data(int rec, String name) throws IOException {
+        if ((flags(records.getInt(rec + REC_CEN)) & FLAG_ENCRYPTED) != 0) {
+            throw new ZipException("Entry " + name + " is encrypted");
+        }
+        final long localHeader = records.getLong(rec + REC_LOCAL_HEADER);
+        final long compressedSize = records.getLong(rec + REC_COMPRESSED_SIZE);
+        final ByteBuffer header = read(localHeader, LOC_HEADER_LENGTH);
+        if (header.getInt(0) != LOC_SIGNATURE) {
+            throw new ZipException("Invalid local header of entry " + name + " in " + path);
+        }
+        final long start = localHeader + LOC_HEADER_LENGTH + (header.getShort(26) & 0xffff)
+                + (header.getShort(28) & 0xffff);
+        if (start + compressedSize > fileSize || compressedSize > Integer.MAX_VALUE) {
+            throw new ZipException("Invalid size of entry " + name + " in " + path);
+        }
+        return read(start, (int) compressedSize).asReadOnlyBuffer();
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        if (file != null) {
+            return file.slice((int) position, length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return total entries, central directory size and offset
+     */
+    private long[] readEndOfCentralDirectory() throws IOException {
+        final int tailLength = (int) Math.min(fileSize, EOCD_LENGTH + MAX_COMMENT_LENGTH);
+        final long tailStart = fileSize - tailLength;
+        final ByteBuffer tail = read(tailStart, tailLength);
+        for (int pos = tailLength - EOCD_LENGTH; pos >= 0; pos--) {
+            if (tail.getInt(pos) != EOCD_SIGNATURE
+                    || pos + EOCD_LENGTH + (tail.getShort(pos + 20) & 0xffff) != tailLength) {
+                continue;
+            }
+            long total = tail.getShort(pos + 10) & 0xffff;
+            long cenSize = tail.getInt(pos + 12) & UINT32_MAX;
+            long cenOffset = tail.getInt(pos + 16) & UINT32_MAX;
+            final long locatorPosition = tailStart + pos - 20;
+            if (locatorPosition >= 0 && read(locatorPosition, 20).getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+                final long zip64Position = read(locatorPosition, 20).getLong(8);
+                final ByteBuffer zip64 = read(zip64Position, 56);
+                if (zip64.getInt(0) != ZIP64_EOCD_SIGNATURE) {
+                    throw new ZipException("Invalid ZIP64 end of central directory in " + path);
+                }
+                total = zip64.getLong(32);
+                cenSize = zip64.getLong(40);
+                cenOffset = zip64.getLong(48);
+            }
+            return new long[]{total, cenSize, cenOffset};
+        }
+        throw new ZipException("End of central directory not found in " + path);
+    }
+
+    private void parseCentralDirectory() throws ZipException {
+        int position = 0;
+        for (int index = 0; index < count; index++) {
+            if (position + CEN_HEADER_LENGTH > cen.limit() || cen.getInt(position) != CEN_SIGNATURE) {
+                throw new ZipException("Invalid central directory header in " + path);
+            }
+            final int nameLength = cen.getShort(position + 28) & 0xffff;
+            final int extraLength = cen.getShort(position + 30) & 0xffff;
+            final int commentLength = cen.getShort(position + 32) & 0xffff;
+            long size = cen.getInt(position + 24) & UINT32_MAX;
+            long compressedSize = cen.getInt(position + 20) & UINT32_MAX;
+            long localHeader = cen.getInt(position + 42) & UINT32_MAX;
+            if (size == UINT32_MAX || compressedSize == UINT32_MAX || localHeader == UINT32_MAX) {
+                // ZIP64 extra field holds those values which overflowed, in this order
+                int extra = position + CEN_HEADER_LENGTH + nameLength;
+                final int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    final int id = cen.getShort(extra) & 0xffff;
+                    final int length = cen.getShort(extra + 2) & 0xffff;
+                    if (id == 0x0001) {
+                        int field = extra + 4;
+                        if (size == UINT32_MAX) {
+                            size = cen.getLong(field);
+                            field += 8;
+                        }
+                        if (compressedSize == UINT32_MAX) {
+                            compressedSize = cen.getLong(field);
+                            field += 8;
+                        }
+                        if (localHeader == UINT32_MAX) {
+                            localHeader = cen.getLong(field);
+                        }
+                        break;
+                    }
+                    extra += 4 + length;
+                }
+            }
+
+            int hash = 0;
+            final int nameStart = position + CEN_HEADER_LENGTH;
+            for (int i = 0; i < nameLength; i++) {
+                hash = 31 * hash + cen.get(nameStart + i);
+            }
+            final int rec = index * RECORD_LENGTH;
+            records.putInt(rec + REC_CEN, position);
+            records.putInt(rec + REC_HASH, hash);
+            records.putInt(rec + REC_METHOD, cen.getShort(position + 10) & 0xffff);
+            records.putInt(rec + REC_CRC, cen.getInt(position + 16));
+            records.putLong(rec + REC_COMPRESSED_SIZE, compressedSize);
+            records.putLong(rec + REC_SIZE, size);
+            records.putLong(rec + REC_LOCAL_HEADER, localHeader);
+
+            int slot = spread(hash) & mask;
+            while (table.get(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table.put(slot, index + 1);
+            position = nameStart + nameLength + extraLength + commentLength;
+        }
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = 0;
+        for (byte b : bytes) {
+            hash = 31 * hash + b;
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
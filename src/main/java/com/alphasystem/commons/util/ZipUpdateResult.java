@@ -0,0 +1,15 @@
+package com.alphasystem.commons.util;
+
+import java.time.Duration;
+
+/**
+ * Result of {@link ZipUtil#updateArchive(java.io.File[], java.io.File)}.
+ *
+ * @param added     number of entries added for new files
+ * @param updated   number of entries recompressed because the file changed
+ * @param unchanged number of entries copied without recompression
+ * @param removed   number of entries dropped because the file no longer exists
+ * @param elapsed   time taken by the update
+ */
+public record ZipUpdateResult(int added, int updated, int unchanged, int removed, Duration elapsed) {
+}
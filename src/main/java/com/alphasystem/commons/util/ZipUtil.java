@@ -4,11 +4,13 @@ import com.alphasystem.commons.SystemException;
 
 import java.io.*;
 import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
-import static com.alphasystem.commons.util.FileUtil.copyOutputStream;
+import static com.alphasystem.commons.util.FileUtil.copy;
 import static java.lang.String.format;
 import static org.apache.commons.io.IOUtils.copyLarge;
 
@@ -31,12 +33,16 @@ public class ZipUtil {
         archiveFile(new File[]{fileToArchive}, archiveFile);
     }
 
-    private static void archiveFile(File archiveFile, ZipFileEntry... entries) throws SystemException {
+    private static void archiveFile(File archiveFile, ZipCompression compression, ZipFileEntry... entries)
+            throws SystemException {
+        // the archive is rewritten in place, do not keep reading the old one
+        ZipFileCache.evict(archiveFile.toPath());
         ZipOutputStream zos = null;
         try {
             zos = new ZipOutputStream(new FileOutputStream(archiveFile));
+            zos.setLevel(compression.getLevel());
             for (ZipFileEntry zipFileEntry : entries) {
-                archiveFile(zos, zipFileEntry.file(), zipFileEntry.name());
+                archiveFile(zos, zipFileEntry.file(), zipFileEntry.name(), compression);
             }
         } catch (FileNotFoundException e) {
             throw new SystemException(e.getMessage(), e);
@@ -61,29 +67,148 @@ public class ZipUtil {
      * @throws SystemException wrap other exceptions
      */
     public static void archiveFile(File[] filesToArchive, File archiveFile) throws SystemException {
+        archiveFile(filesToArchive, archiveFile, ZipCompression.defaults());
+    }
+
+    /**
+     * Archive given files with given compression settings.
+     *
+     * @param filesToArchive files to archive
+     * @param archiveFile    name of the archive file
+     * @param compression    deflate level and files to store uncompressed
+     * @throws SystemException wrap other exceptions
+     */
+    public static void archiveFile(File[] filesToArchive, File archiveFile, ZipCompression compression)
+            throws SystemException {
         ZipFileEntry[] entries = getFilesToArchive(filesToArchive);
-        archiveFile(archiveFile, entries);
+        archiveFile(archiveFile, compression, entries);
+    }
+
+    /**
+     * Archive given file, entries are compressed concurrently on one thread per available processor.
+     *
+     * @param fileToArchive file to archive
+     * @param archiveFile   name of the archive file
+     * @throws SystemException wrap other exceptions
+     */
+    public static void archiveFileParallel(File fileToArchive, File archiveFile) throws SystemException {
+        archiveFileParallel(new File[]{fileToArchive}, archiveFile);
+    }
+
+    /**
+     * Archive given files, entries are compressed concurrently on one thread per available processor.
+     *
+     * @param filesToArchive files to archive
+     * @param archiveFile    name of the archive file
+     * @throws SystemException wrap other exceptions
+     */
+    public static void archiveFileParallel(File[] filesToArchive, File archiveFile) throws SystemException {
+        archiveFileParallel(filesToArchive, archiveFile, Runtime.getRuntime().availableProcessors(),
+                ZipCompression.defaults());
+    }
+
+    /**
+     * Archive given files, entries are compressed concurrently and written in the same order as
+     * {@link #archiveFile(File[], File)} does.
+     *
+     * @param filesToArchive files to archive
+     * @param archiveFile    name of the archive file
+     * @param threads        number of compression threads
+     * @param level          deflate level, <code>-1</code> to <code>9</code>, applied to every file
+     * @throws SystemException wrap other exceptions
+     */
+    public static void archiveFileParallel(File[] filesToArchive, File archiveFile, int threads, int level)
+            throws SystemException {
+        archiveFileParallel(filesToArchive, archiveFile, threads, ZipCompression.deflate(level));
     }
 
-    private static void archiveFile(ZipOutputStream zos, File file, String entryName) throws IOException {
+    /**
+     * Archive given files, entries are compressed concurrently and written in the same order as
+     * {@link #archiveFile(File[], File)} does.
+     *
+     * @param filesToArchive files to archive
+     * @param archiveFile    name of the archive file
+     * @param threads        number of compression threads
+     * @param compression    deflate level and files to store uncompressed
+     * @throws SystemException wrap other exceptions
+     */
+    public static void archiveFileParallel(File[] filesToArchive, File archiveFile, int threads,
+                                           ZipCompression compression) throws SystemException {
+        ZipFileCache.evict(archiveFile.toPath());
+        try {
+            new ParallelZipArchiver(threads, compression).archive(Arrays.asList(getFilesToArchive(filesToArchive)),
+                    archiveFile);
+        } catch (IOException e) {
+            throw new SystemException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Bring given archive up to date with given files, creating it if missing. Entries of unchanged files are copied
+     * from the existing archive without recompression, changed and new files are compressed and entries of files no
+     * longer present are removed. Entry names and order are the same as with {@link #archiveFile(File[], File)}.
+     *
+     * @param filesToArchive files to archive
+     * @param archiveFile    archive to update, replaced atomically when done
+     * @return number of added, updated, unchanged and removed entries
+     * @throws SystemException wrap other exceptions
+     */
+    public static ZipUpdateResult updateArchive(File[] filesToArchive, File archiveFile) throws SystemException {
+        return updateArchive(filesToArchive, archiveFile, ZipCompression.defaults());
+    }
+
+    /**
+     * Bring given archive up to date with given files, see {@link #updateArchive(File[], File)}. Compression settings
+     * apply to added and changed files only.
+     *
+     * @param filesToArchive files to archive
+     * @param archiveFile    archive to update, replaced atomically when done
+     * @param compression    deflate level and files to store uncompressed
+     * @return number of added, updated, unchanged and removed entries
+     * @throws SystemException wrap other exceptions
+     */
+    public static ZipUpdateResult updateArchive(File[] filesToArchive, File archiveFile, ZipCompression compression)
+            throws SystemException {
+        try {
+            return new ZipArchiveUpdater(compression).update(Arrays.asList(getFilesToArchive(filesToArchive)),
+                    archiveFile);
+        } catch (IOException e) {
+            throw new SystemException(e.getMessage(), e);
+        }
+    }
+
+    private static void archiveFile(ZipOutputStream zos, File file, String entryName, ZipCompression compression)
+            throws IOException {
         ZipEntry ze = new ZipEntry(entryName);
+        final boolean directory = entryName.endsWith(ZIP_DIR_SEPARATOR);
+        if (compression.methodFor(entryName) == ZipEntry.STORED) {
+            // size and CRC of stored entries go into the local header, before the data
+            final CRC32 crc = new CRC32();
+            if (!directory) {
+                try (InputStream in = new CheckedInputStream(new FileInputStream(file), crc)) {
+                    ze.setSize(in.transferTo(OutputStream.nullOutputStream()));
+                }
+            } else {
+                ze.setSize(0);
+            }
+            ze.setMethod(ZipEntry.STORED);
+            ze.setCompressedSize(ze.getSize());
+            ze.setCrc(crc.getValue());
+        }
         zos.putNextEntry(ze);
-        if (entryName.endsWith(ZIP_DIR_SEPARATOR)) {
+        if (directory) {
             return;
         }
-        BufferedInputStream in = new BufferedInputStream(new FileInputStream(
-                file));
-        copyOutputStream(zos, in);
-        zos.closeEntry();
-        try {
-            in.close();
-        } catch (Exception e) {
-            System.err.println("Failed to close input stream.");
+        try (InputStream in = new FileInputStream(file)) {
+            copy(in, zos);
         }
+        zos.closeEntry();
     }
 
     /**
-     * Extract single entry from the zip.
+     * Extract single entry from the zip. Recently used archives are kept open, so repeated extraction from the same
+     * archive reads its central directory once. An archive is opened again once its size or modification time
+     * changes. For lookups of many entries in a large archive which is not rewritten in place, see {@link ZipIndex}.
      *
      * @param pathname  path name of the archive
      * @param entryName entry name to extract
@@ -91,30 +216,19 @@ public class ZipUtil {
      * @throws SystemException wrap other exceptions
      */
     public static void extractFile(String pathname, String entryName, File outFile) throws SystemException {
-        ZipFile zipFile = null;
-        BufferedOutputStream out = null;
         try {
-            zipFile = new ZipFile(pathname);
-            ZipEntry ze = zipFile.getEntry(entryName);
-            out = new BufferedOutputStream(new FileOutputStream(outFile));
-            copyLarge(zipFile.getInputStream(ze), out);
-        } catch (IOException e) {
-            throw new SystemException(e.getMessage(), e);
-        } finally {
-            if (zipFile != null) {
-                try {
-                    zipFile.close();
-                } catch (IOException e) {
-                    System.err.println("Failed to close zip file.");
+            try (ZipFileCache.Handle handle = ZipFileCache.acquire(new File(pathname).toPath())) {
+                final ZipFile zipFile = handle.getZipFile();
+                final ZipEntry ze = zipFile.getEntry(entryName);
+                if (ze == null) {
+                    throw new SystemException(format("Entry {%s} not found in {%s}", entryName, pathname));
                 }
-            }
-            if (out != null) {
-                try {
-                    out.close();
-                } catch (IOException e) {
-                    System.err.println("Failed to close input stream.");
+                try (InputStream in = zipFile.getInputStream(ze); OutputStream out = new FileOutputStream(outFile)) {
+                    copy(in, out);
                 }
             }
+        } catch (IOException e) {
+            throw new SystemException(e.getMessage(), e);
         }
     }
 
@@ -184,7 +298,40 @@ public class ZipUtil {
         return zipEntries;
     }
 
-    private static ZipFileEntry[] getFilesToArchive(File[] filesToArchive) {
+    /**
+     * Extract given zip file to given out dir, entries are extracted concurrently on one thread per available
+     * processor.
+     *
+     * @param outDir   output dir
+     * @param pathname path name of the zip file
+     * @return extracted and failed entries
+     * @throws SystemException if zip file can not be opened
+     */
+    public static ZipExtractResult extractZipFileParallel(File outDir, String pathname) throws SystemException {
+        return extractZipFileParallel(outDir, pathname, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Extract given zip file to given out dir, entries are extracted concurrently. Failure to extract an entry,
+     * including entries pointing outside of <code>outDir</code>, is reported in the result and does not stop the
+     * extraction of other entries.
+     *
+     * @param outDir   output dir
+     * @param pathname path name of the zip file
+     * @param threads  number of threads, including the calling thread
+     * @return extracted and failed entries
+     * @throws SystemException if zip file can not be opened
+     */
+    public static ZipExtractResult extractZipFileParallel(File outDir, String pathname, int threads)
+            throws SystemException {
+        try {
+            return new ParallelZipExtractor(threads).extract(outDir, pathname);
+        } catch (IOException e) {
+            throw new SystemException(e.getMessage(), e);
+        }
+    }
+
+    static ZipFileEntry[] getFilesToArchive(File[] filesToArchive) {
         List<ZipFileEntry> entries = new ArrayList<ZipFileEntry>();
         for (File file : filesToArchive) {
             if (file.isDirectory()) {
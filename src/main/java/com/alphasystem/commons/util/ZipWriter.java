@@ -0,0 +1,384 @@
+package com.alphasystem.commons.util;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.function.IOSupplier;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Streams a zip archive into any {@link OutputStream} or {@link WritableByteChannel}, e.g. an HTTP response or a
+ * pipe. Entries are compressed while being written, nothing is buffered in temporary files.
+ *
+ * <pre>
+ * try (ZipWriter zip = ZipWriter.to(response.getOutputStream()).level(Deflater.BEST_SPEED)) {
+ *     zip.add("report.csv", ZipWriter.Source.of(reportPath))
+ *        .addStored("logo.png", ZipWriter.Source.of(logoBytes))
+ *        .add("data.json", ZipWriter.Source.of(() -&gt; service.openJson()), Deflater.BEST_COMPRESSION);
+ * }
+ * </pre>
+ *
+ * Writes block while the target does not accept more data, for non-blocking channels the writer waits until the
+ * channel is writable again, so a slow consumer slows down the producer instead of data piling up in memory.
+ */
+public final class ZipWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String ZIP_DIR_SEPARATOR = "/";
+
+    /**
+     * Content of an entry.
+     */
+    public static final class Source {
+
+        private final IOSupplier<InputStream> opener;
+        private final boolean repeatable;
+        private final long size;
+        private final long lastModified;
+
+        private Source(IOSupplier<InputStream> opener, boolean repeatable, long size, long lastModified) {
+            this.opener = opener;
+            this.repeatable = repeatable;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * @param path file to read
+         * @return source reading given file, entry gets size and modification time of the file
+         * @throws IOException if file attributes can not be read
+         */
+        public static Source of(Path path) throws IOException {
+            return new Source(() -> Files.newInputStream(path), true, Files.size(path),
+                    Files.getLastModifiedTime(path).toMillis());
+        }
+
+        /**
+         * @param buffer remaining content of given buffer, the buffer itself is not modified
+         * @return source reading given buffer
+         */
+        public static Source of(ByteBuffer buffer) {
+            final ByteBuffer content = buffer.duplicate();
+            return new Source(() -> new ByteBufferInputStream(content.duplicate()), true, content.remaining(), -1);
+        }
+
+        /**
+         * @param bytes content
+         * @return source reading given bytes
+         */
+        public static Source of(byte[] bytes) {
+            return of(ByteBuffer.wrap(bytes));
+        }
+
+        /**
+         * Source reading given stream once. Such sources can not be {@link #addStored(String, Source) stored} since
+         * CRC and size must be known before the content.
+         *
+         * @param in stream to read, closed after the entry is written
+         * @return source reading given stream
+         */
+        public static Source of(InputStream in) {
+            Objects.requireNonNull(in);
+            return new Source(() -> in, false, -1, -1);
+        }
+
+        /**
+         * Source opening a new stream for every read, stored entries open it twice, once to compute CRC and size.
+         *
+         * @param supplier supplies content of the entry
+         * @return source reading streams from given supplier
+         */
+        public static Source of(IOSupplier<InputStream> supplier) {
+            return new Source(Objects.requireNonNull(supplier), true, -1, -1);
+        }
+    }
+
+    /**
+     * @param out target stream, closed when this writer is closed
+     * @return new writer
+     */
+    public static ZipWriter to(OutputStream out) {
+        return new ZipWriter(new BufferedOutputStream(out, BUFFER_SIZE));
+    }
+
+    /**
+     * @param channel target channel, closed when this writer is closed. Non-blocking channels must be
+     *                {@link SelectableChannel selectable}
+     * @return new writer
+     */
+    public static ZipWriter to(WritableByteChannel channel) {
+        return new ZipWriter(new ChannelOutputStream(channel));
+    }
+
+    private final ZipArchiveOutputStream zos;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int level = Deflater.DEFAULT_COMPRESSION;
+
+    private ZipWriter(OutputStream out) {
+        this.zos = new ZipArchiveOutputStream(out);
+    }
+
+    /**
+     * @param level default deflate level of subsequent entries, <code>-1</code> to <code>9</code>
+     * @return this writer
+     */
+    public ZipWriter level(int level) {
+        checkLevel(level);
+        this.level = level;
+        return this;
+    }
+
+    /**
+     * Add deflated entry using current default level.
+     *
+     * @param name   entry name
+     * @param source content
+     * @return this writer
+     * @throws IOException if reading source or writing fails
+     */
+    public ZipWriter add(String name, Source source) throws IOException {
+        return add(name, source, level);
+    }
+
+    /**
+     * Add deflated entry.
+     *
+     * @param name   entry name
+     * @param source content
+     * @param level  deflate level of this entry
+     * @return this writer
+     * @throws IOException if reading source or writing fails
+     */
+    public ZipWriter add(String name, Source source, int level) throws IOException {
+        checkLevel(level);
+        final ZipArchiveEntry entry = newEntry(name, source);
+        entry.setMethod(ZipEntry.DEFLATED);
+        if (source.size >= 0) {
+            entry.setSize(source.size);
+        }
+        zos.setLevel(level);
+        write(entry, source);
+        return this;
+    }
+
+    /**
+     * Add entry without compression, for content which is already compressed. Stream sources are read twice, once
+     * to compute CRC and size, since the local header of a stored entry must contain them.
+     *
+     * @param name   entry name
+     * @param source content, must not be created from an {@link InputStream}
+     * @return this writer
+     * @throws IOException if reading source or writing fails
+     */
+    public ZipWriter addStored(String name, Source source) throws IOException {
+        if (!source.repeatable) {
+            throw new IllegalArgumentException("Stored entry " + name + " requires a source which can be read twice");
+        }
+        final ZipArchiveEntry entry = newEntry(name, source);
+        final CRC32 crc = new CRC32();
+        long size = 0;
+        try (InputStream in = source.opener.get()) {
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, len);
+                size += len;
+            }
+        }
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(size);
+        entry.setCompressedSize(size);
+        entry.setCrc(crc.getValue());
+        write(entry, source);
+        return this;
+    }
+
+    /**
+     * @param name directory name, separator is appended if missing
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ZipWriter addDirectory(String name) throws IOException {
+        final ZipArchiveEntry entry = new ZipArchiveEntry(name.endsWith(ZIP_DIR_SEPARATOR) ? name
+                : name + ZIP_DIR_SEPARATOR);
+        zos.putArchiveEntry(entry);
+        zos.closeArchiveEntry();
+        return this;
+    }
+
+    /**
+     * Write central directory without closing the target.
+     *
+     * @throws IOException if writing fails
+     */
+    public void finish() throws IOException {
+        zos.finish();
+        zos.flush();
+    }
+
+    /**
+     * Finish the archive, if not done yet, and close the target.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        zos.close();
+    }
+
+    private static ZipArchiveEntry newEntry(String name, Source source) {
+        final ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        if (source.lastModified >= 0) {
+            entry.setTime(source.lastModified);
+        }
+        return entry;
+    }
+
+    private void write(ZipArchiveEntry entry, Source source) throws IOException {
+        zos.putArchiveEntry(entry);
+        try (InputStream in = source.opener.get()) {
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                zos.write(buffer, 0, len);
+            }
+        }
+        zos.closeArchiveEntry();
+    }
+
+    private static void checkLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+
+    /**
+     * Buffered stream over a channel, waits for non-blocking channels to become writable.
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+
+        private static final long MIN_BACKOFF = TimeUnit.MICROSECONDS.toNanos(10);
+        private static final long MAX_BACKOFF = TimeUnit.MILLISECONDS.toNanos(10);
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private Selector selector;
+        private long backoff = MIN_BACKOFF;
+
+        private ChannelOutputStream(WritableByteChannel channel) {
+            this.channel = Objects.requireNonNull(channel);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                final int n = Math.min(len, buffer.remaining());
+                buffer.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                try {
+                    if (selector != null) {
+                        selector.close();
+                    }
+                } finally {
+                    channel.close();
+                }
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.write(buffer) == 0) {
+                        awaitWritable();
+                    } else {
+                        backoff = MIN_BACKOFF;
+                    }
+                }
+            } finally {
+                buffer.compact();
+            }
+        }
+
+        private void awaitWritable() throws IOException {
+            if (channel instanceof SelectableChannel selectable && !selectable.isBlocking()) {
+                if (selector == null) {
+                    selector = Selector.open();
+                    selectable.register(selector, SelectionKey.OP_WRITE);
+                }
+                selector.select(1000L);
+                selector.selectedKeys().clear();
+            } else {
+                // not selectable, back off instead of spinning on a channel that keeps writing nothing
+                LockSupport.parkNanos(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF);
+                if (Thread.interrupted()) {
+                    throw new InterruptedIOException("Interrupted while waiting for channel to become writable");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.alphasystem.commons.util.nio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Long lived zip file systems of jar files, so resources can be read in place instead of being extracted to disk.
+ *
+ * <pre>
+ * try (JarFileSystems.Handle handle = JarFileSystems.acquire(jar)) {
+ *     try (SeekableByteChannel channel = Files.newByteChannel(handle.getPath("/files/file1.txt"))) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * There is one file system per jar, opened on first use. The cache holds a reference of its own, so paths stay
+ * readable after their handle is closed, until the JVM shuts down or the jar is {@link #evict(Path) evicted}. A file
+ * system is closed once the cache and all handles have released it. A jar whose modification time or size changed
+ * gets a new file system, the old one is closed when its last handle is.
+ */
+public final class JarFileSystems {
+
+    private static final Map<Path, Entry> FILE_SYSTEMS = new HashMap<>();
+    private static boolean shutdownHookAdded;
+
+    /**
+     * Do not let anyone instantiate this class
+     */
+    private JarFileSystems() {
+    }
+
+    /**
+     * @param jar jar or zip file
+     * @return handle to the file system of given jar, must be closed when done
+     * @throws IOException if the jar can not be opened
+     */
+    public static Handle acquire(Path jar) throws IOException {
+        final Path key = jar.toAbsolutePath().normalize();
+        final BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        synchronized (FILE_SYSTEMS) {
+            Entry entry = FILE_SYSTEMS.get(key);
+            if (entry != null && (entry.lastModified != lastModified || entry.size != attributes.size())) {
+                FILE_SYSTEMS.remove(key);
+                release(entry);
+                entry = null;
+            }
+            if (entry == null) {
+                addShutdownHook();
+                entry = new Entry(FileSystems.newFileSystem(key), lastModified, attributes.size());
+                FILE_SYSTEMS.put(key, entry);
+            }
+            entry.references++;
+            return new Handle(entry);
+        }
+    }
+
+    /**
+     * Drop the reference the cache holds on the file system of given jar, the file system is closed once all
+     * handles are closed.
+     *
+     * @param jar jar or zip file
+     * @throws IOException if closing the file system fails
+     */
+    public static void evict(Path jar) throws IOException {
+        synchronized (FILE_SYSTEMS) {
+            final Entry entry = FILE_SYSTEMS.remove(jar.toAbsolutePath().normalize());
+            if (entry != null) {
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * @return number of cached file systems
+     */
+    static int size() {
+        synchronized (FILE_SYSTEMS) {
+            return FILE_SYSTEMS.size();
+        }
+    }
+
+    private static void release(Entry entry) throws IOException {
+        if (--entry.references == 0) {
+            entry.fileSystem.close();
+        }
+    }
+
+    private static void addShutdownHook() {
+        if (shutdownHookAdded) {
+            return;
+        }
+        shutdownHookAdded = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            final List<Entry> entries;
+            synchronized (FILE_SYSTEMS) {
+                entries = new ArrayList<>(FILE_SYSTEMS.values());
+                FILE_SYSTEMS.clear();
+            }
+            for (Entry entry : entries) {
+                try {
+                    entry.fileSystem.close();
+                } catch (IOException ex) {
+                    // best effort
+                }
+            }
+        }, "jar-file-systems-closer"));
+    }
+
+    /**
+     * Reference to the file system of a jar.
+     */
+    public static final class Handle implements Closeable {
+
+        private final Entry entry;
+        private boolean closed;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        /**
+         * @return file system of the jar
+         */
+        public FileSystem getFileSystem() {
+            return entry.fileSystem;
+        }
+
+        /**
+         * @param first path string, absolute or relative to the root of the jar
+         * @param more  additional path strings
+         * @return path inside the jar
+         */
+        public Path getPath(String first, String... more) {
+            return entry.fileSystem.getPath(first.startsWith("/") ? first : "/" + first, more);
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (FILE_SYSTEMS) {
+                if (!closed) {
+                    closed = true;
+                    release(entry);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final FileSystem fileSystem;
+        private final long lastModified;
+        private final long size;
+        // the cache holds one reference while the entry is in the map
+        private int references = 1;
+
+        private Entry(FileSystem fileSystem, long lastModified, long size) {
+            this.fileSystem = fileSystem;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+    }
+}
@@ -9,13 +9,13 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.EnumSet;
 import java.util.Objects;
 
 import static java.lang.Integer.MAX_VALUE;
 import static java.lang.String.format;
 import static java.nio.channels.Channels.newChannel;
-import static java.nio.file.FileSystems.newFileSystem;
 import static java.nio.file.FileVisitOption.FOLLOW_LINKS;
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.Files.*;
@@ -37,7 +37,7 @@ public final class NIOFileUtils {
 
     /**
      * Copy Given resource to given destination. If given resource is part of jar/zip file this method will extract the
-     * resource from archive.
+     * resource from archive, the jar is opened once and kept open, see {@link JarFileSystems}.
      *
      * @param to Destination path
      * @param resourceName Name of system resource
@@ -55,8 +55,8 @@ public final class NIOFileUtils {
             final Path from = get(path.toFile().getPath(), resourceName);
             copyDir(from, to);
         } else { // a jar file
-            try (FileSystem zipFileSystem = newFileSystem(path, contextClassLoader)) {
-                final Path from = zipFileSystem.getPath(format("/%s/", resourceName));
+            try (JarFileSystems.Handle handle = JarFileSystems.acquire(path)) {
+                final Path from = handle.getPath(format("/%s/", resourceName));
                 walkFileTree(from, EnumSet.of(FOLLOW_LINKS), MAX_VALUE, new ZipDirVisitor(from, to));
             }
         }
@@ -75,6 +75,36 @@ public final class NIOFileUtils {
         walkFileTree(from, EnumSet.of(FOLLOW_LINKS), MAX_VALUE, new CopyDirVisitor(from, to));
     }
 
+    /**
+     * Copy directory recursively from source to destination, files are copied concurrently on one thread per
+     * available processor.
+     *
+     * @param from Source path
+     * @param to Destination path
+     * @return number of directories and files, bytes copied and elapsed time
+     * @throws IOException if some other I/O error occurs
+     */
+    public static CopyDirResult copyDirParallel(Path from, Path to) throws IOException {
+        return copyDirParallel(from, to, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Copy directory recursively from source to destination. The tree is walked once, creating all directories,
+     * files are then copied concurrently, large files through {@link java.nio.channels.FileChannel#transferTo}.
+     * Copying stops at the first failure, files copied so far are kept.
+     *
+     * @param from Source path
+     * @param to Destination path
+     * @param threads number of threads, including the calling thread
+     * @return number of directories and files, bytes copied and elapsed time
+     * @throws IOException if some other I/O error occurs
+     */
+    public static CopyDirResult copyDirParallel(Path from, Path to, int threads) throws IOException {
+        validateDir(from);
+        validateTo(to);
+        return new ParallelDirCopier(threads).copy(from, to);
+    }
+
     /**
      * Copy from source to destination.
      *
@@ -115,6 +145,25 @@ public final class NIOFileUtils {
         }
     }
 
+    /**
+     * Result of a directory copy.
+     *
+     * @param directories number of directories, including the source directory
+     * @param files number of files
+     * @param bytes number of bytes copied
+     * @param elapsed time taken
+     */
+    public record CopyDirResult(int directories, int files, long bytes, Duration elapsed) {
+
+        /**
+         * @return throughput in bytes per second
+         */
+        public double throughput() {
+            final long nanos = elapsed.toNanos();
+            return nanos == 0 ? bytes : bytes * 1e9 / nanos;
+        }
+    }
+
     private static void validateDir(Path from) throws IOException {
         if (exists(from)) {
             if (!isDirectory(from)) {
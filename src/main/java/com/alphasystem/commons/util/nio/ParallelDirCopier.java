@@ -0,0 +1,130 @@
+package com.alphasystem.commons.util.nio;
+
+import com.alphasystem.commons.util.FileUtil;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Integer.MAX_VALUE;
+import static java.nio.file.FileVisitOption.FOLLOW_LINKS;
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Parallel directory copy behind {@link NIOFileUtils#copyDirParallel(Path, Path, int)}.
+ *
+ * The source tree is walked once on the calling thread, creating target directories on the way and collecting the
+ * files. Files are then pulled from a shared index by worker threads, small files through {@link Files#copy}, large
+ * ones through {@link java.nio.channels.FileChannel#transferTo}. The first failure stops all workers. The source may
+ * be on another file system, e.g. a zip file system.
+ */
+final class ParallelDirCopier {
+
+    static final long LARGE_FILE_SIZE = 1024 * 1024;
+
+    private final int threads;
+
+    ParallelDirCopier(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    NIOFileUtils.CopyDirResult copy(Path from, Path to) throws IOException {
+        final long start = System.nanoTime();
+        final List<Path> files = new ArrayList<>();
+        final AtomicInteger directories = new AtomicInteger();
+        Files.walkFileTree(from, EnumSet.of(FOLLOW_LINKS), MAX_VALUE, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(resolve(from, to, dir));
+                directories.incrementAndGet();
+                return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                files.add(file);
+                return CONTINUE;
+            }
+        });
+
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+        final LongAdder bytes = new LongAdder();
+        final Runnable worker = () -> {
+            int index;
+            while (failure.get() == null && (index = next.getAndIncrement()) < files.size()) {
+                final Path file = files.get(index);
+                try {
+                    bytes.add(copyFile(file, resolve(from, to, file)));
+                } catch (IOException ex) {
+                    failure.compareAndSet(null, ex);
+                } catch (RuntimeException ex) {
+                    failure.compareAndSet(null, new IOException("Failed to copy " + file, ex));
+                }
+            }
+        };
+        final int workers = Math.min(threads, files.size());
+        final List<Thread> started = new ArrayList<>(workers);
+        for (int i = 1; i < workers; i++) {
+            final Thread thread = new Thread(worker, "dir-copier-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            started.add(thread);
+        }
+        // calling thread takes part instead of idling
+        worker.run();
+        for (Thread thread : started) {
+            join(thread);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return new NIOFileUtils.CopyDirResult(directories.get(), files.size(), bytes.sum(),
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Target of given source path, by name since source and target may belong to different file systems.
+     */
+    private static Path resolve(Path from, Path to, Path source) {
+        Path target = to;
+        for (Path name : from.relativize(source)) {
+            target = target.resolve(name.toString());
+        }
+        return target;
+    }
+
+    private static long copyFile(Path source, Path target) throws IOException {
+        final long size = Files.size(source);
+        if (size < LARGE_FILE_SIZE || source.getFileSystem() != FileSystems.getDefault()) {
+            Files.copy(source, target, REPLACE_EXISTING);
+            return size;
+        }
+        return FileUtil.copy(source, target).bytes();
+    }
+
+    private static void join(Thread thread) throws IOException {
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Copy interrupted");
+        }
+    }
+}
@@ -3,15 +3,24 @@ package com.alphasystem.commons.util;
 import com.alphasystem.commons.SystemException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public class AppUtilTest {
 
@@ -147,6 +156,113 @@ public class AppUtilTest {
         }
     }
 
+    @Test
+    public void testProcessDirectoryParallelAndLazily(@TempDir Path dir) throws Exception {
+        // names sorting around the separator, e.g. "a.txt" < "a/x" < "a0"
+        for (String name : new String[]{"a.txt", "a/x", "a/b/y", "a0", "a-b/z", "b", "c/d/e/f", "A"}) {
+            final var file = dir.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, name);
+        }
+        Files.createDirectories(dir.resolve("empty/dir"));
+        final Function<Path, String> consumer = path -> dir.relativize(path).toString();
+        final var expected = AppUtil.processDirectory(dir, consumer);
+        Assertions.assertEquals(8, expected.size());
+
+        try (var stream = AppUtil.processDirectoryLazily(dir, consumer)) {
+            Assertions.assertEquals(expected, stream.toList());
+        }
+        Assertions.assertEquals(expected, AppUtil.processDirectoryParallel(dir, consumer, 3, true));
+        final var unordered = AppUtil.processDirectoryParallel(dir, consumer, 3, false);
+        Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(unordered));
+        Assertions.assertEquals(expected.size(), unordered.size());
+
+        for (boolean ordered : new boolean[]{true, false}) {
+            final var ex = Assertions.assertThrows(SystemException.class,
+                    () -> AppUtil.processDirectoryParallel(dir, path -> {
+                        throw new IllegalStateException(path.getFileName().toString());
+                    }, 2, ordered));
+            Assertions.assertInstanceOf(IllegalStateException.class, ex.getCause());
+        }
+        Assertions.assertThrows(SystemException.class,
+                () -> AppUtil.processDirectoryLazily(dir.resolve("a.txt"), consumer));
+    }
+
+    @Test
+    public void testProcessDirectoryLazilyByteOrder(@TempDir Path dir) throws Exception {
+        // UTF-16 order of these names differs from the byte order zip paths are sorted by
+        final var archive = dir.resolve("names.zip");
+        try (var fs = FileSystems.newFileSystem(archive, Map.of("create", "true"))) {
+            for (String name : new String[]{"\uFF01/x", "\uD83D\uDE00", "\uFF01.txt", "\uD83D\uDE00-dir/y", "a/z"}) {
+                final var file = fs.getPath("/", name);
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                Files.writeString(file, name);
+            }
+        }
+        try (var fs = FileSystems.newFileSystem(archive)) {
+            final var root = fs.getPath("/");
+            final Function<Path, String> consumer = Path::toString;
+            final var expected = AppUtil.processDirectory(root, consumer);
+            Assertions.assertEquals(5, expected.size());
+            try (var stream = AppUtil.processDirectoryLazily(root, consumer)) {
+                Assertions.assertEquals(expected, stream.toList());
+            }
+        }
+    }
+
+    @Test
+    public void testInvokeMethod() {
+        Assertions.assertEquals(5, AppUtil.invokeMethod("hello", "length"));
+        Assertions.assertEquals("world", AppUtil.invokeMethod("world", "toString"));
+        Assertions.assertEquals(Boolean.TRUE, AppUtil.invokeMethod("", "isEmpty"));
+        // void, missing, failing and inaccessible methods
+        Assertions.assertNull(AppUtil.invokeMethod(new StringBuilder("abc"), "trimToSize"));
+        Assertions.assertNull(AppUtil.invokeMethod("hello", "noSuchMethod"));
+        Assertions.assertNull(AppUtil.invokeMethod("hello", "noSuchMethod"));
+        Assertions.assertNull(AppUtil.invokeMethod(new ArrayList<>().iterator(), "next"));
+        Assertions.assertNull(AppUtil.invokeMethod(List.of(1), "size"));
+        Assertions.assertNull(AppUtil.invokeMethod(new FailingBean(), "getData"));
+        Assertions.assertNull(AppUtil.invokeMethod(new FailingBean(), "getState"));
+        final var ex = Assertions.assertThrows(UndeclaredThrowableException.class,
+                () -> AppUtil.getGetter(FailingBean.class, "getData").orElseThrow().apply(new FailingBean()));
+        Assertions.assertInstanceOf(IOException.class, ex.getCause());
+
+        final var getter = AppUtil.getGetter(String.class, "length").orElseThrow();
+        Assertions.assertSame(getter, AppUtil.getGetter(String.class, "length").orElseThrow());
+        Assertions.assertEquals(3, getter.apply("abc"));
+        Assertions.assertThrows(ClassCastException.class, () -> getter.apply(1));
+        Assertions.assertTrue(AppUtil.getGetter(String.class, "noSuchMethod").isEmpty());
+        Assertions.assertEquals(2, AppUtil.getGetter(CharSequence.class, "length").orElseThrow()
+                .apply(new StringBuilder("ab")));
+    }
+
+    @Test
+    public void testInitObject() throws SystemException {
+        Assertions.assertEquals("", AppUtil.initObject("java.lang.StringBuilder").toString());
+        Assertions.assertEquals("abc", AppUtil.initObject("java.lang.StringBuilder", new Class<?>[]{String.class},
+                new Object[]{"abc"}).toString());
+        Assertions.assertEquals(16, ((StringBuilder) AppUtil.initObject(StringBuilder.class, new Class<?>[]{int.class},
+                new Object[]{16})).capacity());
+
+        var ex = Assertions.assertThrows(SystemException.class, () -> AppUtil.initObject("no.such.Class"));
+        Assertions.assertInstanceOf(ClassNotFoundException.class, ex.getCause());
+        for (int i = 0; i < 2; i++) {
+            ex = Assertions.assertThrows(SystemException.class, () -> AppUtil.initObject(Integer.class, null, null));
+            Assertions.assertInstanceOf(NoSuchMethodException.class, ex.getCause());
+        }
+        ex = Assertions.assertThrows(SystemException.class, () -> AppUtil.initObject(URI.class,
+                new Class<?>[]{String.class}, new Object[]{"::"}));
+        Assertions.assertInstanceOf(InvocationTargetException.class, ex.getCause());
+        Assertions.assertInstanceOf(URISyntaxException.class, ex.getCause().getCause());
+        Assertions.assertThrows(SystemException.class, () -> AppUtil.initObject(StringBuilder.class,
+                new Class<?>[]{String.class}, new Object[]{1}));
+        ex = Assertions.assertThrows(SystemException.class, () -> AppUtil.initObject(FailingBean.class,
+                new Class<?>[]{String.class}, new Object[]{"state"}));
+        Assertions.assertInstanceOf(AssertionError.class, ex.getCause().getCause());
+    }
+
     private static FileInfo readLines(Path path, String parentName) {
         final var pathName = path.toString();
         final var indexOfResource = pathName.indexOf(parentName) + parentName.length() + 1;
@@ -171,6 +287,24 @@ public class AppUtilTest {
         }
     }
 
+    public static class FailingBean {
+
+        public FailingBean() {
+        }
+
+        public FailingBean(String state) {
+            throw new AssertionError(state);
+        }
+
+        public String getData() throws IOException {
+            throw new IOException("data");
+        }
+
+        public String getState() {
+            throw new AssertionError("state");
+        }
+    }
+
     private record FileInfo(String name, List<String> lines) {
     }
 }
@@ -0,0 +1,209 @@
+package com.alphasystem.commons.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+public class Base64Test {
+
+    private static final Random RANDOM = new Random(20240229L);
+
+    @Test
+    public void testEncodeSameAsLegacy() {
+        for (int length = 0; length < 600; length++) {
+            final var data = randomBytes(length);
+            Assertions.assertEquals(LegacyBase64.encode(data), Base64.encode(data), "length " + length);
+        }
+        final var data = randomBytes(1_000_003);
+        Assertions.assertEquals(LegacyBase64.encode(data), Base64.encode(data));
+    }
+
+    @Test
+    public void testDecodeSameAsLegacy() {
+        for (int length = 0; length < 600; length++) {
+            final var encoded = LegacyBase64.encode(randomBytes(length));
+            Assertions.assertArrayEquals(LegacyBase64.decode(encoded), Base64.decode(encoded), "length " + length);
+            final var unwrapped = encoded.replace("\n", "");
+            Assertions.assertArrayEquals(LegacyBase64.decode(unwrapped), Base64.decode(unwrapped), "length " + length);
+        }
+    }
+
+    @Test
+    public void testDecodeWhiteSpace() {
+        final var data = randomBytes(100);
+        final var encoded = Base64.encode(data, false);
+        final var builder = new StringBuilder();
+        for (int i = 0; i < encoded.length(); i++) {
+            builder.append(encoded.charAt(i));
+            if (i % 3 == 0) {
+                builder.append(i % 2 == 0 ? " \t" : "\r\n");
+            }
+        }
+        final var withWhiteSpace = builder.toString();
+        Assertions.assertArrayEquals(LegacyBase64.decode(withWhiteSpace), Base64.decode(withWhiteSpace));
+        Assertions.assertArrayEquals(data, Base64.decode(withWhiteSpace));
+    }
+
+    @Test
+    public void testDecodeInvalid() {
+        final var inputs = new String[]{"", "  \n", "A", "AB", "ABC", "AB=", "A===", "====", "AB=C", "ABC=D===",
+                "AB==AB==", "AB*D", "ABC=", "AB==", "AR==", "ABE=", "QQ==", "QUI=", "QUJD", "QUJD QUI=\n", "QQ= =",
+                "QUI=QUJD", "QUéD", "ŁUJD"};
+        for (String input : inputs) {
+            final byte[] expected = legacyDecode(input);
+            Assertions.assertArrayEquals(expected, Base64.decode(input), input);
+            final var written = Base64.decode(ByteBuffer.wrap(input.getBytes(US_ASCII)), ByteBuffer.allocate(16));
+            Assertions.assertEquals(expected == null ? -1 : expected.length, written, input);
+        }
+        Assertions.assertNull(Base64.decode(null));
+    }
+
+    @Test
+    public void testArrayOverloads() {
+        final var data = randomBytes(1000);
+        for (boolean lineWrap : new boolean[]{true, false}) {
+            final var expected = Base64.encode(data, lineWrap);
+            final var out = new byte[Base64.encodedLength(data.length, lineWrap) + 10];
+            final var written = Base64.encode(data, 0, data.length, out, 5, lineWrap);
+            Assertions.assertEquals(expected, new String(out, 5, written, US_ASCII));
+
+            final var decoded = new byte[Base64.decodedLength(expected)];
+            Assertions.assertEquals(data.length, Base64.decode(expected, decoded));
+            Assertions.assertArrayEquals(data, decoded);
+        }
+        final var expected = Base64.encode(new byte[]{data[10], data[11], data[12], data[13]});
+        final var out = new byte[Base64.encodedLength(4, true)];
+        Base64.encode(data, 10, 4, out, 0);
+        Assertions.assertEquals(expected, new String(out, US_ASCII));
+    }
+
+    @Test
+    public void testByteBufferOverloads() {
+        final var data = randomBytes(777);
+        for (boolean direct : new boolean[]{true, false}) {
+            final var src = allocate(data.length, direct).put(data).flip();
+            final var encoded = allocate(Base64.encodedLength(data.length, true), direct);
+            Base64.encode(src, encoded, true);
+            Assertions.assertFalse(src.hasRemaining());
+            Assertions.assertFalse(encoded.hasRemaining());
+            final var bytes = new byte[encoded.capacity()];
+            encoded.flip().duplicate().get(bytes);
+            Assertions.assertEquals(Base64.encode(data), new String(bytes, US_ASCII));
+
+            final var decoded = allocate(data.length, direct);
+            Assertions.assertEquals(data.length, Base64.decode(encoded, decoded));
+            final var result = new byte[data.length];
+            decoded.flip().get(result);
+            Assertions.assertArrayEquals(data, result);
+        }
+    }
+
+    @Test
+    public void testStreams() throws IOException {
+        for (int length : new int[]{0, 1, 2, 56, 57, 58, 3647, 3648, 3649, 100_000}) {
+            final var data = randomBytes(length);
+            final var encoded = new ByteArrayOutputStream();
+            try (var out = Base64.wrap(encoded)) {
+                // mix of single byte and bulk writes
+                int i = 0;
+                while (i < length) {
+                    if (i % 7 == 0) {
+                        out.write(data[i++]);
+                    } else {
+                        final int n = Math.min(length - i, i);
+                        out.write(data, i, n);
+                        i += n;
+                    }
+                }
+            }
+            Assertions.assertEquals(Base64.encode(data), encoded.toString(US_ASCII), "length " + length);
+
+            try (var in = Base64.wrap(new ByteArrayInputStream(encoded.toByteArray()))) {
+                Assertions.assertArrayEquals(data, in.readAllBytes(), "length " + length);
+            }
+        }
+    }
+
+    @Test
+    public void testChannels() throws IOException {
+        final var data = randomBytes(10_000);
+        final var encoded = new ByteArrayOutputStream();
+        try (var channel = Base64.wrap(Channels.newChannel(encoded))) {
+            channel.write(ByteBuffer.wrap(data));
+        }
+        Assertions.assertEquals(Base64.encode(data), encoded.toString(US_ASCII));
+
+        final var decoded = ByteBuffer.allocate(data.length);
+        try (var channel = Base64.wrap(Channels.newChannel(new ByteArrayInputStream(encoded.toByteArray())))) {
+            while (channel.read(decoded) > 0) {
+                // keep reading
+            }
+        }
+        Assertions.assertArrayEquals(data, decoded.array());
+    }
+
+    @Test
+    public void testDecodingStreamInvalid() {
+        for (String input : new String[]{"QUJ", "QQ==QUJD", "QU*D", "QQ==\nQQ=="}) {
+            Assertions.assertThrows(IOException.class, () -> {
+                try (var in = Base64.wrap(new ByteArrayInputStream(input.getBytes(US_ASCII)))) {
+                    in.readAllBytes();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        final var pool = new ForkJoinPool(4);
+        try {
+            for (int length : new int[]{10, 3 << 20, (5 << 20) + 1, (5 << 20) + 2}) {
+                final var data = randomBytes(length);
+                final var encoded = Base64.encode(data);
+                Assertions.assertEquals(encoded, Base64.encodeParallel(data, pool), "length " + length);
+                Assertions.assertArrayEquals(data, Base64.decodeParallel(encoded, pool), "length " + length);
+
+                final var unwrapped = Base64.encode(data, false);
+                Assertions.assertArrayEquals(data, Base64.decodeParallel(unwrapped, pool), "length " + length);
+                final var trailingWhiteSpace = unwrapped + " ".repeat(3 << 20);
+                Assertions.assertArrayEquals(data, Base64.decodeParallel(trailingWhiteSpace, pool), "length " + length);
+            }
+
+            final var encoded = Base64.encode(randomBytes(3 << 20), false);
+            final var padInMiddle = encoded.substring(0, encoded.length() / 2) + "QQ==" + encoded.substring(encoded.length() / 2);
+            Assertions.assertNull(Base64.decodeParallel(padInMiddle, pool));
+            Assertions.assertNull(Base64.decodeParallel(encoded.substring(1), pool));
+            Assertions.assertNull(Base64.decodeParallel(encoded.replace('A', '*'), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static byte[] legacyDecode(String input) {
+        try {
+            return LegacyBase64.decode(input);
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            // legacy implementation fails on characters outside of its table
+            return null;
+        }
+    }
+
+    private static ByteBuffer allocate(int capacity, boolean direct) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static byte[] randomBytes(int length) {
+        final var data = new byte[length];
+        RANDOM.nextBytes(data);
+        return data;
+    }
+}
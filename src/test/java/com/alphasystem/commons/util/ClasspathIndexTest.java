@@ -0,0 +1,106 @@
+package com.alphasystem.commons.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+public class ClasspathIndexTest {
+
+    @TempDir
+    Path workDir;
+    private Path classesDir;
+    private Path jar;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        classesDir = workDir.resolve("classes");
+        for (String name : new String[]{"META-INF/files/file1.txt", "META-INF/files/sub-dir/file 2.txt",
+                "db/schema.sql", "app.properties"}) {
+            final var file = classesDir.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "dir:" + name);
+        }
+        jar = workDir.resolve("lib.jar");
+        writeJar("META-INF/files/file1.txt", "db/migration/v1.sql", "db/migration/v2.sql");
+    }
+
+    @Test
+    public void testLookups() throws Exception {
+        final var index = ClasspathIndex.scan(List.of(classesDir, jar, workDir.resolve("missing.jar")));
+        Assertions.assertEquals(List.of(classesDir, jar), index.getClassPath());
+        Assertions.assertEquals(6, index.size());
+
+        final var urls = index.getResources("META-INF/files/file1.txt");
+        Assertions.assertEquals(2, urls.size());
+        Assertions.assertEquals("dir:META-INF/files/file1.txt", read(urls.get(0)));
+        Assertions.assertEquals("jar:META-INF/files/file1.txt", read(urls.get(1)));
+        Assertions.assertEquals(urls.get(0), index.getResource("META-INF/files/file1.txt"));
+        Assertions.assertEquals("dir:META-INF/files/sub-dir/file 2.txt",
+                read(index.getResource("META-INF/files/sub-dir/file 2.txt")));
+        Assertions.assertNull(index.getResource("META-INF/files"));
+        Assertions.assertTrue(index.getResources("missing").isEmpty());
+
+        Assertions.assertEquals(Set.of("META-INF/files/file1.txt", "META-INF/files/sub-dir/file 2.txt"),
+                index.list("META-INF/files/"));
+        Assertions.assertEquals(Set.of("db/schema.sql", "db/migration/v1.sql", "db/migration/v2.sql"),
+                index.glob("db/**/*.sql"));
+        Assertions.assertEquals(Set.of("db/schema.sql"), index.glob("db/*.sql"));
+        Assertions.assertEquals(Set.of("db/migration/v1.sql", "db/migration/v2.sql"), index.glob("db/migration/v?.sql"));
+        Assertions.assertEquals(Set.of("app.properties"), index.glob("*.properties"));
+    }
+
+    @Test
+    public void testWriteAndReadIndex() throws Exception {
+        final var index = ClasspathIndex.scan(List.of(classesDir, jar));
+        final var out = new ByteArrayOutputStream();
+        index.writeTo(out);
+
+        // directory changed, jar unchanged
+        Files.writeString(classesDir.resolve("added.txt"), "added");
+        var read = ClasspathIndex.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        Assertions.assertEquals(index.getClassPath(), read.getClassPath());
+        Assertions.assertEquals(index.size() + 1, read.size());
+        Assertions.assertEquals(index.getResources("db/migration/v1.sql"), read.getResources("db/migration/v1.sql"));
+
+        // changed jar is scanned again
+        writeJar("db/migration/v3.sql");
+        read = ClasspathIndex.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        Assertions.assertEquals(Set.of("db/migration/v3.sql"), read.list("db/migration/"));
+
+        Assertions.assertThrows(IOException.class,
+                () -> ClasspathIndex.readFrom(new ByteArrayInputStream(new byte[16])));
+    }
+
+    private void writeJar(String... names) throws IOException {
+        try (var jos = new JarOutputStream(new FileOutputStream(jar.toFile()))) {
+            for (String name : names) {
+                jos.putNextEntry(new ZipEntry(name));
+                jos.write(("jar:" + name).getBytes(StandardCharsets.UTF_8));
+                jos.closeEntry();
+            }
+        }
+    }
+
+    private static String read(URL url) throws IOException {
+        final var connection = url.openConnection();
+        connection.setUseCaches(false);
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.SystemException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DownloaderTest {
+
+    private HttpServer server;
+    @TempDir
+    Path workDir;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final AtomicInteger flakyCalls = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::serve);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testBatchWithPerHostLimit() throws Exception {
+        final List<Downloader.Request> requests = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            requests.add(new Downloader.Request(url("/item-" + i), workDir.resolve("item-" + i)));
+        }
+        try (var downloader = Downloader.builder().perHostLimit(3).build()) {
+            final var futures = downloader.downloadAll(requests);
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            for (int i = 0; i < requests.size(); i++) {
+                Assertions.assertEquals("content of /item-" + i,
+                        Files.readString(requests.get(i).dest(), StandardCharsets.UTF_8));
+            }
+            final var stats = downloader.getStats();
+            Assertions.assertEquals(40L, stats.completed());
+            Assertions.assertEquals(0L, stats.failed());
+            Assertions.assertTrue(stats.bytes() > 0);
+            Assertions.assertTrue(stats.throughput() > 0);
+            Assertions.assertTrue(stats.p99Latency().compareTo(stats.maxLatency()) <= 0);
+        }
+        Assertions.assertTrue(maxActive.get() <= 3, "max active " + maxActive.get());
+    }
+
+    @Test
+    public void testRetries() throws Exception {
+        try (var downloader = Downloader.builder().platformThreads(true).retries(2, Duration.ofMillis(1)).build()) {
+            Assertions.assertFalse(downloader.isVirtualThreads());
+            downloader.download(url("/flaky"), workDir.resolve("flaky")).join();
+            Assertions.assertEquals("content of /flaky", Files.readString(workDir.resolve("flaky")));
+            Assertions.assertEquals(3, flakyCalls.get());
+
+            final var missing = downloader.download(url("/missing"), workDir.resolve("missing"));
+            final var ex = Assertions.assertThrows(CompletionException.class, missing::join);
+            Assertions.assertTrue(ex.getCause() instanceof SystemException);
+
+            final var stats = downloader.getStats();
+            Assertions.assertEquals(1L, stats.completed());
+            Assertions.assertEquals(1L, stats.failed());
+            Assertions.assertEquals(2L, stats.retries());
+        }
+    }
+
+    @Test
+    public void testBusyHostDoesNotBlockOthers() throws Exception {
+        final List<Downloader.Request> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(new Downloader.Request(url("/slow-" + i), workDir.resolve("slow-" + i)));
+        }
+        final var other = new URL("http://localhost:" + server.getAddress().getPort() + "/other");
+        try (var downloader = Downloader.builder().platformThreads(true).maxConcurrency(2).perHostLimit(1).build()) {
+            final var slow = downloader.downloadAll(requests);
+            downloader.download(other, workDir.resolve("other")).join();
+            // the other host is served while the busy one still has most of its downloads queued
+            Assertions.assertTrue(slow.stream().filter(CompletableFuture::isDone).count() <= 1);
+            CompletableFuture.allOf(slow.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    @Test
+    public void testHostKey() throws Exception {
+        Assertions.assertEquals("example.com:443", Downloader.hostKey(new URL("https://Example.COM/a")));
+        Assertions.assertEquals(Downloader.hostKey(new URL("http://example.com/a")),
+                Downloader.hostKey(new URL("http://example.com:80/b")));
+        Assertions.assertNotEquals(Downloader.hostKey(new URL("http://example.com/a")),
+                Downloader.hostKey(new URL("http://example.com:8080/a")));
+    }
+
+    @Test
+    public void testUncheckedFailure() throws Exception {
+        final var options = DownloadOptions.builder().listener((downloaded, total) -> {
+            throw new IllegalStateException("listener");
+        }).build();
+        try (var downloader = Downloader.builder().options(options).retries(0, Duration.ofMillis(1)).build()) {
+            final var future = downloader.download(url("/item"), workDir.resolve("item"));
+            final var ex = Assertions.assertThrows(CompletionException.class, future::join);
+            Assertions.assertInstanceOf(IllegalStateException.class, ex.getCause());
+            final var stats = downloader.getStats();
+            Assertions.assertEquals(0L, stats.completed());
+            Assertions.assertEquals(1L, stats.failed());
+            Assertions.assertTrue(stats.elapsed().toNanos() > 0);
+        }
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        final int current = active.incrementAndGet();
+        maxActive.accumulateAndGet(current, Math::max);
+        try {
+            final var path = exchange.getRequestURI().getPath();
+            if (path.equals("/missing") || (path.equals("/flaky") && flakyCalls.incrementAndGet() < 3)) {
+                exchange.sendResponseHeaders(path.equals("/missing") ? 404 : 503, -1);
+                exchange.close();
+                return;
+            }
+            Thread.sleep(path.startsWith("/slow") ? 200 : 5);
+            final byte[] body = ("content of " + path).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.SystemException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FileUtilDownloadTest {
+
+    private HttpServer server;
+    @TempDir
+    Path workDir;
+    private byte[] data;
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setup() throws IOException {
+        // random bytes are not valid text in any charset, any line or charset handling would corrupt them
+        data = new byte[1024 * 1024 + 123];
+        new Random(3).nextBytes(data);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/file.bin", this::serve);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testBinaryDownload() throws Exception {
+        final var dest = workDir.resolve("file.bin").toFile();
+        FileUtil.download(url("/file.bin"), dest);
+        Assertions.assertArrayEquals(data, Files.readAllBytes(dest.toPath()));
+        Assertions.assertTrue(ranges.isEmpty());
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        final var dest = Files.write(workDir.resolve("file.bin"), Arrays.copyOf(data, 1000));
+        final var progress = new AtomicLong();
+        final var options = DownloadOptions.builder().resume(true)
+                .listener((downloaded, total) -> {
+                    Assertions.assertEquals(data.length, total);
+                    progress.set(downloaded);
+                }).build();
+        final var result = FileUtil.download(url("/file.bin"), dest, options);
+        Assertions.assertEquals(data.length - 1000, result.bytes());
+        Assertions.assertEquals(data.length, progress.get());
+        Assertions.assertEquals(List.of("bytes=1000-"), ranges);
+        Assertions.assertArrayEquals(data, Files.readAllBytes(dest));
+
+        // complete file is not downloaded again
+        Assertions.assertEquals(0, FileUtil.download(url("/file.bin"), dest, options).bytes());
+    }
+
+    @Test
+    public void testResumeWithoutLength() throws Exception {
+        final var dest = Files.write(workDir.resolve("file.bin"), data);
+        final var options = DownloadOptions.builder().resume(true).build();
+        // length unknown up front, the server rejects the range of a complete file
+        Assertions.assertEquals(0, FileUtil.download(url("/file.bin?noLength"), dest, options).bytes());
+        Assertions.assertEquals(List.of("bytes=" + data.length + "-"), ranges);
+        Assertions.assertArrayEquals(data, Files.readAllBytes(dest));
+
+        // local file longer than the remote one is downloaded again
+        Files.write(dest, Arrays.copyOf(data, data.length + 10));
+        Assertions.assertEquals(data.length, FileUtil.download(url("/file.bin?noLength"), dest, options).bytes());
+        Assertions.assertArrayEquals(data, Files.readAllBytes(dest));
+    }
+
+    @Test
+    public void testResumeChangedFile() throws Exception {
+        final var dest = Files.write(workDir.resolve("file.bin"), new byte[1000]);
+        final var options = DownloadOptions.builder().resume(true).build();
+        // stale validator, server answers with the whole file
+        data[0]++;
+        Assertions.assertEquals(data.length, FileUtil.download(url("/file.bin?stale"), dest, options).bytes());
+        Assertions.assertArrayEquals(data, Files.readAllBytes(dest));
+    }
+
+    @Test
+    public void testParallelSegments() throws Exception {
+        final var dest = workDir.resolve("file.bin");
+        final var progress = new AtomicLong();
+        final var options = DownloadOptions.builder().segments(4).minSegmentSize(64 * 1024)
+                .listener((downloaded, total) -> progress.accumulateAndGet(downloaded, Math::max)).build();
+        final var result = FileUtil.download(url("/file.bin"), dest, options);
+        Assertions.assertEquals(data.length, result.bytes());
+        Assertions.assertEquals(data.length, progress.get());
+        Assertions.assertEquals(4, ranges.size());
+        Assertions.assertArrayEquals(data, Files.readAllBytes(dest));
+    }
+
+    @Test
+    public void testFailedSegments() throws Exception {
+        final var dest = workDir.resolve("file.bin");
+        final var segmented = DownloadOptions.builder().resume(true).segments(4).minSegmentSize(64 * 1024).build();
+        Assertions.assertThrows(SystemException.class, () -> FileUtil.download(url("/file.bin?failRange"), dest,
+                segmented));
+        Assertions.assertFalse(Files.exists(dest));
+        Assertions.assertFalse(Files.exists(workDir.resolve("file.bin.part")));
+
+        // nothing to resume, the whole file is downloaded
+        final var resume = DownloadOptions.builder().resume(true).build();
+        Assertions.assertEquals(data.length, FileUtil.download(url("/file.bin"), dest, resume).bytes());
+        Assertions.assertArrayEquals(data, Files.readAllBytes(dest));
+    }
+
+    @Test
+    public void testResumeSegments() throws Exception {
+        final var dest = Files.write(workDir.resolve("file.bin"), Arrays.copyOf(data, 1000));
+        final var options = DownloadOptions.builder().resume(true).segments(4).minSegmentSize(64 * 1024).build();
+        Assertions.assertEquals(data.length - 1000, FileUtil.download(url("/file.bin"), dest, options).bytes());
+        Assertions.assertEquals(List.of("bytes=1000-"), ranges);
+        Assertions.assertArrayEquals(data, Files.readAllBytes(dest));
+    }
+
+    @Test
+    public void testNotFound() {
+        Assertions.assertThrows(SystemException.class,
+                () -> FileUtil.download(url("/missing.bin"), workDir.resolve("missing.bin"), DownloadOptions.defaults()));
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        final var etag = "\"" + Arrays.hashCode(data) + "\"";
+        final var headers = exchange.getResponseHeaders();
+        headers.set("Accept-Ranges", "bytes");
+        headers.set("ETag", etag);
+        final boolean head = "HEAD".equals(exchange.getRequestMethod());
+        final var range = exchange.getRequestHeaders().getFirst("Range");
+        final var ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        final boolean stale = "stale".equals(exchange.getRequestURI().getQuery()) && !head;
+        if ("failRange".equals(exchange.getRequestURI().getQuery()) && !head && range != null
+                && !range.startsWith("bytes=0-")) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        int from = 0;
+        int to = data.length - 1;
+        int code = 200;
+        if (range != null && (ifRange == null || (ifRange.equals(etag) && !stale))) {
+            ranges.add(range);
+            final String[] bounds = range.substring("bytes=".length()).split("-", -1);
+            from = Integer.parseInt(bounds[0]);
+            if (!bounds[1].isEmpty()) {
+                to = Integer.parseInt(bounds[1]);
+            }
+            if (from >= data.length) {
+                headers.set("Content-Range", "bytes */" + data.length);
+                exchange.sendResponseHeaders(416, -1);
+                exchange.close();
+                return;
+            }
+            code = 206;
+            headers.set("Content-Range", "bytes " + from + "-" + to + "/" + data.length);
+        }
+        final int length = to - from + 1;
+        if (head) {
+            if (!"noLength".equals(exchange.getRequestURI().getQuery())) {
+                headers.set("Content-Length", String.valueOf(length));
+            }
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(code, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(data, from, length);
+        }
+    }
+}
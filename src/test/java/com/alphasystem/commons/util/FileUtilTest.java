@@ -0,0 +1,112 @@
+package com.alphasystem.commons.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+public class FileUtilTest {
+
+    @TempDir
+    Path workDir;
+    private byte[] data;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        data = new byte[3 * FileUtil.MAX_BUFFER_SIZE + 17];
+        new Random(11).nextBytes(data);
+    }
+
+    @Test
+    public void testCopyPath() throws IOException {
+        final var source = Files.write(workDir.resolve("source.bin"), data);
+        final var target = Files.write(workDir.resolve("target.bin"), new byte[data.length + 100]);
+        final var result = FileUtil.copy(source, target);
+        Assertions.assertEquals(data.length, result.bytes());
+        Assertions.assertTrue(result.throughput() > 0);
+        Assertions.assertArrayEquals(data, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testCopyOntoItself() throws IOException {
+        final var source = Files.write(workDir.resolve("source.bin"), data);
+        Assertions.assertEquals(0, FileUtil.copy(source, workDir.resolve(".").resolve("source.bin")).bytes());
+        final var link = Files.createLink(workDir.resolve("link.bin"), source);
+        Assertions.assertEquals(0, FileUtil.copy(source, link).bytes());
+        Assertions.assertArrayEquals(data, Files.readAllBytes(source));
+    }
+
+    @Test
+    public void testCopyChannelFromPosition() throws IOException {
+        final var source = Files.write(workDir.resolve("source.bin"), data);
+        final var out = new ByteArrayOutputStream();
+        try (FileChannel channel = FileChannel.open(source)) {
+            channel.position(10);
+            Assertions.assertEquals(data.length - 10, FileUtil.copy(channel, Channels.newChannel(out)).bytes());
+            Assertions.assertEquals(data.length, channel.position());
+        }
+        Assertions.assertArrayEquals(Arrays.copyOfRange(data, 10, data.length), out.toByteArray());
+    }
+
+    @Test
+    public void testCopyStreams() throws IOException {
+        final var out = new ByteArrayOutputStream();
+        Assertions.assertEquals(data.length, FileUtil.copy(new ByteArrayInputStream(data), out).bytes());
+        Assertions.assertArrayEquals(data, out.toByteArray());
+
+        final var source = Files.write(workDir.resolve("source.bin"), data);
+        final var target = workDir.resolve("target.bin");
+        try (InputStream in = new FileInputStream(source.toFile());
+             OutputStream fileOut = new FileOutputStream(target.toFile())) {
+            Assertions.assertEquals(data.length, FileUtil.copy(in, fileOut).bytes());
+        }
+        Assertions.assertArrayEquals(data, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testCopyChannelWithoutProgress() throws IOException {
+        final var source = Files.write(workDir.resolve("source.bin"), data);
+        final var out = new ByteArrayOutputStream();
+        final WritableByteChannel stalling = new WritableByteChannel() {
+
+            private final WritableByteChannel delegate = Channels.newChannel(out);
+            private int calls;
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                // every other write accepts nothing, as a full target would
+                return calls++ % 2 == 0 ? 0 : delegate.write(src);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (FileChannel channel = FileChannel.open(source)) {
+            Assertions.assertEquals(data.length, FileUtil.copy(channel, stalling).bytes());
+        }
+        Assertions.assertArrayEquals(data, out.toByteArray());
+
+        final Pipe pipe = Pipe.open();
+        try (FileChannel channel = FileChannel.open(source); var sink = pipe.sink(); var ignored = pipe.source()) {
+            sink.configureBlocking(false);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> FileUtil.copy(channel, sink));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.alphasystem.commons.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class IdGeneratorTest {
+
+    private static final String ID_PATTERN = "[0-9A-F]{8}";
+
+    @Test
+    public void testMixIsReversible() {
+        for (int value : new int[]{0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0x12345678}) {
+            Assertions.assertEquals(value, IdGenerator.unmix(IdGenerator.mix(value)));
+        }
+    }
+
+    @Test
+    public void testNextIdFormats() throws Exception {
+        Assertions.assertTrue(IdGenerator.nextId().matches(ID_PATTERN));
+
+        final char[] chars = new char[10];
+        Assertions.assertEquals(9, IdGenerator.nextId(chars, 1));
+        Assertions.assertEquals(0, chars[0]);
+        Assertions.assertEquals(0, chars[9]);
+        Assertions.assertTrue(new String(chars, 1, 8).matches(ID_PATTERN));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> IdGenerator.nextId(chars, 3));
+
+        final var builder = IdGenerator.nextId(new StringBuilder("id="));
+        Assertions.assertTrue(builder.toString().matches("id=" + ID_PATTERN));
+
+        final var buffer = ByteBuffer.allocate(9);
+        IdGenerator.nextId(buffer);
+        Assertions.assertEquals(8, buffer.position());
+        Assertions.assertTrue(new String(buffer.array(), 0, 8, StandardCharsets.US_ASCII).matches(ID_PATTERN));
+        Assertions.assertThrows(BufferOverflowException.class, () -> IdGenerator.nextId(buffer));
+
+        final var writer = IdGenerator.appendTo(new StringWriter());
+        Assertions.assertTrue(writer.toString().matches(ID_PATTERN));
+    }
+}
@@ -0,0 +1,104 @@
+package com.alphasystem.commons.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+public class JarResourceCacheTest {
+
+    @TempDir
+    Path workDir;
+    private Path jar;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        jar = workDir.resolve("resources.jar");
+        try (var jos = new JarOutputStream(new FileOutputStream(jar.toFile()))) {
+            for (String name : new String[]{"files/", "files/file1.txt", "files/sub-dir/", "files/sub-dir/file2.txt",
+                    "other/file3.txt"}) {
+                jos.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) {
+                    jos.write(name.getBytes());
+                }
+                jos.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneExtraction() throws Exception {
+        final var cache = new JarResourceCache(workDir.resolve("cache"));
+        final var executor = Executors.newFixedThreadPool(8);
+        try {
+            final var start = new CountDownLatch(1);
+            final List<Future<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final var name = i % 2 == 0 ? "files" : "/files/";
+                final Callable<Path> task = () -> {
+                    start.await();
+                    return cache.extract(jar, name);
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            final var paths = new HashSet<Path>();
+            for (Future<Path> future : futures) {
+                paths.add(future.get());
+            }
+            Assertions.assertEquals(1, paths.size());
+            Assertions.assertEquals(1, cache.getExtractions());
+            final var dir = paths.iterator().next();
+            Assertions.assertEquals("files/file1.txt", Files.readString(dir.resolve("file1.txt")));
+            Assertions.assertEquals("files/sub-dir/file2.txt", Files.readString(dir.resolve("sub-dir/file2.txt")));
+            Assertions.assertFalse(Files.exists(dir.resolve("file3.txt")));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCacheDirectoryIsReusedUntilJarChanges() throws Exception {
+        final var cacheDir = workDir.resolve("cache");
+        final var first = new JarResourceCache(cacheDir).extract(jar, "files");
+
+        // new JVM, same cache directory
+        final var restarted = new JarResourceCache(cacheDir);
+        Assertions.assertEquals(first, restarted.extract(jar, "files"));
+        Assertions.assertEquals(0, restarted.getExtractions());
+        Assertions.assertNotEquals(first, restarted.extract(jar, "other"));
+
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 10_000));
+        final var rebuilt = restarted.extract(jar, "files");
+        Assertions.assertNotEquals(first, rebuilt);
+        Assertions.assertEquals(2, restarted.getExtractions());
+        try (var files = Files.list(cacheDir)) {
+            // no temporary directories left behind
+            Assertions.assertEquals(3, files.count());
+        }
+    }
+
+    @Test
+    public void testMissingResourceDirectory() throws Exception {
+        final var cache = new JarResourceCache(null);
+        Assertions.assertThrows(IOException.class, () -> cache.extract(jar, "missing"));
+        // failure is not cached
+        Assertions.assertThrows(IOException.class, () -> cache.extract(jar, "missing"));
+        Assertions.assertTrue(Files.isRegularFile(cache.extract(jar, "files").resolve("file1.txt")));
+    }
+}
@@ -0,0 +1,80 @@
+package com.alphasystem.commons.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+public class LongIdGeneratorTest {
+
+    @Test
+    public void testMixIsReversible() {
+        final var random = new Random(7);
+        for (long value : new long[]{0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            Assertions.assertEquals(value, LongIdGenerator.unmix64(LongIdGenerator.mix64(value)));
+        }
+        for (int i = 0; i < 100_000; i++) {
+            final long value = random.nextLong();
+            Assertions.assertEquals(value, LongIdGenerator.unmix64(LongIdGenerator.mix64(value)));
+        }
+        Assertions.assertNotEquals(1L, LongIdGenerator.mix64(1L) - LongIdGenerator.mix64(0L));
+    }
+
+    @Test
+    public void testNextIds() {
+        final var generator = new LongIdGenerator(Long.MAX_VALUE - 100, 16);
+        final Set<Long> ids = new HashSet<>();
+        final long[] out = new long[40];
+        for (int count : new int[]{0, 1, 5, 15, 16, 17, 40}) {
+            generator.nextIds(count, out);
+            for (int i = 0; i < count; i++) {
+                Assertions.assertTrue(ids.add(out[i]));
+            }
+            Assertions.assertTrue(ids.add(generator.next()));
+        }
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> generator.nextIds(41, out));
+    }
+
+    @Test
+    public void testUniqueAcrossThreads() throws Exception {
+        final var generator = new LongIdGenerator(0L, 64);
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final int threads = 8;
+        final int perThread = 50_000;
+        final var start = new CountDownLatch(1);
+        final var workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final boolean bulk = (t & 1) == 0;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                final long[] out = new long[100];
+                for (int i = 0; i < perThread; ) {
+                    if (bulk) {
+                        generator.nextIds(out.length, out);
+                        for (long id : out) {
+                            ids.add(id);
+                        }
+                        i += out.length;
+                    } else {
+                        ids.add(generator.next());
+                        i++;
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assertions.assertEquals(threads * perThread, ids.size());
+    }
+}
@@ -0,0 +1,109 @@
+package com.alphasystem.commons.util;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PasswordHasherTest {
+
+    private static final int THREADS = 64;
+    private static final int ITERATIONS = 500;
+
+    @Test
+    public void testKnownValues() {
+        // values produced by the original single cipher implementation
+        Assertions.assertEquals("Zf663HVwQmY=\n", PasswordHasher.encrypt("password"));
+        Assertions.assertEquals("Rvqq3WdrEzO5GQ==\n", PasswordHasher.encrypt("Secret#123"));
+        Assertions.assertEquals("password", PasswordHasher.decrypt("Zf663HVwQmY=\n", 8));
+    }
+
+    @Test
+    public void testByteArrayRoundTrip() {
+        final var input = "some password".getBytes();
+        final var cipherText = new byte[input.length];
+        Assertions.assertEquals(input.length, PasswordHasher.encrypt(input, 0, input.length, cipherText));
+        Assertions.assertEquals(Base64.encode(cipherText), PasswordHasher.encrypt("some password"));
+
+        final var plainText = new byte[input.length];
+        Assertions.assertEquals(input.length, PasswordHasher.decrypt(cipherText, 0, cipherText.length, plainText));
+        Assertions.assertArrayEquals(input, plainText);
+    }
+
+    @Test
+    public void testAesGcmEngine() {
+        final var engine = CipherEngine.aesGcm(new byte[32]);
+        final var first = PasswordHasher.encrypt("päss wörd", engine);
+        final var second = PasswordHasher.encrypt("päss wörd", engine);
+        Assertions.assertNotEquals(first, second);
+        Assertions.assertEquals("päss wörd", PasswordHasher.decrypt(first, engine));
+        Assertions.assertEquals("päss wörd", PasswordHasher.decrypt(second, engine));
+
+        final var tampered = Base64.decode(first);
+        tampered[tampered.length - 1] ^= 1;
+        Assertions.assertThrows(RuntimeException.class, () -> engine.decrypt(tampered));
+        Assertions.assertThrows(RuntimeException.class,
+                () -> PasswordHasher.decrypt(first, CipherEngine.aesGcm(new byte[16])));
+    }
+
+    @Test
+    public void testLegacyEngine() {
+        Assertions.assertEquals("password", PasswordHasher.decrypt("Zf663HVwQmY=\n", CipherEngine.legacy()));
+        final var engine = JceCipherEngine.builder().transformation("AES/CTR/NoPadding")
+                .key(new SecretKeySpec(new byte[16], "AES")).randomIv(16).build();
+        Assertions.assertEquals("secret", PasswordHasher.decrypt(PasswordHasher.encrypt("secret", engine), engine));
+        Assertions.assertThrows(IllegalStateException.class, () -> JceCipherEngine.builder().fixedIv(new byte[12])
+                .key(new SecretKeySpec(new byte[16], "AES")).build());
+    }
+
+    @Test
+    public void testEncryptAll() {
+        final var passwords = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++) {
+            passwords.add(RandomStringUtils.randomAlphanumeric(1 + i % 20));
+        }
+        final var legacy = PasswordHasher.encryptAll(passwords);
+        final var engine = CipherEngine.aesGcm(new byte[16]);
+        final var reEncrypted = PasswordHasher.encryptAll(passwords, engine);
+        for (int i = 0; i < passwords.size(); i++) {
+            Assertions.assertEquals(PasswordHasher.encrypt(passwords.get(i)), legacy.get(i));
+            Assertions.assertEquals(passwords.get(i), PasswordHasher.decrypt(reEncrypted.get(i), engine));
+        }
+    }
+
+    @Test
+    public void testConcurrentRoundTrips() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final var start = new CountDownLatch(1);
+        try {
+            final var futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int j = 0; j < ITERATIONS; j++) {
+                        final var password = RandomStringUtils.randomAscii(1 + j % 40);
+                        final var encrypted = PasswordHasher.encrypt(password);
+                        Assertions.assertEquals(password, PasswordHasher.decrypt(encrypted, password.length()));
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                Assertions.assertEquals(ITERATIONS, future.get(2, TimeUnit.MINUTES).intValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.alphasystem.commons.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+public class PasswordHashingTest {
+
+    private static final char[] PASSWORD = "correct horse battery staple".toCharArray();
+
+    // low cost to keep the test fast
+    private static final PasswordHashing PBKDF2 = PasswordHashing.pbkdf2(1000);
+    private static final PasswordHashing SCRYPT = PasswordHashing.scrypt(10, 8, 1);
+    private static final PasswordHashing ARGON2 = PasswordHashing.argon2id(1024, 1, 1);
+
+    @Test
+    public void testHashAndVerify() {
+        for (PasswordHashing hashing : new PasswordHashing[]{PBKDF2, SCRYPT, ARGON2}) {
+            final var hash = hashing.hash(PASSWORD);
+            Assertions.assertTrue(hash.startsWith(hashing.toString() + "$"), hash);
+            Assertions.assertNotEquals(hash, hashing.hash(PASSWORD));
+            Assertions.assertTrue(hashing.verify(PASSWORD, hash), hash);
+            Assertions.assertFalse(hashing.verify("wrong".toCharArray(), hash), hash);
+            // any instance can verify any hash
+            Assertions.assertTrue(PasswordHashing.defaults().verify(PASSWORD, hash), hash);
+        }
+        Assertions.assertEquals("$argon2id$v=19$m=1024,t=1,p=1", ARGON2.toString());
+        Assertions.assertEquals("$scrypt$ln=10,r=8,p=1", SCRYPT.toString());
+        Assertions.assertEquals("$pbkdf2-sha256$i=1000", PBKDF2.toString());
+    }
+
+    @Test
+    public void testKnownArgon2Hash() {
+        // produced by the reference implementation: echo -n password | argon2 somesalt -id -t 2 -m 16 -p 1 -l 32
+        final var hash = "$argon2id$v=19$m=65536,t=2,p=1$c29tZXNhbHQ$CTFhFdXPJO1aFaMaO6Mm5c8y7cJHAph8ArZWb2GRPPc";
+        Assertions.assertTrue(PasswordHashing.defaults().verify("password".toCharArray(), hash));
+        Assertions.assertFalse(PasswordHashing.defaults().verify("passwort".toCharArray(), hash));
+    }
+
+    @Test
+    public void testNeedsRehash() {
+        final var hash = PBKDF2.hash(PASSWORD);
+        Assertions.assertFalse(PBKDF2.needsRehash(hash));
+        Assertions.assertTrue(PasswordHashing.pbkdf2(2000).needsRehash(hash));
+        Assertions.assertTrue(ARGON2.needsRehash(hash));
+        Assertions.assertTrue(ARGON2.needsRehash("not a hash"));
+        for (String malformed : new String[]{"$", "$$", "$pbkdf2-sha256"}) {
+            Assertions.assertTrue(ARGON2.needsRehash(malformed), malformed);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> PBKDF2.verify(PASSWORD, malformed));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ARGON2.verify(PASSWORD, "$md5$x$y"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ARGON2.verify(PASSWORD, "$argon2id$v=19$m=1$a$b"));
+    }
+
+    @Test
+    public void testVerifierBackpressure() {
+        final var hash = SCRYPT.hash(PASSWORD);
+        try (var verifier = new PasswordVerifier(SCRYPT, 1, 2)) {
+            final var futures = new ArrayList<CompletableFuture<Boolean>>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(verifier.verify(PASSWORD, hash));
+            }
+            int verified = 0;
+            int rejected = 0;
+            for (CompletableFuture<Boolean> future : futures) {
+                try {
+                    Assertions.assertTrue(future.join());
+                    verified++;
+                } catch (CompletionException ex) {
+                    Assertions.assertTrue(ex.getCause() instanceof RejectedExecutionException);
+                    rejected++;
+                }
+            }
+            Assertions.assertTrue(verified >= 3, "verified " + verified);
+            Assertions.assertTrue(rejected > 0, "rejected " + rejected);
+        }
+    }
+}
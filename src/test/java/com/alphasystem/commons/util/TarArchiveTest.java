@@ -0,0 +1,83 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.SystemException;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class TarArchiveTest {
+
+    @TempDir
+    Path workDir;
+    private File sourceDir;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        sourceDir = workDir.resolve("source").toFile();
+        final var random = new Random(7);
+        // long names need the POSIX extension
+        final var subDir = new File(sourceDir, "sub-dir/" + "x".repeat(120));
+        Files.createDirectories(subDir.toPath());
+        for (int i = 0; i < 10; i++) {
+            final var data = new byte[i * 40_000];
+            random.nextBytes(data);
+            for (int j = 0; j < data.length; j += 2) {
+                data[j] = 'a';
+            }
+            Files.write(new File(i % 2 == 0 ? sourceDir : subDir, "file-" + i + ".bin").toPath(), data);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        long plain = 0;
+        for (TarArchive.Codec codec : TarArchive.Codec.values()) {
+            if (!codec.isAvailable()) {
+                continue;
+            }
+            final var archive = workDir.resolve("archive" + codec.getExtension()).toFile();
+            TarArchive.write(new File[]{sourceDir}, archive, codec);
+            if (codec == TarArchive.Codec.NONE) {
+                plain = archive.length();
+            } else {
+                Assertions.assertTrue(archive.length() < plain, codec.name());
+            }
+
+            final var extracted = workDir.resolve("extracted-" + codec).toFile();
+            Assertions.assertEquals(13, TarArchive.extract(archive, extracted));
+            for (File file : FileUtils.listFiles(sourceDir, null, true)) {
+                final var relative = sourceDir.getParentFile().toPath().relativize(file.toPath());
+                final var target = extracted.toPath().resolve(relative);
+                Assertions.assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(target),
+                        codec + " " + relative);
+                Assertions.assertEquals(file.lastModified() / 1000, target.toFile().lastModified() / 1000);
+            }
+        }
+    }
+
+    @Test
+    public void testExtractRejectsEntriesOutsideOutDir() throws Exception {
+        final var archive = workDir.resolve("evil.tar").toFile();
+        try (var tos = new TarArchiveOutputStream(new FileOutputStream(archive))) {
+            final var entry = new TarArchiveEntry("../evil.txt");
+            entry.setSize(4);
+            tos.putArchiveEntry(entry);
+            tos.write("evil".getBytes());
+            tos.closeArchiveEntry();
+        }
+        Assertions.assertThrows(SystemException.class,
+                () -> TarArchive.extract(archive, workDir.resolve("extracted").toFile()));
+        Assertions.assertFalse(Files.exists(workDir.resolve("evil.txt")));
+    }
+}
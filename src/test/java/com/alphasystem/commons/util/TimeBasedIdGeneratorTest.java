@@ -0,0 +1,111 @@
+package com.alphasystem.commons.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TimeBasedIdGeneratorTest {
+
+    private static final long NOW = 1700000000000L;
+
+    @Test
+    public void testLayout() {
+        final var generator = TimeBasedIdGenerator.builder().nodeId(513).clock(() -> NOW).build();
+        final long first = generator.next();
+        final long second = generator.next();
+        Assertions.assertEquals(Instant.ofEpochMilli(NOW), generator.timestampOf(first));
+        Assertions.assertEquals(513, generator.nodeIdOf(first));
+        Assertions.assertEquals(0, generator.sequenceOf(first));
+        Assertions.assertEquals(1, generator.sequenceOf(second));
+        Assertions.assertEquals(NOW - TimeBasedIdGenerator.DEFAULT_EPOCH, first >>> 22);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TimeBasedIdGenerator.builder().nodeId(1024).build());
+    }
+
+    @Test
+    public void testSequenceOverflowAndClockRegression() {
+        final var clock = new AtomicLong(NOW);
+        final var generator = TimeBasedIdGenerator.builder().nodeId(1).clock(clock::get)
+                .maxClockDrift(Duration.ofSeconds(10)).build();
+        long previous = generator.next();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5000) {
+                clock.addAndGet(-20);
+            }
+            final long id = generator.next();
+            Assertions.assertTrue(id > previous);
+            previous = id;
+        }
+        // 10001 ids with 4096 per millisecond borrowed two milliseconds
+        Assertions.assertEquals(Instant.ofEpochMilli(NOW + 2), generator.timestampOf(previous));
+        clock.set(NOW + 100);
+        Assertions.assertEquals(Instant.ofEpochMilli(NOW + 100), generator.timestampOf(generator.next()));
+    }
+
+    @Test
+    public void testUuidAndUlid() {
+        final var generator = TimeBasedIdGenerator.builder().nodeId(7).clock(() -> NOW).build();
+        final UUID uuid = generator.nextUuid();
+        Assertions.assertEquals(7, uuid.version());
+        Assertions.assertEquals(2, uuid.variant());
+        Assertions.assertEquals(NOW, uuid.getMostSignificantBits() >>> 16);
+
+        String previous = TimeBasedIdGenerator.formatUlid(uuid);
+        for (int i = 0; i < 70_000; i++) {
+            final String ulid = generator.nextUlid();
+            Assertions.assertTrue(ulid.compareTo(previous) > 0, ulid + " <= " + previous);
+            previous = ulid;
+        }
+
+        Assertions.assertEquals("00000000000000000000000000", TimeBasedIdGenerator.formatUlid(new UUID(0, 0)));
+        Assertions.assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", TimeBasedIdGenerator.formatUlid(new UUID(-1, -1)));
+        // timestamp part of the example in the ULID specification
+        Assertions.assertEquals("01ARZ3NDEK", TimeBasedIdGenerator.formatUlid(new UUID(1469922850259L << 16, 0))
+                .substring(0, 10));
+    }
+
+    @Test
+    public void testUniqueAcrossThreads() throws Exception {
+        final var generator = TimeBasedIdGenerator.builder().nodeId(0).build();
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final Set<String> ulids = ConcurrentHashMap.newKeySet();
+        final int threads = 8;
+        final int perThread = 20_000;
+        final var start = new CountDownLatch(1);
+        final var failures = new AtomicLong();
+        final var workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                long previous = Long.MIN_VALUE;
+                for (int i = 0; i < perThread; i++) {
+                    final long id = generator.next();
+                    if (id <= previous) {
+                        failures.incrementAndGet();
+                    }
+                    previous = id;
+                    ids.add(id);
+                    ulids.add(generator.nextUlid());
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assertions.assertEquals(0L, failures.get());
+        Assertions.assertEquals(threads * perThread, ids.size());
+        Assertions.assertEquals(threads * perThread, ulids.size());
+    }
+}
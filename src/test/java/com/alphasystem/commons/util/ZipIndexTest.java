@@ -0,0 +1,219 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.SystemException;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+public class ZipIndexTest {
+
+    @TempDir
+    Path workDir;
+    private Path archive;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        archive = workDir.resolve("archive.zip");
+        try (ZipWriter zip = ZipWriter.to(Files.newOutputStream(archive))) {
+            zip.addDirectory("dir");
+            for (int i = 0; i < 2000; i++) {
+                final var source = ZipWriter.Source.of(content(i));
+                if (i % 2 == 0) {
+                    zip.addStored("dir/stored-" + i + ".txt", source);
+                } else {
+                    zip.add("dir/deflated-" + i + ".txt", source);
+                }
+            }
+            zip.add("ünïcode.txt", ZipWriter.Source.of(content(-1)));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ZipIndex.invalidate(archive);
+    }
+
+    @Test
+    public void testLookup() throws IOException {
+        final var index = ZipIndex.of(archive);
+        Assertions.assertEquals(2002, index.size());
+        Assertions.assertTrue(index.getEntry("dir/").isDirectory());
+        Assertions.assertNull(index.getEntry("dir/stored-1.txt"));
+        Assertions.assertNull(index.getInputStream("missing"));
+        for (int i = 0; i < 2000; i++) {
+            final String name = (i % 2 == 0 ? "dir/stored-" : "dir/deflated-") + i + ".txt";
+            final var entry = index.getEntry(name);
+            Assertions.assertEquals(content(i).length, entry.size(), name);
+            Assertions.assertEquals(i % 2 == 0 ? ZipEntry.STORED : ZipEntry.DEFLATED, entry.method());
+            try (InputStream in = index.getInputStream(name)) {
+                Assertions.assertArrayEquals(content(i), IOUtils.toByteArray(in), name);
+            }
+        }
+        try (InputStream in = index.getInputStream("ünïcode.txt")) {
+            Assertions.assertArrayEquals(content(-1), IOUtils.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testStoredSlice() throws IOException {
+        final var index = ZipIndex.of(archive);
+        final ByteBuffer slice = index.slice("dir/stored-42.txt");
+        Assertions.assertTrue(slice.isReadOnly());
+        Assertions.assertEquals(ByteBuffer.wrap(content(42)), slice);
+        Assertions.assertThrows(ZipException.class, () -> index.slice("dir/deflated-43.txt"));
+    }
+
+    @Test
+    public void testCacheInvalidation() throws IOException {
+        final var index = ZipIndex.of(archive);
+        Assertions.assertSame(index, ZipIndex.of(workDir.resolve(".").resolve("archive.zip")));
+
+        // replace atomically, the old file stays mapped
+        final Path replacement = workDir.resolve("replacement.zip");
+        try (ZipWriter zip = ZipWriter.to(Files.newOutputStream(replacement))) {
+            zip.add("other.txt", ZipWriter.Source.of(content(7)));
+        }
+        Files.setLastModifiedTime(replacement, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        Files.move(replacement, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        final var reopened = ZipIndex.of(archive);
+        Assertions.assertNotSame(index, reopened);
+        Assertions.assertEquals(1, reopened.size());
+        // buffers of the old index stay usable
+        Assertions.assertEquals(ByteBuffer.wrap(content(2)), index.slice("dir/stored-2.txt"));
+    }
+
+    @Test
+    public void testCloseSharedInstance() throws IOException {
+        try (ZipIndex index = ZipIndex.of(archive)) {
+            Assertions.assertTrue(index.contains("dir/"));
+        }
+        final var index = ZipIndex.of(archive);
+        ZipIndex.invalidate(archive);
+        try (InputStream in = index.getInputStream("dir/deflated-1.txt")) {
+            Assertions.assertArrayEquals(content(1), IOUtils.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testCacheBound() throws IOException {
+        final List<Path> archives = new ArrayList<>();
+        for (int i = 0; i <= ZipIndex.MAX_CACHED; i++) {
+            final Path path = workDir.resolve("cached-" + i + ".zip");
+            try (ZipWriter zip = ZipWriter.to(Files.newOutputStream(path))) {
+                zip.add("entry", ZipWriter.Source.of(content(i)));
+            }
+            archives.add(path);
+        }
+        try {
+            final var first = ZipIndex.of(archives.get(0));
+            for (Path path : archives) {
+                ZipIndex.of(path);
+            }
+            Assertions.assertTrue(ZipIndex.cacheSize() <= ZipIndex.MAX_CACHED);
+            Assertions.assertNotSame(first, ZipIndex.of(archives.get(0)));
+        } finally {
+            archives.forEach(ZipIndex::invalidate);
+        }
+    }
+
+    @Test
+    public void testLegacyNames() throws IOException {
+        final Path legacy = workDir.resolve("legacy.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(legacy), Charset.forName("IBM437"))) {
+            for (String name : new String[]{"café.txt", "plain.txt"}) {
+                zos.putNextEntry(new ZipEntry(name));
+                zos.write(content(name.length()));
+                zos.closeEntry();
+            }
+        }
+        try (ZipIndex index = ZipIndex.open(legacy, Charset.forName("IBM437"))) {
+            Assertions.assertTrue(index.contains("café.txt"));
+            Assertions.assertTrue(index.contains("plain.txt"));
+            try (InputStream in = index.getInputStream("café.txt")) {
+                Assertions.assertArrayEquals(content(8), IOUtils.toByteArray(in));
+            }
+        }
+        try (ZipIndex index = ZipIndex.open(legacy)) {
+            Assertions.assertFalse(index.contains("café.txt"));
+            Assertions.assertTrue(index.contains("plain.txt"));
+        }
+        // names flagged as UTF-8 are found whatever the charset
+        try (ZipIndex index = ZipIndex.open(archive, Charset.forName("IBM437"))) {
+            Assertions.assertTrue(index.contains("ünïcode.txt"));
+        }
+    }
+
+    @Test
+    public void testEncryptedEntry() throws IOException {
+        final Path encrypted = workDir.resolve("encrypted.zip");
+        try (ZipWriter zip = ZipWriter.to(Files.newOutputStream(encrypted))) {
+            zip.addStored("secret.txt", ZipWriter.Source.of(content(3)));
+        }
+        // set the encryption flag in the local and the central header
+        final byte[] bytes = Files.readAllBytes(encrypted);
+        bytes[6] |= 1;
+        for (int i = bytes.length - 4; i >= 0; i--) {
+            if (bytes[i] == 'P' && bytes[i + 1] == 'K' && bytes[i + 2] == 1 && bytes[i + 3] == 2) {
+                bytes[i + 8] |= 1;
+            }
+        }
+        Files.write(encrypted, bytes);
+        try (ZipIndex index = ZipIndex.open(encrypted)) {
+            Assertions.assertTrue(index.contains("secret.txt"));
+            Assertions.assertThrows(ZipException.class, () -> index.getInputStream("secret.txt"));
+            Assertions.assertThrows(ZipException.class, () -> index.slice("secret.txt"));
+        }
+    }
+
+    @Test
+    public void testZip64() throws IOException {
+        final Path zip64 = workDir.resolve("zip64.zip");
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(zip64.toFile())) {
+            zos.setUseZip64(Zip64Mode.Always);
+            for (int i = 0; i < 3; i++) {
+                zos.putArchiveEntry(new ZipArchiveEntry("entry-" + i));
+                zos.write(content(i));
+                zos.closeArchiveEntry();
+            }
+        }
+        try (ZipIndex index = ZipIndex.open(zip64)) {
+            Assertions.assertEquals(3, index.size());
+            try (InputStream in = index.getInputStream("entry-2")) {
+                Assertions.assertArrayEquals(content(2), IOUtils.toByteArray(in));
+            }
+        }
+    }
+
+    @Test
+    public void testExtractFile() throws Exception {
+        final Path target = workDir.resolve("extracted.txt");
+        ZipUtil.extractFile(archive.toString(), "dir/deflated-99.txt", target.toFile());
+        Assertions.assertArrayEquals(content(99), Files.readAllBytes(target));
+        Assertions.assertThrows(SystemException.class,
+                () -> ZipUtil.extractFile(archive.toString(), "missing", target.toFile()));
+    }
+
+    private static byte[] content(int i) {
+        return ("content of entry " + i + "\n").repeat(1 + Math.abs(i) % 50).getBytes();
+    }
+}
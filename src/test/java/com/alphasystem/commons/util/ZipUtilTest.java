@@ -0,0 +1,259 @@
+package com.alphasystem.commons.util;
+
+import com.alphasystem.commons.SystemException;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+public class ZipUtilTest {
+
+    @TempDir
+    Path workDir;
+    private File sourceDir;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        sourceDir = workDir.resolve("source").toFile();
+        final var random = new Random(5);
+        final var subDir = new File(sourceDir, "sub-dir");
+        Files.createDirectories(subDir.toPath());
+        // sizes around the in memory limit of the parallel archiver
+        final int[] sizes = {0, 1, 4096, ParallelZipArchiver.IN_MEMORY_LIMIT, 3 * ParallelZipArchiver.IN_MEMORY_LIMIT};
+        for (int i = 0; i < 30; i++) {
+            final var data = new byte[sizes[i % sizes.length]];
+            random.nextBytes(data);
+            for (int j = 0; j < data.length; j += 4) {
+                data[j] = 'z';
+            }
+            Files.write(new File(i % 2 == 0 ? sourceDir : subDir, "file-" + i + ".bin").toPath(), data);
+        }
+    }
+
+    @Test
+    public void testArchiveFileParallel() throws Exception {
+        final var sequential = workDir.resolve("sequential.zip").toFile();
+        final var parallel = workDir.resolve("parallel.zip").toFile();
+        ZipUtil.archiveFile(sourceDir, sequential);
+        ZipUtil.archiveFileParallel(new File[]{sourceDir}, parallel, 4, 6);
+
+        Assertions.assertEquals(entryNames(sequential), entryNames(parallel));
+        final var extracted = workDir.resolve("extracted").toFile();
+        ZipUtil.extractZipFile(extracted, parallel.getAbsolutePath());
+        for (File file : FileUtils.listFiles(sourceDir, null, true)) {
+            final var relative = sourceDir.getParentFile().toPath().relativize(file.toPath());
+            Assertions.assertArrayEquals(Files.readAllBytes(file.toPath()),
+                    Files.readAllBytes(extracted.toPath().resolve(relative)), relative.toString());
+        }
+
+        // output only depends on input, not on scheduling
+        final var again = workDir.resolve("again.zip").toFile();
+        ZipUtil.archiveFileParallel(new File[]{sourceDir}, again, 2, 6);
+        Assertions.assertArrayEquals(Files.readAllBytes(parallel.toPath()), Files.readAllBytes(again.toPath()));
+    }
+
+    @Test
+    public void testExtractZipFileParallel() throws Exception {
+        final var archive = workDir.resolve("archive.zip").toFile();
+        ZipUtil.archiveFile(sourceDir, archive);
+        final var extracted = workDir.resolve("extracted").toFile();
+        final var result = ZipUtil.extractZipFileParallel(extracted, archive.getAbsolutePath(), 3);
+        Assertions.assertTrue(result.isSuccessful(), result.failures().toString());
+        Assertions.assertEquals(entryNames(archive).size(), result.entries().size());
+        long bytes = 0;
+        for (File file : FileUtils.listFiles(sourceDir, null, true)) {
+            final var relative = sourceDir.getParentFile().toPath().relativize(file.toPath());
+            final var target = extracted.toPath().resolve(relative);
+            Assertions.assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(target));
+            bytes += file.length();
+        }
+        Assertions.assertEquals(bytes, result.bytes());
+    }
+
+    @Test
+    public void testExtractZipFileParallelReportsFailures() throws Exception {
+        final var archive = workDir.resolve("evil.zip").toFile();
+        try (var zos = new ZipOutputStream(new FileOutputStream(archive))) {
+            for (String name : new String[]{"good.txt", "../evil.txt", "dir/../../evil2.txt"}) {
+                zos.putNextEntry(new ZipEntry(name));
+                zos.write(name.getBytes());
+                zos.closeEntry();
+            }
+        }
+        final var extracted = workDir.resolve("extracted").toFile();
+        final var result = ZipUtil.extractZipFileParallel(extracted, archive.getAbsolutePath(), 2);
+        Assertions.assertFalse(result.isSuccessful());
+        Assertions.assertEquals(Set.of("good.txt"), result.entries().keySet());
+        Assertions.assertEquals(Set.of("../evil.txt", "dir/../../evil2.txt"), result.failures().keySet());
+        Assertions.assertFalse(Files.exists(workDir.resolve("evil.txt")));
+        Assertions.assertFalse(Files.exists(workDir.resolve("evil2.txt")));
+
+        Assertions.assertThrows(SystemException.class,
+                () -> ZipUtil.extractZipFileParallel(extracted, workDir.resolve("missing.zip").toString()));
+    }
+
+    @Test
+    public void testUpdateArchive() throws Exception {
+        final var archive = workDir.resolve("archive.zip").toFile();
+        ZipUtil.archiveFile(sourceDir, archive);
+        final int entries = entryNames(archive).size();
+
+        // entry times of archiveFile are not file times, CRC proves content is unchanged
+        var result = ZipUtil.updateArchive(new File[]{sourceDir}, archive);
+        Assertions.assertEquals(entries, result.unchanged());
+        Assertions.assertEquals(0, result.added() + result.updated() + result.removed());
+
+        Files.write(new File(sourceDir, "file-0.bin").toPath(), "changed".getBytes());
+        Files.delete(new File(sourceDir, "sub-dir/file-1.bin").toPath());
+        Files.write(new File(sourceDir, "sub-dir/new.txt").toPath(), "new".getBytes());
+        result = ZipUtil.updateArchive(new File[]{sourceDir}, archive);
+        Assertions.assertEquals(1, result.added());
+        Assertions.assertEquals(1, result.updated());
+        Assertions.assertEquals(1, result.removed());
+        Assertions.assertEquals(entries - 2, result.unchanged());
+
+        final var expected = workDir.resolve("expected.zip").toFile();
+        ZipUtil.archiveFile(sourceDir, expected);
+        Assertions.assertEquals(entryNames(expected), entryNames(archive));
+        final var extracted = workDir.resolve("extracted").toFile();
+        Assertions.assertTrue(ZipUtil.extractZipFileParallel(extracted, archive.getAbsolutePath()).isSuccessful());
+        for (File file : FileUtils.listFiles(sourceDir, null, true)) {
+            final var relative = sourceDir.getParentFile().toPath().relativize(file.toPath());
+            Assertions.assertArrayEquals(Files.readAllBytes(file.toPath()),
+                    Files.readAllBytes(extracted.toPath().resolve(relative)), relative.toString());
+        }
+
+        result = ZipUtil.updateArchive(new File[]{sourceDir}, archive);
+        Assertions.assertEquals(entries, result.unchanged());
+
+        final var created = workDir.resolve("created.zip").toFile();
+        Assertions.assertEquals(entries, ZipUtil.updateArchive(new File[]{sourceDir}, created).added());
+    }
+
+    @Test
+    public void testUpdateArchiveKeepsPermissions() throws Exception {
+        final var archive = workDir.resolve("archive.zip");
+        ZipUtil.archiveFile(sourceDir, archive.toFile());
+        Assumptions.assumeTrue(Files.getFileStore(archive).supportsFileAttributeView(PosixFileAttributeView.class));
+        final var permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(archive, permissions);
+
+        ZipUtil.updateArchive(new File[]{sourceDir}, archive.toFile());
+        Assertions.assertEquals(permissions, Files.getPosixFilePermissions(archive));
+        try (var files = Files.list(workDir)) {
+            Assertions.assertEquals(List.of(archive), files.filter(file -> !Files.isDirectory(file)).toList());
+        }
+    }
+
+    @Test
+    public void testExtractFileKeepsArchiveOpen() throws Exception {
+        final var archive = workDir.resolve("archive.zip").toFile();
+        final var first = new File(sourceDir, "file-2.bin");
+        final var target = workDir.resolve("extracted.bin").toFile();
+        ZipUtil.archiveFile(first, archive);
+        try {
+            ZipUtil.extractFile(archive.getPath(), "file-2.bin", target);
+            Assertions.assertArrayEquals(Files.readAllBytes(first.toPath()), Files.readAllBytes(target.toPath()));
+            Assertions.assertEquals(1, ZipFileCache.size());
+            Assertions.assertThrows(SystemException.class,
+                    () -> ZipUtil.extractFile(archive.getPath(), "missing", target));
+
+            // rewritten in place, the new content is read
+            final var second = new File(sourceDir, "file-4.bin");
+            Files.copy(second.toPath(), workDir.resolve("file-2.bin"));
+            ZipUtil.archiveFile(workDir.resolve("file-2.bin").toFile(), archive);
+            Assertions.assertEquals(0, ZipFileCache.size());
+            ZipUtil.extractFile(archive.getPath(), "file-2.bin", target);
+            Assertions.assertArrayEquals(Files.readAllBytes(second.toPath()), Files.readAllBytes(target.toPath()));
+        } finally {
+            ZipFileCache.evict(archive.toPath());
+        }
+    }
+
+    @Test
+    public void testZipFileCacheBound() throws Exception {
+        final List<Path> archives = new ArrayList<>();
+        for (int i = 0; i <= ZipFileCache.MAX_CACHED; i++) {
+            final var archive = workDir.resolve("archive-" + i + ".zip").toFile();
+            ZipUtil.archiveFile(new File(sourceDir, "file-2.bin"), archive);
+            archives.add(archive.toPath());
+        }
+        try (ZipFileCache.Handle handle = ZipFileCache.acquire(archives.get(0))) {
+            for (Path archive : archives) {
+                ZipUtil.extractFile(archive.toString(), "file-2.bin", workDir.resolve("extracted.bin").toFile());
+            }
+            Assertions.assertEquals(ZipFileCache.MAX_CACHED, ZipFileCache.size());
+            // evicted while in use, the zip file stays open for its handle
+            Assertions.assertNotNull(handle.getZipFile().getEntry("file-2.bin"));
+        } finally {
+            archives.forEach(ZipFileCache::evict);
+        }
+    }
+
+    @Test
+    public void testArchiveFileCompression() throws Exception {
+        Files.write(new File(sourceDir, "image.PNG").toPath(), new byte[5000]);
+        final var defaults = ZipCompression.defaults();
+        Assertions.assertEquals(ZipEntry.STORED, defaults.methodFor("dir/photo.jpg"));
+        Assertions.assertEquals(ZipEntry.DEFLATED, defaults.methodFor("dir.jpg/photo"));
+        Assertions.assertEquals(ZipEntry.DEFLATED, ZipCompression.deflate(9).methodFor("photo.jpg"));
+        Assertions.assertEquals(ZipEntry.STORED, defaults.withStoredExtensions("BIN").methodFor("file-1.bin"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ZipCompression.deflate(10));
+
+        final var sequential = workDir.resolve("sequential.zip").toFile();
+        final var parallel = workDir.resolve("parallel.zip").toFile();
+        final var updated = workDir.resolve("updated.zip").toFile();
+        ZipUtil.archiveFile(new File[]{sourceDir}, sequential, defaults.withLevel(1));
+        ZipUtil.archiveFileParallel(new File[]{sourceDir}, parallel, 2, defaults.withLevel(1));
+        ZipUtil.updateArchive(new File[]{sourceDir}, updated, defaults.withLevel(1));
+        for (File archive : new File[]{sequential, parallel, updated}) {
+            try (ZipFile zipFile = new ZipFile(archive)) {
+                Assertions.assertEquals(ZipEntry.STORED, zipFile.getEntry("source/image.PNG").getMethod());
+                Assertions.assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("source/file-2.bin").getMethod());
+            }
+            final var extracted = workDir.resolve("extracted-" + archive.getName()).toFile();
+            Assertions.assertTrue(ZipUtil.extractZipFileParallel(extracted, archive.getAbsolutePath()).isSuccessful());
+            for (File file : FileUtils.listFiles(sourceDir, null, true)) {
+                final var relative = sourceDir.getParentFile().toPath().relativize(file.toPath());
+                Assertions.assertArrayEquals(Files.readAllBytes(file.toPath()),
+                        Files.readAllBytes(extracted.toPath().resolve(relative)), relative.toString());
+            }
+        }
+
+        final var stored = workDir.resolve("stored.zip").toFile();
+        ZipUtil.archiveFile(new File[]{sourceDir}, stored, ZipCompression.stored());
+        try (ZipFile zipFile = new ZipFile(stored)) {
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                Assertions.assertEquals(ZipEntry.STORED, entry.getMethod(), entry.getName());
+            }
+        }
+    }
+
+    private static List<String> entryNames(File archive) throws IOException {
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            final List<String> names = new ArrayList<>();
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                names.add(entry.getName());
+            }
+            return names;
+        }
+    }
+}
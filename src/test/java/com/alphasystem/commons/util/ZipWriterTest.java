@@ -0,0 +1,142 @@
+package com.alphasystem.commons.util;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class ZipWriterTest {
+
+    @Test
+    public void testSources() throws IOException {
+        final Path file = Files.createTempFile("zip-writer-", ".txt");
+        try {
+            Files.writeString(file, "from path ".repeat(1000));
+            final byte[] random = new byte[200_000];
+            new Random(1).nextBytes(random);
+            final var direct = ByteBuffer.allocateDirect(5).put("bytes".getBytes()).flip();
+
+            final var out = new ByteArrayOutputStream();
+            try (ZipWriter zip = ZipWriter.to(out).level(1)) {
+                zip.add("path.txt", ZipWriter.Source.of(file))
+                        .addStored("random.bin", ZipWriter.Source.of(random))
+                        .addStored("direct.bin", ZipWriter.Source.of(direct))
+                        .add("stream.txt", ZipWriter.Source.of(new ByteArrayInputStream("stream".getBytes())), 9)
+                        .addDirectory("dir")
+                        .add("dir/supplier.txt", ZipWriter.Source.of(() -> new ByteArrayInputStream("supplier".getBytes())));
+                Assertions.assertThrows(IllegalArgumentException.class, () -> zip.addStored("x",
+                        ZipWriter.Source.of(new ByteArrayInputStream(new byte[1]))));
+            }
+            Assertions.assertEquals(5, direct.remaining());
+
+            final var entries = read(out.toByteArray());
+            Assertions.assertEquals("from path ".repeat(1000), text(entries, "path.txt"));
+            Assertions.assertArrayEquals(random, entries.get("random.bin"));
+            Assertions.assertEquals("bytes", text(entries, "direct.bin"));
+            Assertions.assertEquals("stream", text(entries, "stream.txt"));
+            Assertions.assertEquals("supplier", text(entries, "dir/supplier.txt"));
+            Assertions.assertTrue(entries.containsKey("dir/"));
+            Assertions.assertEquals(ZipEntry.STORED, methods(out.toByteArray()).get("random.bin").intValue());
+            Assertions.assertEquals(ZipEntry.DEFLATED, methods(out.toByteArray()).get("path.txt").intValue());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testNonBlockingChannelWithSlowConsumer() throws Exception {
+        final Pipe pipe = Pipe.open();
+        pipe.sink().configureBlocking(false);
+        final byte[] data = new byte[1024 * 1024];
+        new Random(2).nextBytes(data);
+        final CompletableFuture<byte[]> consumer = CompletableFuture.supplyAsync(() -> {
+            try (var in = Channels.newInputStream(pipe.source())) {
+                final var out = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[4096];
+                int len;
+                while ((len = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, len);
+                    Thread.yield();
+                }
+                return out.toByteArray();
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        try (ZipWriter zip = ZipWriter.to(pipe.sink())) {
+            zip.addStored("data.bin", ZipWriter.Source.of(data));
+        }
+        Assertions.assertArrayEquals(data, read(consumer.get()).get("data.bin"));
+    }
+
+    @Test
+    public void testChannelWritingNothing() throws Exception {
+        final var out = new ByteArrayOutputStream();
+        final var target = Channels.newChannel(out);
+        final int[] calls = new int[1];
+        // every other write makes no progress, as a non-selectable non-blocking channel may do
+        final WritableByteChannel channel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                return calls[0]++ % 2 == 0 ? 0 : target.write(src);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return target.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                target.close();
+            }
+        };
+        try (ZipWriter zip = ZipWriter.to(channel)) {
+            zip.add("text.txt", ZipWriter.Source.of("content".getBytes()));
+        }
+        Assertions.assertTrue(calls[0] > 1);
+        Assertions.assertEquals("content", text(read(out.toByteArray()), "text.txt"));
+    }
+
+    private static String text(Map<String, byte[]> entries, String name) {
+        return new String(entries.get(name), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, byte[]> read(byte[] archive) throws IOException {
+        final Map<String, byte[]> entries = new HashMap<>();
+        try (var zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.put(entry.getName(), IOUtils.toByteArray(zis));
+            }
+        }
+        return entries;
+    }
+
+    private static Map<String, Integer> methods(byte[] archive) throws IOException {
+        final Map<String, Integer> methods = new HashMap<>();
+        try (var zis = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                methods.put(entry.getName(), entry.getMethod());
+            }
+        }
+        return methods;
+    }
+}
@@ -0,0 +1,85 @@
+package com.alphasystem.commons.util.nio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+public class JarFileSystemsTest {
+
+    @TempDir
+    Path workDir;
+    private Path jar;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        jar = workDir.resolve("resources.jar");
+        try (var jos = new JarOutputStream(new FileOutputStream(jar.toFile()))) {
+            for (String name : new String[]{"files/file1.txt", "files/sub-dir/file2.txt"}) {
+                jos.putNextEntry(new ZipEntry(name));
+                jos.write(name.getBytes(StandardCharsets.UTF_8));
+                jos.closeEntry();
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        JarFileSystems.evict(jar);
+    }
+
+    @Test
+    public void testFileSystemIsSharedAndOutlivesHandles() throws Exception {
+        final Path path;
+        try (var first = JarFileSystems.acquire(jar);
+             var second = JarFileSystems.acquire(workDir.resolve("./resources.jar"))) {
+            Assertions.assertSame(first.getFileSystem(), second.getFileSystem());
+            path = first.getPath("files/file1.txt");
+            Assertions.assertEquals(path, second.getPath("/files", "file1.txt"));
+        }
+        // cache keeps the file system open
+        Assertions.assertEquals("files/file1.txt", read(path));
+
+        final var handle = JarFileSystems.acquire(jar);
+        JarFileSystems.evict(jar);
+        Assertions.assertTrue(handle.getFileSystem().isOpen());
+        handle.close();
+        handle.close();
+        Assertions.assertFalse(handle.getFileSystem().isOpen());
+    }
+
+    @Test
+    public void testChangedJarGetsNewFileSystem() throws Exception {
+        final var old = JarFileSystems.acquire(jar);
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 10_000));
+        try (var changed = JarFileSystems.acquire(jar)) {
+            Assertions.assertNotSame(old.getFileSystem(), changed.getFileSystem());
+            Assertions.assertTrue(old.getFileSystem().isOpen());
+            old.close();
+            Assertions.assertFalse(old.getFileSystem().isOpen());
+            Assertions.assertEquals("files/sub-dir/file2.txt", read(changed.getPath("files/sub-dir/file2.txt")));
+        }
+    }
+
+    private static String read(Path path) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(path)) {
+            final var buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // read fully
+            }
+            return new String(buffer.array(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.alphasystem.commons.util.nio;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class NIOFileUtilsTest {
+
+    @TempDir
+    Path workDir;
+    private Path sourceDir;
+    private long totalBytes;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        sourceDir = workDir.resolve("source");
+        final var random = new Random(11);
+        Files.createDirectories(sourceDir.resolve("a/b/c"));
+        Files.createDirectories(sourceDir.resolve("empty"));
+        final int large = (int) ParallelDirCopier.LARGE_FILE_SIZE;
+        final int[] sizes = {0, 10, 4096, large, 3 * large};
+        final String[] dirs = {"", "a", "a/b", "a/b/c"};
+        for (int i = 0; i < 40; i++) {
+            final var data = new byte[sizes[i % sizes.length]];
+            random.nextBytes(data);
+            Files.write(sourceDir.resolve(dirs[i % dirs.length]).resolve("file-" + i + ".bin"), data);
+            totalBytes += data.length;
+        }
+    }
+
+    @Test
+    public void testCopyDirParallel() throws Exception {
+        final var target = workDir.resolve("target");
+        final var result = NIOFileUtils.copyDirParallel(sourceDir, target, 3);
+        Assertions.assertEquals(5, result.directories());
+        Assertions.assertEquals(40, result.files());
+        Assertions.assertEquals(totalBytes, result.bytes());
+        Assertions.assertTrue(Files.isDirectory(target.resolve("empty")));
+        for (File file : FileUtils.listFiles(sourceDir.toFile(), null, true)) {
+            final var relative = sourceDir.relativize(file.toPath());
+            Assertions.assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(target.resolve(relative)),
+                    relative.toString());
+        }
+
+        // existing files are replaced
+        Files.write(sourceDir.resolve("a/file-1.bin"), "changed".getBytes());
+        Assertions.assertEquals(40, NIOFileUtils.copyDirParallel(sourceDir, target).files());
+        Assertions.assertEquals("changed", Files.readString(target.resolve("a/file-1.bin")));
+    }
+
+    @Test
+    public void testCopyDirParallelFailure() throws Exception {
+        final var target = workDir.resolve("target");
+        Files.createDirectories(target.resolve("a"));
+        // directory in place of a file can not be replaced
+        Files.createDirectories(target.resolve("a/file-1.bin/x"));
+        Assertions.assertThrows(IOException.class, () -> NIOFileUtils.copyDirParallel(sourceDir, target, 2));
+        Assertions.assertThrows(IOException.class,
+                () -> NIOFileUtils.copyDirParallel(sourceDir.resolve("file-0.bin"), target));
+    }
+}